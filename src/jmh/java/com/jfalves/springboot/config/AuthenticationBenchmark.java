@@ -0,0 +1,85 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentications per second of the three ways a request can prove who it is: a bearer token
+ * (HMAC check, {@link TokenService#verify(String)}), Basic credentials through BCrypt
+ * (DaoAuthenticationProvider) and Basic credentials already in {@link AuthenticationCache}.
+ * The users are in memory, so the Basic numbers leave out the user lookup in the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final String USERNAME = "jackson";
+    private static final String PASSWORD = "academy";
+
+    private TokenService tokenService;
+    private String token;
+    private AuthenticationManager bcrypt;
+    private CachingAuthenticationProvider cached;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername(USERNAME)
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles("User", "Admin")
+                .build()));
+        provider.setPasswordEncoder(passwordEncoder);
+        bcrypt = new ProviderManager(provider);
+
+        cached = new CachingAuthenticationProvider(bcrypt, new AuthenticationCache(true, Duration.ofMinutes(5), 10_000));
+        cached.authenticate(credentials());
+
+        tokenService = new TokenService(new TokenProperties());
+        token = tokenService.issue(bcrypt.authenticate(credentials()));
+    }
+
+    @Benchmark
+    public Authentication token() {
+        return tokenService.verify(token);
+    }
+
+    @Benchmark
+    public Authentication basic() {
+        return bcrypt.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication basicCached() {
+        return cached.authenticate(credentials());
+    }
+
+    private static Authentication credentials() {
+        return new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD);
+    }
+}
@@ -0,0 +1,46 @@
+package com.jfalves.springboot.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DevDojoUserBenchmark {
+
+    @Param({"ROLE_USER", "ROLE_ADMIN,ROLE_USER"})
+    private String authorities;
+
+    private DevDojoUser user;
+
+    @Setup
+    public void setUp() {
+        user = DevDojoUser.builder()
+                .name("William Suane")
+                .username("william")
+                .password("{bcrypt}$2a$10$zx9ksxUc4HNy7z0PKpS07euTI.F0kMbuQA7tz3nqlx1e4jcfItRGq")
+                .authorities(authorities)
+                .build();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,87 @@
+package com.jfalves.springboot.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.config.AdmissionProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the AdmissionFilter adds to each request, with a chain that does nothing: admitted minus
+ * passThrough is the cost of the rate bucket CAS plus the concurrency slot. The contended variant
+ * has every thread on the same principal and group, the worst case for both CAS loops.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdmissionFilterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        private AdmissionFilter filter;
+
+        @Setup
+        public void setUp() {
+            AdmissionProperties properties = new AdmissionProperties();
+            properties.setEnabled(true);
+            //Limites que nunca são atingidos: só o caminho de admissão é medido
+            properties.getRead().setRate(1e9);
+            properties.getRead().setBurst(1_000_000);
+            properties.getRead().setMinLimit(64);
+            properties.getRead().setInitialLimit(64);
+            properties.getRead().setMaxLimit(64);
+            filter = new AdmissionFilter(new AdmissionControl(properties), new ObjectMapper());
+        }
+    }
+
+    private final FilterChain chain = (request, response) -> {
+    };
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/animes/1");
+        response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "jackson", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @Benchmark
+    public void passThrough() throws IOException, ServletException {
+        chain.doFilter(request, response);
+    }
+
+    @Benchmark
+    public void admitted(Shared shared) throws IOException, ServletException {
+        shared.filter.doFilter(request, response, chain);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void admittedContended(Shared shared) throws IOException, ServletException {
+        shared.filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,102 @@
+package com.jfalves.springboot.handler;
+
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.exception.PreconditionFailedException;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.service.AnimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building each error body, without the exception creation itself: the exceptions are
+ * created once in {@link #setUp()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestExceptionHandlerBenchmark {
+
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+    private final HttpHeaders headers = new HttpHeaders();
+    private final WebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("PUT", "/animes"));
+
+    private BadRequestException badRequestException;
+    private PreconditionFailedException preconditionFailedException;
+    private ConstraintViolationException constraintViolationException;
+    private MethodArgumentNotValidException methodArgumentNotValidException;
+    private HttpMessageNotReadableException httpMessageNotReadableException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        badRequestException = new BadRequestException("Anime not found");
+        preconditionFailedException = new PreconditionFailedException("Anime was modified");
+
+        AnimePostRequestBody invalidBody = AnimePostRequestBody.builder().name("").build();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        constraintViolationException = new ConstraintViolationException(validator.validate(invalidBody));
+
+        BindingResult bindingResult = new BeanPropertyBindingResult(invalidBody, "animePostRequestBody");
+        bindingResult.rejectValue("name", "NotEmpty", "The anime name cannot be empty");
+        MethodParameter parameter = new MethodParameter(
+                AnimeService.class.getMethod("save", AnimePostRequestBody.class), 0);
+        methodArgumentNotValidException = new MethodArgumentNotValidException(parameter, bindingResult);
+
+        httpMessageNotReadableException = new HttpMessageNotReadableException("JSON parse error",
+                new IllegalArgumentException("Unexpected character"), new MockHttpInputMessage(new byte[0]));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleBadRequestException() {
+        return handler.handleBadRequestException(badRequestException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handlePreconditionFailedException() {
+        return handler.handlePreconditionFailedException(preconditionFailedException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleConstraintViolationException() {
+        return handler.handleConstraintViolationException(constraintViolationException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleMethodArgumentNotValid() {
+        return handler.handleMethodArgumentNotValid(methodArgumentNotValidException, headers,
+                HttpStatus.BAD_REQUEST, webRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleExceptionInternal() {
+        return handler.handleExceptionInternal(httpMessageNotReadableException, null, headers,
+                HttpStatus.BAD_REQUEST, webRequest);
+    }
+}
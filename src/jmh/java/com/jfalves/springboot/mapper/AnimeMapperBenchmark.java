@@ -0,0 +1,38 @@
+package com.jfalves.springboot.mapper;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeMapperBenchmark {
+
+    private final AnimePostRequestBody postRequestBody = AnimePostRequestBody.builder().name("Boku no Hero").build();
+    private final AnimePutRequestBody putRequestBody = AnimePutRequestBody.builder().id(1L).name("Boku no Hero 2").build();
+
+    @Benchmark
+    public Anime toAnimeFromPostRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(postRequestBody);
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPutRequestBody() {
+        return AnimeMapper.INSTANCE.toAnime(putRequestBody);
+    }
+}
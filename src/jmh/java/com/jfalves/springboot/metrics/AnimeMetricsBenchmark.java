@@ -0,0 +1,94 @@
+package com.jfalves.springboot.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Cost of the instrumentation on the request path: run with -prof gc, every recording benchmark
+ * should stay at ~0 B/op. timedProxyCall minus passThroughProxyCall is what the timing
+ * interceptor adds to each AnimeService/AnimeRepository call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeMetricsBenchmark {
+
+    private final LongUnaryOperator target = value -> value * 31;
+    private AnimeMetrics metrics;
+    private Method handler;
+    private LatencyHistogram histogram;
+    private LongUnaryOperator passThroughProxy;
+    private LongUnaryOperator timedProxy;
+    private long nanos;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        metrics = new AnimeMetrics();
+        handler = LongUnaryOperator.class.getMethod("applyAsLong", long.class);
+        histogram = new LatencyHistogram();
+        passThroughProxy = proxy(invocation -> invocation.proceed());
+        timedProxy = proxy(new MethodTimingInterceptor("AnimeService", metrics));
+    }
+
+    private LongUnaryOperator proxy(MethodInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(LongUnaryOperator.class, interceptor);
+        proxyFactory.setTarget(target);
+        return (LongUnaryOperator) proxyFactory.getProxy();
+    }
+
+    //Latências de 0 a ~4ms, espalhadas pelos buckets
+    private long nextNanos() {
+        nanos = (nanos + 104_729) & 0x3F_FFFF;
+        return nanos;
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        histogram.record(nextNanos());
+    }
+
+    @Benchmark
+    public void recordRequest() {
+        RequestMetrics requestMetrics = metrics.handler(handler);
+        requestMetrics.started();
+        requestMetrics.record(200, nextNanos());
+        requestMetrics.finished();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordRequestContended() {
+        RequestMetrics requestMetrics = metrics.handler(handler);
+        requestMetrics.started();
+        requestMetrics.record(200, nextNanos());
+        requestMetrics.finished();
+    }
+
+    @Benchmark
+    public long passThroughProxyCall() {
+        return passThroughProxy.applyAsLong(nextNanos());
+    }
+
+    @Benchmark
+    public long timedProxyCall() {
+        return timedProxy.applyAsLong(nextNanos());
+    }
+}
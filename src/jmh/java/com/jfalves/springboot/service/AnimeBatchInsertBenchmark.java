@@ -0,0 +1,83 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.search.AnimeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Animes inserted per second through AnimeService, Hibernate and H2: saveAll is POST /animes/batch
+ * (one transaction, pooled ids, JDBC batches), save is the same animes sent one POST /animes at a
+ * time (one transaction and one insert round trip each).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+//Hibernate e o H2 demoram mais a compilar do que os outros benchmarks
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeBatchInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private AnimeService service;
+    private List<AnimePostRequestBody> bodies;
+
+    @Setup
+    public void setUp() {
+        context = H2AnimeApplication.start("anime-batch-insert");
+        service = context.getBean(AnimeService.class);
+        bodies = IntStream.rangeClosed(1, BATCH_SIZE)
+                .mapToObj(i -> AnimePostRequestBody.builder().name("Anime " + i).build())
+                .collect(Collectors.toList());
+    }
+
+    //Cada iteração começa com a tabela, o índice de busca e a contagem vazios
+    @TearDown(Level.Iteration)
+    public void deleteAnimes() {
+        context.getBean(JdbcTemplate.class).update("delete from anime");
+        context.getBean(AnimeSearchIndex.class).rebuild();
+        context.getBean(AnimeCountCache.class).reset();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Anime> saveAll() {
+        return service.saveAll(bodies);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void save(Blackhole blackhole) {
+        for (AnimePostRequestBody body : bodies) {
+            blackhole.consume(service.save(body));
+        }
+    }
+}
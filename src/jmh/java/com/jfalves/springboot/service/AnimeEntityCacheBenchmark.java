@@ -0,0 +1,118 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.AnimeCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * AnimeEntityCache.get from 1 to 32 threads sharing one cache, with skewed ids over ten times
+ * more animes than the cache holds, so hits, misses and evictions all happen. The loader is free:
+ * only the cache itself is measured. JMH adds up the threads' throughput: it should grow with the
+ * threads up to the number of cores and stay flat past it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeEntityCacheBenchmark {
+
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final int ANIMES = MAXIMUM_SIZE * 10;
+
+    @Param({"TINY_LFU", "LRU"})
+    private AnimeCacheProperties.Policy policy;
+
+    private AnimeEntityCache cache;
+    private final LongFunction<Optional<Anime>> loader = id -> Optional.of(Anime.builder().id(id).name("Anime").build());
+
+    @Setup
+    public void setUp() {
+        AnimeCacheProperties properties = new AnimeCacheProperties();
+        properties.setPolicy(policy);
+        properties.setMaximumSize(MAXIMUM_SIZE);
+        cache = new AnimeEntityCache(properties);
+
+        //O TinyLFU só admite os animes quentes aos poucos: a taxa de acerto tem que estar estável antes de medir
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ANIMES * 100; i++) {
+            cache.get(skewedId(random), loader);
+        }
+    }
+
+    //Poucos animes muito pedidos e uma cauda longa
+    private static long skewedId(SplittableRandom random) {
+        return 1 + (long) (ANIMES * Math.pow(random.nextDouble(), 4));
+    }
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final long[] ids = new long[1 << 16];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = skewedId(random);
+            }
+        }
+
+        long next() {
+            return ids[next++ & (ids.length - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Anime> get01(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Optional<Anime> get02(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Anime> get04(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<Anime> get08(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Optional<Anime> get16(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Optional<Anime> get32(Ids ids) {
+        return cache.get(ids.next(), loader);
+    }
+}
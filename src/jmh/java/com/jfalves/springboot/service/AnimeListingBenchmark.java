@@ -0,0 +1,73 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.domain.Anime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one page of GET /animes through AnimeService, Hibernate and H2: listAll runs the page
+ * query plus SELECT COUNT(*), listAllWithCachedTotal the page query (one row more) with the total
+ * from AnimeCountCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+//Hibernate e o H2 demoram mais a compilar do que os outros benchmarks
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeListingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    private int animes;
+
+    private ConfigurableApplicationContext context;
+    private AnimeService service;
+
+    @Setup
+    public void setUp() {
+        context = H2AnimeApplication.start("anime-listing-" + animes);
+        context.getBean(JdbcTemplate.class).update(
+                "insert into anime (id, name, version) select x, concat('Anime ', x), 0 from system_range(1, ?)", animes);
+        service = context.getBean(AnimeService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Anime> listAll() {
+        return service.listAll(randomPage());
+    }
+
+    @Benchmark
+    public Page<Anime> listAllWithCachedTotal() {
+        return service.listAllWithCachedTotal(randomPage());
+    }
+
+    //Primeiras páginas, as mais pedidas; offsets grandes custam o mesmo nos dois
+    private static PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(10), PAGE_SIZE);
+    }
+}
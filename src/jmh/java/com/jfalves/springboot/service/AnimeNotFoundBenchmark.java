@@ -0,0 +1,68 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.AnimeCacheProperties;
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.handler.RestExceptionHandler;
+import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.search.AnimeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 400 path of GET /animes/{id} for an id that does not exist: the service throws, the
+ * exception handler builds the error body. {@code callDepth} stands in for the servlet, filter
+ * and Spring MVC frames under the controller, which a stack trace has to walk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeNotFoundBenchmark {
+
+    private static final long MISSING_ID = 404;
+
+    @Param({"10", "150"})
+    private int callDepth;
+
+    private AnimeService service;
+    private RestExceptionHandler handler;
+
+    @Setup
+    public void setUp() {
+        AnimeRepository repository = InMemoryAnimeRepository.create();
+        service = new AnimeService(repository, new AnimeCountCache(repository), new AnimeSearchIndex(repository),
+                new AnimeEntityCache(new AnimeCacheProperties()), new AnimeCatalogVersion());
+        handler = new RestExceptionHandler();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> findMissingAnime() {
+        return findMissingAnime(callDepth);
+    }
+
+    private ResponseEntity<?> findMissingAnime(int depth) {
+        if (depth > 0) {
+            return findMissingAnime(depth - 1);
+        }
+        try {
+            service.findByIdOrThrowBadRequestException(MISSING_ID);
+            throw new IllegalStateException("Anime " + MISSING_ID + " should not exist");
+        } catch (BadRequestException e) {
+            return handler.handleBadRequestException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.AnimeCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.search.AnimeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * AnimeService with its real caches and search index over {@link InMemoryAnimeRepository}.
+ * With {@code entityCache=false} findById goes to the repository on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000"})
+    private int animes;
+
+    @Param({"true", "false"})
+    private boolean entityCache;
+
+    private AnimeService service;
+    private long maxId;
+
+    @Setup
+    public void setUp() {
+        AnimeRepository repository = InMemoryAnimeRepository.create();
+        AnimeCacheProperties cacheProperties = new AnimeCacheProperties();
+        cacheProperties.setEnabled(entityCache);
+        AnimeSearchIndex searchIndex = new AnimeSearchIndex(repository);
+        service = new AnimeService(repository, new AnimeCountCache(repository), searchIndex,
+                new AnimeEntityCache(cacheProperties), new AnimeCatalogVersion());
+
+        List<AnimePostRequestBody> bodies = IntStream.rangeClosed(1, animes)
+                .mapToObj(i -> AnimePostRequestBody.builder().name("Anime " + i).build())
+                .collect(Collectors.toList());
+        maxId = service.saveAll(bodies).stream().mapToLong(Anime::getId).max().orElseThrow();
+    }
+
+    @Benchmark
+    public Anime findById() {
+        return service.findByIdOrThrowBadRequestException(randomId());
+    }
+
+    @Benchmark
+    public Page<Anime> listAll() {
+        return service.listAll(PageRequest.of(ThreadLocalRandom.current().nextInt(10), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Anime> listAllWithCachedTotal() {
+        return service.listAllWithCachedTotal(PageRequest.of(ThreadLocalRandom.current().nextInt(10), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public void replace() {
+        long id = randomId();
+        service.replace(AnimePutRequestBody.builder().id(id).name("Anime " + id).build());
+    }
+
+    //Save seguido de delete mantém o tamanho do repositório constante entre as iterações
+    @Benchmark
+    public long saveAndDelete() {
+        Anime saved = service.save(AnimePostRequestBody.builder().name("Kingdom").build());
+        service.delete(saved.getId());
+        return saved.getId();
+    }
+
+    @Benchmark
+    public List<Anime> search() {
+        return service.search("anime 12", 10);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, maxId + 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.SpringbootEssentialsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * The whole application over an in-memory H2 database, for benchmarks that have to go through
+ * Hibernate and JDBC. No web server and no SQL logging.
+ */
+final class H2AnimeApplication {
+
+    //As classes de teste estão no classpath dos benchmarks e o component scan acharia as configs dos ITs
+    private static final String INTEGRATION_TESTS = "com.jfalves.springboot.integration.";
+
+    private H2AnimeApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(SpringbootEssentialsApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().registerSingleton("integrationTestExcludeFilter",
+                        new TypeExcludeFilter() {
+                            @Override
+                            public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+                                return metadataReader.getClassMetadata().getClassName().startsWith(INTEGRATION_TESTS);
+                            }
+                        }))
+                //Argumentos e não properties(): o application.yml sobrescreve os defaults
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.SQL=warn");
+    }
+}
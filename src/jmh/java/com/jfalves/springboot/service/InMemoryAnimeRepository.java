@@ -0,0 +1,123 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.AnimeRepository;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * {@link AnimeRepository} backed by a sorted map, so the service benchmarks measure the service
+ * and its caches instead of the database. Only the methods AnimeService and its collaborators call
+ * are implemented; pages are always in id order.
+ */
+class InMemoryAnimeRepository implements InvocationHandler {
+
+    private final ConcurrentNavigableMap<Long, Anime> animes = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    static AnimeRepository create() {
+        return (AnimeRepository) Proxy.newProxyInstance(AnimeRepository.class.getClassLoader(),
+                new Class<?>[]{AnimeRepository.class}, new InMemoryAnimeRepository());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "save":
+                return save((Anime) args[0]);
+            case "saveAll":
+                List<Anime> saved = new ArrayList<>();
+                ((Iterable<Anime>) args[0]).forEach(anime -> saved.add(save(anime)));
+                return saved;
+            case "findById":
+                return Optional.ofNullable(animes.get((Long) args[0]));
+            case "existsById":
+                return animes.containsKey((Long) args[0]);
+            case "count":
+                return (long) animes.size();
+            case "findAll":
+            case "findAllReadOnly":
+                if (args == null) {
+                    return new ArrayList<>(animes.values());
+                }
+                Pageable pageable = (Pageable) args[0];
+                return new PageImpl<>(page(pageable, pageable.getPageSize()), pageable, animes.size());
+            case "findAllBy":
+            case "findSliceReadOnly":
+                Pageable slicePageable = (Pageable) args[0];
+                List<Anime> content = page(slicePageable, slicePageable.getPageSize() + 1);
+                boolean hasNext = content.size() > slicePageable.getPageSize();
+                return new SliceImpl<>(hasNext ? content.subList(0, slicePageable.getPageSize()) : content,
+                        slicePageable, hasNext);
+            case "findByNameReadOnly":
+                return animes.values().stream()
+                        .filter(anime -> anime.getName().equals(args[0]))
+                        .collect(Collectors.toList());
+            case "streamAll":
+                return new ArrayList<>(animes.values()).stream();
+            case "updateNameById":
+                return rename((Long) args[0], (String) args[1], null);
+            case "updateNameByIdAndVersion":
+                return rename((Long) args[0], (String) args[1], (Long) args[2]);
+            case "updateNames":
+                return ((Map<Long, String>) args[0]).entrySet().stream()
+                        .mapToInt(entry -> rename(entry.getKey(), entry.getValue(), null))
+                        .toArray();
+            case "removeById":
+                return animes.remove((Long) args[0]) == null ? 0 : 1;
+            case "removeAllByIdIn":
+                return (int) ((Collection<Long>) args[0]).stream()
+                        .filter(id -> animes.remove(id) != null)
+                        .count();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryAnimeRepository(" + animes.size() + " animes)";
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    private Anime save(Anime anime) {
+        if (anime.getId() == null) {
+            anime.setId(ids.incrementAndGet());
+            anime.setVersion(0L);
+        }
+        animes.put(anime.getId(), anime);
+        return anime;
+    }
+
+    private List<Anime> page(Pageable pageable, int limit) {
+        return animes.values().stream()
+                .skip(pageable.getOffset())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    //Mesma semântica do UPDATE: uma linha nova com version + 1, retorna as linhas afetadas
+    private int rename(Long id, String name, Long expectedVersion) {
+        Anime current = id == null ? null : animes.get(id);
+        if (current == null || (expectedVersion != null && !expectedVersion.equals(current.getVersion()))) {
+            return 0;
+        }
+        Anime renamed = new Anime(id, name, current.getVersion() + 1);
+        return animes.replace(id, current, renamed) ? 1 : 0;
+    }
+}
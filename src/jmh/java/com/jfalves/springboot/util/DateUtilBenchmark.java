@@ -0,0 +1,31 @@
+package com.jfalves.springboot.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    private final DateUtil dateUtil = new DateUtil();
+    private final LocalDateTime localDateTime = LocalDateTime.of(2021, 3, 14, 15, 9, 26, 535_000_000);
+
+    @Benchmark
+    public String formatLocalDateTimeToDatabasesStyle() {
+        return dateUtil.formatLocalDateTimeToDatabasesStyle(localDateTime);
+    }
+}
@@ -0,0 +1,77 @@
+package com.jfalves.springboot.wrapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jfalves.springboot.domain.Anime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Both sides of a {@code GET /animes} page: the server writing a {@link Page} and the client
+ * reading it back into a {@link PageableResponse}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageableResponseBenchmark {
+
+    private static final TypeReference<PageableResponse<Anime>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    //Mesma configuração do ObjectMapper criado pelo Spring Boot
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Page<Anime> page;
+    private PageableResponseReader<Anime> pageReader;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Anime> animes = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> Anime.builder().id(id).name("Anime " + id).version(0L).build())
+                .collect(Collectors.toList());
+        page = new PageImpl<>(animes, PageRequest.of(3, pageSize), 100_000);
+        json = objectMapper.writeValueAsBytes(page);
+        pageReader = new PageableResponseReader<>(objectMapper, Anime.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> deserializePageableResponse() throws IOException {
+        return objectMapper.readValue(json, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public PageSummary readPageWithConsumer(Blackhole blackhole) throws IOException {
+        return pageReader.read(json, blackhole::consume);
+    }
+}
@@ -0,0 +1,106 @@
+package com.jfalves.springboot.wrapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.BadRequestExceptionDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * JSON against Smile for the payloads the API sends most: a page of animes, the whole catalog
+ * ({@code /animes/all}) and an error body. Payload sizes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<PageableResponse<Anime>> PAGE_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Anime>> LIST_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private PageImpl<Anime> page;
+    private List<Anime> catalog;
+    private BadRequestExceptionDetails errorBody;
+    private byte[] encodedPage;
+    private byte[] encodedCatalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        //Mesma configuração dos conversores do servidor
+        objectMapper = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+
+        catalog = LongStream.rangeClosed(1, 10_000)
+                .mapToObj(id -> Anime.builder().id(id).name("Anime number " + id).version(0L).build())
+                .collect(Collectors.toList());
+        page = new PageImpl<>(catalog.subList(0, 500), PageRequest.of(0, 500), catalog.size());
+        errorBody = BadRequestExceptionDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .status(400)
+                .tittle("Bad Request Exception, Check the Documentation")
+                .details("Anime not found")
+                .developerMessage("com.jfalves.springboot.exception.BadRequestException")
+                .build();
+
+        encodedPage = objectMapper.writeValueAsBytes(page);
+        encodedCatalog = objectMapper.writeValueAsBytes(catalog);
+        System.out.printf("%n%s payload bytes: page of 500 = %d, catalog of 10000 = %d, error body = %d%n",
+                format, encodedPage.length, encodedCatalog.length, objectMapper.writeValueAsBytes(errorBody).length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> decodePage() throws IOException {
+        return objectMapper.readValue(encodedPage, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public byte[] encodeCatalog() throws IOException {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public List<Anime> decodeCatalog() throws IOException {
+        return objectMapper.readValue(encodedCatalog, LIST_TYPE);
+    }
+
+    @Benchmark
+    public byte[] encodeErrorBody() throws IOException {
+        return objectMapper.writeValueAsBytes(errorBody);
+    }
+}
@@ -0,0 +1,138 @@
+package com.jfalves.springboot.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows latency, in the spirit of the gradient limiters used for
+ * adaptive load shedding. Every window the average latency is compared with a long term average:
+ * while it stays under tolerance times that, the limit grows by about its square root; above it,
+ * the limit shrinks in proportion (at most by half per window). When the database or the Tomcat
+ * pool saturates latency goes up and excess requests are turned away instead of queueing.
+ * <p>
+ * Admission and release are lock-free; only the thread that closes a window recomputes the limit.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    //Janelas com menos amostras não mexem no limite
+    private static final int MIN_SAMPLES = 10;
+    //Média de longo prazo das últimas ~20 janelas
+    private static final double LONG_TERM_WEIGHT = 0.05;
+    private static final double SMOOTHING = 0.2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder windowLatency = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowStart;
+    private final LongAdder rejected = new LongAdder();
+    private volatile Settings settings;
+    private volatile double limit;
+    private volatile double longTermLatency;
+    private volatile double lastLatency;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    long windowNanos, long nowNanos) {
+        this.windowStart = new AtomicLong(nowNanos);
+        update(initialLimit, minLimit, maxLimit, tolerance, windowNanos);
+    }
+
+    /**
+     * New bounds take effect on the next request; the current limit is clamped to them.
+     */
+    public void update(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1 || windowNanos <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency limit: min " + minLimit + ", max " + maxLimit
+                    + ", tolerance " + tolerance + ", window " + windowNanos + "ns");
+        }
+        Settings previous = settings;
+        settings = new Settings(minLimit, maxLimit, tolerance, windowNanos);
+        double current = previous == null ? initialLimit : limit;
+        limit = Math.max(minLimit, Math.min(maxLimit, current));
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        if (current + 1 > peakInFlight.get()) {
+            peakInFlight.accumulateAndGet(current + 1, Math::max);
+        }
+        return true;
+    }
+
+    public void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        windowLatency.add(latencyNanos);
+        windowSamples.increment();
+
+        long start = windowStart.get();
+        if (nowNanos - start >= settings.windowNanos && windowStart.compareAndSet(start, nowNanos)) {
+            closeWindow();
+        }
+    }
+
+    private void closeWindow() {
+        long samples = windowSamples.sumThenReset();
+        long latency = windowLatency.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (samples < MIN_SAMPLES) {
+            return;
+        }
+
+        Settings current = settings;
+        double shortTerm = (double) latency / samples;
+        double longTerm = longTermLatency == 0 ? shortTerm : longTermLatency + (shortTerm - longTermLatency) * LONG_TERM_WEIGHT;
+        longTermLatency = longTerm;
+        lastLatency = shortTerm;
+
+        double gradient = Math.max(0.5, Math.min(1.0, current.tolerance * longTerm / shortTerm));
+        double target = limit * gradient + Math.sqrt(limit);
+        //Só cresce se o limite atual chegou a ser usado; tráfego baixo não diz nada sobre a capacidade
+        if (target > limit && peak < limit / 2) {
+            return;
+        }
+        double next = limit + (target - limit) * SMOOTHING;
+        limit = Math.max(current.minLimit, Math.min(current.maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Average latency of the last window that had enough samples.
+     */
+    public double getLatencyMillis() {
+        return lastLatency / 1_000_000;
+    }
+
+    private static class Settings {
+        private final int minLimit;
+        private final int maxLimit;
+        private final double tolerance;
+        private final long windowNanos;
+
+        private Settings(int minLimit, int maxLimit, double tolerance, long windowNanos) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.tolerance = tolerance;
+            this.windowNanos = windowNanos;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.jfalves.springboot.admission;
+
+import com.jfalves.springboot.config.AdmissionProperties;
+import com.jfalves.springboot.wrapper.AdmissionStats;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the AdmissionFilter applies: per principal rate per endpoint group and an adaptive
+ * concurrency limit per group. {@link #reload(AdmissionProperties)} swaps them at runtime without
+ * losing the buckets or the learned limits.
+ */
+@Log4j2
+@Component
+public class AdmissionControl {
+
+    private final StripedRateLimiter rateLimiter;
+    private final Map<EndpointGroup, AdaptiveConcurrencyLimit> concurrencyLimits = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, LongAdder> rateLimited = new EnumMap<>(EndpointGroup.class);
+    private volatile AdmissionProperties properties;
+
+    public AdmissionControl(AdmissionProperties properties) {
+        checkClaimedUserShare(properties);
+        this.rateLimiter = new StripedRateLimiter(properties.getStripes());
+        long now = System.nanoTime();
+        for (EndpointGroup group : EndpointGroup.values()) {
+            AdmissionProperties.Group limits = group(properties, group);
+            check(group, limits);
+            concurrencyLimits.put(group, new AdaptiveConcurrencyLimit(limits.getInitialLimit(), limits.getMinLimit(),
+                    limits.getMaxLimit(), limits.getTolerance(), limits.getWindow().toNanos(), now));
+            rateLimited.put(group, new LongAdder());
+        }
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @return 0 when the principal is under its rate for the group, otherwise nanos until it is
+     */
+    public long tryAcquireRate(Object principalKey, EndpointGroup group, long nowNanos) {
+        AdmissionProperties.Group limits = group(properties, group);
+        long wait = rateLimiter.tryAcquire(principalKey, group.ordinal(), limits.getRate(), limits.getBurst(), nowNanos);
+        if (wait > 0) {
+            rateLimited.get(group).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Extra bucket of a user name claimed in Basic credentials that are not verified yet, at
+     * claimedUserShare of the group's rate and burst and shared by every address claiming it.
+     *
+     * @return 0 when the claimed user is under its rate for the group, otherwise nanos until it is
+     */
+    public long tryAcquireClaimedUserRate(String claimedUser, EndpointGroup group, long nowNanos) {
+        AdmissionProperties current = properties;
+        AdmissionProperties.Group limits = group(current, group);
+        double share = current.getClaimedUserShare();
+        //Salt próprio: um usuário alegado não divide bucket com um principal de mesmo nome
+        long wait = rateLimiter.tryAcquire(claimedUser, EndpointGroup.values().length + group.ordinal(),
+                limits.getRate() * share, Math.max(1, (int) (limits.getBurst() * share)), nowNanos);
+        if (wait > 0) {
+            rateLimited.get(group).increment();
+        }
+        return wait;
+    }
+
+    public AdaptiveConcurrencyLimit concurrencyLimit(EndpointGroup group) {
+        return concurrencyLimits.get(group);
+    }
+
+    public long rateLimited(EndpointGroup group) {
+        return rateLimited.get(group).sum();
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, properties.getRetryAfter().getSeconds());
+    }
+
+    /**
+     * Replaces every limit; the stripe count is fixed at startup. Nothing changes if any group is
+     * invalid.
+     */
+    public synchronized void reload(AdmissionProperties reloaded) {
+        if (reloaded.getRetryAfter() == null) {
+            throw new IllegalArgumentException("Retry after is required");
+        }
+        checkClaimedUserShare(reloaded);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            check(group, group(reloaded, group));
+        }
+        for (EndpointGroup group : EndpointGroup.values()) {
+            AdmissionProperties.Group limits = group(reloaded, group);
+            concurrencyLimits.get(group).update(limits.getInitialLimit(), limits.getMinLimit(), limits.getMaxLimit(),
+                    limits.getTolerance(), limits.getWindow().toNanos());
+        }
+        reloaded.setStripes(properties.getStripes());
+        properties = reloaded;
+        log.info("Admission limits reloaded, enabled {}", reloaded.isEnabled());
+    }
+
+    public AdmissionStats stats() {
+        Map<EndpointGroup, AdmissionStats.Group> groups = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            AdaptiveConcurrencyLimit limit = concurrencyLimits.get(group);
+            groups.put(group, AdmissionStats.Group.builder()
+                    .limit(limit.getLimit())
+                    .inFlight(limit.getInFlight())
+                    .latencyMillis(limit.getLatencyMillis())
+                    .rateLimited(rateLimited(group))
+                    .concurrencyLimited(limit.getRejected())
+                    .build());
+        }
+        return AdmissionStats.builder()
+                .enabled(properties.isEnabled())
+                .limits(properties)
+                .groups(groups)
+                .build();
+    }
+
+    private static AdmissionProperties.Group group(AdmissionProperties properties, EndpointGroup group) {
+        switch (group) {
+            case READ:
+                return properties.getRead();
+            case WRITE:
+                return properties.getWrite();
+            default:
+                return properties.getAdmin();
+        }
+    }
+
+    private static void checkClaimedUserShare(AdmissionProperties properties) {
+        if (!(properties.getClaimedUserShare() > 0) || properties.getClaimedUserShare() > 1) {
+            throw new IllegalArgumentException("Claimed user share must be in (0, 1]");
+        }
+    }
+
+    private static void check(EndpointGroup group, AdmissionProperties.Group limits) {
+        if (limits == null || !(limits.getRate() > 0) || limits.getBurst() < 1 || limits.getWindow() == null
+                || limits.getMinLimit() < 1 || limits.getMaxLimit() < limits.getMinLimit() || limits.getTolerance() < 1) {
+            throw new IllegalArgumentException("Invalid admission limits for " + group);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.jfalves.springboot.admission;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Requests that share a concurrency limit, so a flood of one kind cannot starve the others.
+ */
+public enum EndpointGroup {
+    READ,
+    WRITE,
+    ADMIN;
+
+    private static final String ADMIN_PREFIX = "/animes/admin";
+
+    public static EndpointGroup of(HttpServletRequest request) {
+        //Sem substring: roda em todo request, antes da autenticação
+        String uri = request.getRequestURI();
+        int end = request.getContextPath().length() + ADMIN_PREFIX.length();
+        if (uri.startsWith(ADMIN_PREFIX, end - ADMIN_PREFIX.length()) && (uri.length() == end || uri.charAt(end) == '/')) {
+            return ADMIN;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? READ : WRITE;
+    }
+}
@@ -0,0 +1,56 @@
+package com.jfalves.springboot.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets per key in a fixed array of stripes, so memory does not grow with the number of
+ * clients and a request allocates nothing. Each stripe is a single long updated with CAS: the
+ * "theoretical arrival time" of the generic cell rate algorithm, equivalent to a token bucket of
+ * burst tokens refilled at rate per second. Keys that hash to the same stripe share its bucket;
+ * with enough stripes that is rare and only makes the limit stricter for both.
+ */
+public class StripedRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AtomicLongArray arrivals;
+    private final int mask;
+    //Tempos relativos à criação: o 0 inicial dos stripes fica sempre no passado
+    private final long origin = System.nanoTime();
+
+    public StripedRateLimiter(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripes must be positive");
+        }
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        this.arrivals = new AtomicLongArray(Math.max(size, 1));
+        this.mask = arrivals.length() - 1;
+    }
+
+    /**
+     * @return 0 when the request is admitted, otherwise how many nanos until it would be
+     */
+    public long tryAcquire(Object key, int salt, double ratePerSecond, int burst, long nowNanos) {
+        long interval = (long) (NANOS_PER_SECOND / ratePerSecond);
+        long tolerance = interval * (Math.max(burst, 1) - 1);
+        long now = nowNanos - origin;
+        int index = stripe(key, salt);
+        while (true) {
+            long arrival = arrivals.get(index);
+            long start = Math.max(arrival, now);
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivals.compareAndSet(index, arrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private int stripe(Object key, int salt) {
+        int hash = key.hashCode() * 31 + salt;
+        //Mesmo espalhamento do HashMap: os bits altos também escolhem o stripe
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,369 @@
+package com.jfalves.springboot.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.wrapper.PageSummary;
+import com.jfalves.springboot.wrapper.PageableResponse;
+import com.jfalves.springboot.wrapper.PageableResponseReader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Client of the /animes API meant to be created once and shared.
+ * <p>
+ * It keeps one {@link HttpClient}, whose pool reuses keep-alive connections between calls, and one
+ * configured {@link ObjectMapper}. Every operation has a {@link CompletableFuture} variant; at most
+ * {@code maxConcurrentRequests} of them are on the wire at a time and the rest wait in a queue
+ * without holding a thread, which also bounds the number of pooled connections to the server.
+ * A client talks to a single base URL, so that limit is the per-route concurrency.
+ * <p>
+ * Bodies are JSON unless the object mapper is a Smile one (see {@link Builder#smile()}), in
+ * which case requests and responses are exchanged as application/x-jackson-smile.
+ */
+public class AnimeClient {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String mediaType;
+    private final String authorization;
+    private final Duration requestTimeout;
+    private final ConcurrencyLimiter limiter;
+
+    private final JavaType animeType;
+    private final JavaType animeListType;
+    private final JavaType animePageType;
+    private final PageableResponseReader<Anime> animePageReader;
+
+    private AnimeClient(Builder builder) {
+        this.baseUrl = builder.baseUrl.endsWith("/")
+                ? builder.baseUrl.substring(0, builder.baseUrl.length() - 1)
+                : builder.baseUrl;
+        this.objectMapper = builder.objectMapper;
+        this.mediaType = objectMapper.getFactory() instanceof SmileFactory
+                ? APPLICATION_SMILE_VALUE
+                : MediaType.APPLICATION_JSON_VALUE;
+        this.authorization = builder.authorization;
+        this.requestTimeout = builder.requestTimeout;
+        this.limiter = new ConcurrencyLimiter(builder.maxConcurrentRequests);
+
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(builder.connectTimeout);
+        if (builder.executor != null) {
+            httpClientBuilder.executor(builder.executor);
+        }
+        this.httpClient = httpClientBuilder.build();
+
+        this.animeType = objectMapper.constructType(Anime.class);
+        this.animeListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Anime.class);
+        this.animePageType = objectMapper.getTypeFactory().constructParametricType(PageableResponse.class, Anime.class);
+        this.animePageReader = new PageableResponseReader<>(objectMapper, Anime.class);
+    }
+
+    public static Builder builder(String baseUrl) {
+        return new Builder(baseUrl);
+    }
+
+    public Anime get(long id) {
+        return join(getAsync(id));
+    }
+
+    public CompletableFuture<Anime> getAsync(long id) {
+        return send(request("/animes/" + id).GET(), animeType);
+    }
+
+    public PageableResponse<Anime> list(int page, int size) {
+        return join(listAsync(page, size));
+    }
+
+    public CompletableFuture<PageableResponse<Anime>> listAsync(int page, int size) {
+        return send(request("/animes?page=" + page + "&size=" + size).GET(), animePageType);
+    }
+
+    /**
+     * Same page as {@link #list(int, int)}, but each anime goes to the consumer as soon as it is
+     * parsed from the response stream instead of being collected into the page first.
+     */
+    public PageSummary forEachOnPage(int page, int size, Consumer<? super Anime> consumer) {
+        return join(forEachOnPageAsync(page, size, consumer));
+    }
+
+    /**
+     * The consumer runs on a thread of the client's executor.
+     */
+    public CompletableFuture<PageSummary> forEachOnPageAsync(int page, int size, Consumer<? super Anime> consumer) {
+        HttpRequest request = request("/animes?page=" + page + "&size=" + size).GET().build();
+        //Lê o corpo dentro do submit, assim a leitura também conta no limite de concorrência
+        return limiter.submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                        .thenApply(response -> readPage(response, consumer)))
+                .handle((summary, error) -> {
+                    if (error == null) {
+                        return summary;
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof AnimeClientException) {
+                        throw (AnimeClientException) cause;
+                    }
+                    throw new AnimeClientException(request.method() + " " + request.uri() + " failed", cause);
+                });
+    }
+
+    public List<Anime> listAll() {
+        return join(listAllAsync());
+    }
+
+    public CompletableFuture<List<Anime>> listAllAsync() {
+        return send(request("/animes/all").GET(), animeListType);
+    }
+
+    public List<Anime> findByName(String name) {
+        return join(findByNameAsync(name));
+    }
+
+    public CompletableFuture<List<Anime>> findByNameAsync(String name) {
+        return send(request("/animes/find?name=" + URLEncoder.encode(name, StandardCharsets.UTF_8)).GET(), animeListType);
+    }
+
+    public Anime save(AnimePostRequestBody animePostRequestBody) {
+        return join(saveAsync(animePostRequestBody));
+    }
+
+    public CompletableFuture<Anime> saveAsync(AnimePostRequestBody animePostRequestBody) {
+        return send(bodyRequest("/animes").POST(encode(animePostRequestBody)), animeType);
+    }
+
+    /**
+     * One POST /animes/batch call: the server inserts all animes in a single transaction.
+     * Needs the ADMIN role.
+     */
+    public CompletableFuture<List<Anime>> saveBatchAsync(List<AnimePostRequestBody> animePostRequestBodies) {
+        return send(bodyRequest("/animes/batch").POST(encode(animePostRequestBodies)), animeListType);
+    }
+
+    public void replace(AnimePutRequestBody animePutRequestBody) {
+        join(replaceAsync(animePutRequestBody));
+    }
+
+    public CompletableFuture<Void> replaceAsync(AnimePutRequestBody animePutRequestBody) {
+        return send(bodyRequest("/animes/" + animePutRequestBody.getId()).PUT(encode(animePutRequestBody)), null);
+    }
+
+    public void delete(long id) {
+        join(deleteAsync(id));
+    }
+
+    public CompletableFuture<Void> deleteAsync(long id) {
+        return send(request("/animes/" + id).DELETE(), null);
+    }
+
+    /**
+     * Starts the operation for every item at once and lets the concurrency limit pipeline them
+     * over the pooled connections.
+     *
+     * @return the results in the order of the items; fails with the first failure
+     */
+    public <T, R> CompletableFuture<List<R>> batch(Collection<T> items, Function<T, CompletableFuture<R>> operation) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(operation.apply(item));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<R> results = new ArrayList<>(futures.size());
+                    futures.forEach(future -> results.add(future.join()));
+                    return results;
+                });
+    }
+
+    public CompletableFuture<List<Anime>> getAllAsync(Collection<Long> ids) {
+        return batch(ids, this::getAsync);
+    }
+
+    public CompletableFuture<List<Anime>> saveAllAsync(Collection<AnimePostRequestBody> animePostRequestBodies) {
+        return batch(animePostRequestBodies, this::saveAsync);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.ACCEPT, mediaType);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+
+    private HttpRequest.Builder bodyRequest(String path) {
+        return request(path).header(HttpHeaders.CONTENT_TYPE, mediaType);
+    }
+
+    private HttpRequest.BodyPublisher encode(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new AnimeClientException("Could not serialize request body", e);
+        }
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest.Builder requestBuilder, JavaType responseType) {
+        HttpRequest request = requestBuilder.build();
+        return limiter.submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        throw new AnimeClientException(request.method() + " " + request.uri() + " failed", cause);
+                    }
+                    return decode(response, responseType);
+                });
+    }
+
+    private <T> T decode(HttpResponse<byte[]> response, JavaType responseType) {
+        if (response.statusCode() / 100 != 2) {
+            throw new AnimeClientException(response.statusCode(), errorBody(response.body()));
+        }
+        if (responseType == null || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new AnimeClientException("Could not read response of " + response.uri(), e);
+        }
+    }
+
+    private PageSummary readPage(HttpResponse<InputStream> response, Consumer<? super Anime> consumer) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new AnimeClientException(response.statusCode(), errorBody(body.readAllBytes()));
+            }
+            return animePageReader.read(body, consumer);
+        } catch (IOException e) {
+            throw new AnimeClientException("Could not read response of " + response.uri(), e);
+        }
+    }
+
+    //Corpos de erro em Smile viram JSON, para que a mensagem da exceção seja legível
+    private String errorBody(byte[] body) {
+        if (body.length > 0 && objectMapper.getFactory() instanceof SmileFactory) {
+            try {
+                return objectMapper.readTree(body).toString();
+            } catch (IOException e) {
+                //Não é Smile (ex: erro do Tomcat), cai para o texto
+            }
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static ObjectMapper defaultObjectMapper(JsonFactory jsonFactory) {
+        return new ObjectMapper(jsonFactory)
+                .findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public static class Builder {
+        private final String baseUrl;
+        private ObjectMapper objectMapper = defaultObjectMapper(new JsonFactory());
+        private String authorization;
+        private int maxConcurrentRequests = 64;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private Executor executor;
+
+        private Builder(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public Builder basicAuthentication(String username, String password) {
+            String credentials = username + ":" + password;
+            this.authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        public Builder bearerToken(String token) {
+            this.authorization = "Bearer " + token;
+            return this;
+        }
+
+        /**
+         * Exchanges request and response bodies as Smile, a binary encoding of the JSON data
+         * model that is smaller and cheaper to write and parse. Replaces the object mapper.
+         */
+        public Builder smile() {
+            this.objectMapper = defaultObjectMapper(new SmileFactory());
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            if (maxConcurrentRequests < 1) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        //Executor das callbacks do HttpClient, o padrão é um cached thread pool
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public AnimeClient build() {
+            return new AnimeClient(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jfalves.springboot.client;
+
+import lombok.Getter;
+
+/**
+ * Non 2xx answer of the anime API. The body is kept as sent by the server, usually one of the
+ * ExceptionDetails documents of RestExceptionHandler.
+ */
+@Getter
+public class AnimeClientException extends RuntimeException {
+
+    private final int status;
+    private final String body;
+
+    public AnimeClientException(int status, String body) {
+        super("Anime API answered " + status + ": " + body);
+        this.status = status;
+        this.body = body;
+    }
+
+    public AnimeClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+        this.body = null;
+    }
+}
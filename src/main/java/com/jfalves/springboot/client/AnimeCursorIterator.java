@@ -0,0 +1,72 @@
+package com.jfalves.springboot.client;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.wrapper.CursorResponse;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks GET /animes/cursor page by page, sending back the continuation token of the previous
+ * page, so callers only see a flat sequence of animes.
+ */
+public class AnimeCursorIterator implements Iterator<Anime> {
+
+    private static final ParameterizedTypeReference<CursorResponse<Anime>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private final int size;
+
+    private Iterator<Anime> current = Collections.emptyIterator();
+    private String nextCursor;
+    private boolean hasNextPage = true;
+
+    public AnimeCursorIterator(RestTemplate restTemplate, String url, int size) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+        this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext() && hasNextPage) {
+            fetchNextPage();
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public Anime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private void fetchNextPage() {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(url).queryParam("size", size);
+        if (nextCursor != null) {
+            uri.queryParam("cursor", nextCursor);
+        }
+
+        CursorResponse<Anime> page = restTemplate.exchange(uri.toUriString(), HttpMethod.GET, null, RESPONSE_TYPE)
+                .getBody();
+
+        if (page == null || page.getContent() == null) {
+            hasNextPage = false;
+            return;
+        }
+
+        current = page.getContent().iterator();
+        nextCursor = page.getNextCursor();
+        hasNextPage = page.isHasNext() && nextCursor != null;
+    }
+}
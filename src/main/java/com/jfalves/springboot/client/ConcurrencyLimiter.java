@@ -0,0 +1,69 @@
+package com.jfalves.springboot.client;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of requests in flight without blocking the caller: tasks over the limit wait
+ * in a queue and are started by whichever request completes next.
+ */
+class ConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    //Evita recursão quando uma tarefa completa de forma síncrona e dispara o drain de novo
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    ConcurrencyLimiter(int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        pending.add(() -> start(task, result));
+        drain();
+        return result;
+    }
+
+    int queued() {
+        return pending.size();
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> task, CompletableFuture<T> result) {
+        CompletableFuture<T> running;
+        try {
+            running = task.get();
+        } catch (RuntimeException e) {
+            running = CompletableFuture.failedFuture(e);
+        }
+        running.whenComplete((value, error) -> {
+            permits.release();
+            drain();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (!pending.isEmpty() && permits.tryAcquire()) {
+                Runnable next = pending.poll();
+                if (next == null) {
+                    permits.release();
+                } else {
+                    next.run();
+                }
+            }
+        } while (drainRequests.decrementAndGet() != 0);
+    }
+}
@@ -1,76 +1,62 @@
 package com.jfalves.springboot.client;
 
 import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.wrapper.PageableResponse;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Log4j2
 public class SpringClient {
     public static void main(String[] args) {
-        ResponseEntity<Anime> entity = new RestTemplate().getForEntity("http://localhost:8080/animes/{id}", Anime.class, 4);
-        log.info(entity);
-
-        Anime object = new RestTemplate().getForObject("http://localhost:8080/animes/{id}", Anime.class, 4);
-
-        log.info(object);
-
-        Anime[] animes = new RestTemplate().getForObject("http://localhost:8080/animes/all", Anime[].class);
-
-        log.info(Arrays.toString(animes));
-
-        ResponseEntity<List<Anime>> exchange = new RestTemplate().exchange("http://localhost:8080/animes/all",
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {
-                });
-
-        log.info(exchange.getBody());
-
-        Anime kingdom = Anime.builder().name("kingdom").build();
-        Anime kingdomSaved = new RestTemplate().postForObject("http://localhost:8080/animes/",
-                kingdom,
-                Anime.class);
-
+        //Um único client: conexões keep-alive e ObjectMapper reaproveitados entre as chamadas
+        //smile(): corpos em JSON binário, menores e mais baratos de gerar e ler que JSON
+        AnimeClient client = AnimeClient.builder("http://localhost:8080")
+                .basicAuthentication("jackson", "root")
+                .smile()
+                .maxConcurrentRequests(32)
+                .build();
+
+        Anime anime = client.get(4);
+        log.info(anime);
+
+        List<Anime> animes = client.listAll();
+        log.info(animes);
+
+        PageableResponse<Anime> page = client.list(0, 20);
+        log.info(page.getContent());
+
+        //O cursor usa RestTemplate: precisa das mesmas credenciais do client
+        AnimeCursorIterator cursorIterator = new AnimeCursorIterator(new RestTemplateBuilder()
+                .basicAuthentication("jackson", "root")
+                .build(), "http://localhost:8080/animes/cursor", 20);
+        cursorIterator.forEachRemaining(log::info);
+
+        Anime kingdomSaved = client.save(AnimePostRequestBody.builder().name("kingdom").build());
         log.info("Saved anime{}", kingdomSaved);
 
-        Anime samuraiChamploo = Anime.builder().name("Samurai Champloo").build();
-        ResponseEntity<Anime> samuraiChamplooSavedExchange = new RestTemplate().exchange("http://localhost:8080/animes/",
-                HttpMethod.POST,
-                new HttpEntity<>(samuraiChamploo, createJsonHeader()),
-                Anime.class);
-
-        log.info("Saved anime{}", samuraiChamplooSavedExchange);
-// Até aqui ok
-
-        Anime animeToBeUpdate = samuraiChamplooSavedExchange.getBody();
-        animeToBeUpdate.setName("Fly");
+        Anime samuraiChamplooSaved = client.saveAsync(AnimePostRequestBody.builder().name("Samurai Champloo").build())
+                .join();
+        log.info("Saved anime{}", samuraiChamplooSaved);
 
-        ResponseEntity<Void> samuraiChamplooUpdated = new RestTemplate().exchange("http://localhost:8080/animes/{id}",
-                HttpMethod.PUT,
-                new HttpEntity<>(animeToBeUpdate, createJsonHeader()),
-                Void.class,
-                animeToBeUpdate.getId());
+        client.replace(AnimePutRequestBody.builder().id(samuraiChamplooSaved.getId()).name("Fly").build());
+        log.info("Updated anime {}", samuraiChamplooSaved.getId());
 
-        log.info(samuraiChamplooUpdated);
+        client.delete(samuraiChamplooSaved.getId());
+        log.info("Deleted anime {}", samuraiChamplooSaved.getId());
 
+        //Várias chamadas em paralelo, limitadas por maxConcurrentRequests
+        List<AnimePostRequestBody> sequels = IntStream.rangeClosed(2, 5)
+                .mapToObj(season -> AnimePostRequestBody.builder().name("kingdom " + season).build())
+                .collect(Collectors.toList());
+        List<Anime> sequelsSaved = client.saveAllAsync(sequels).join();
+        log.info("Saved animes{}", sequelsSaved);
 
-        ResponseEntity<Void> samuraiChamplooDelete = new RestTemplate().exchange("http://localhost:8080/animes/{id}",
-                HttpMethod.DELETE,
-                null,
-                Void.class,
-                animeToBeUpdate.getId());
-
-        log.info(samuraiChamplooDelete);
-    }
-
-    private static HttpHeaders createJsonHeader() {
-        HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
-        return httpHeaders;
+        client.batch(sequelsSaved, saved -> client.deleteAsync(saved.getId())).join();
     }
 }
@@ -0,0 +1,64 @@
+package com.jfalves.springboot.client.load;
+
+import com.jfalves.springboot.client.AnimeClient;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Fills the catalog through POST /animes/batch, which inserts each batch in one transaction with
+ * pooled ids and JDBC batching, so a million rows is a hundred requests. Names follow the pattern
+ * "Anime n" that the FIND operation of the load generator searches for.
+ */
+@Log4j2
+public class AnimeDatasetSeeder {
+
+    private static final int PARALLEL_BATCHES = 4;
+
+    private final AnimeClient client;
+    private final int batchSize;
+
+    public AnimeDatasetSeeder(AnimeClient client, int batchSize) {
+        this.client = client;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the ids of the inserted animes
+     */
+    public long[] seed(long rows) {
+        long start = System.nanoTime();
+        long[] ids = new long[(int) rows];
+        AtomicLong seeded = new AtomicLong();
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+
+        for (long from = 0; from < rows; from += batchSize) {
+            long to = Math.min(rows, from + batchSize);
+            int offset = (int) from;
+            List<AnimePostRequestBody> batch = new ArrayList<>((int) (to - from));
+            LongStream.range(from, to).forEach(n -> batch.add(AnimePostRequestBody.builder().name("Anime " + n).build()));
+
+            inFlight.add(client.saveBatchAsync(batch).thenAccept(saved -> {
+                for (int i = 0; i < saved.size(); i++) {
+                    Anime anime = saved.get(i);
+                    ids[offset + i] = anime.getId();
+                }
+                log.info("Seeded {} of {} animes", seeded.addAndGet(saved.size()), rows);
+            }));
+            if (inFlight.size() == PARALLEL_BATCHES) {
+                inFlight.remove(0).join();
+            }
+        }
+        inFlight.forEach(CompletableFuture::join);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Seeded {} animes in {}s ({} rows/s)", rows, Math.round(seconds), Math.round(rows / seconds));
+        return ids;
+    }
+}
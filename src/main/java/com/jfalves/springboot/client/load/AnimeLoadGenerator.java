@@ -0,0 +1,210 @@
+package com.jfalves.springboot.client.load;
+
+import com.jfalves.springboot.client.AnimeClient;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a weighted mix of anime operations and records their latency per endpoint.
+ * <p>
+ * Open loop sends at a fixed arrival rate whatever the server does. Each latency is measured
+ * from the moment the request was scheduled to be sent, not from when it actually left, so a
+ * stalled server or a full connection pool shows up as latency instead of silently lowering the
+ * rate (the coordinated omission correction). Closed loop runs a fixed number of workers that
+ * each wait for their answer before sending again; it finds the maximum throughput, and its
+ * latencies are pure service times.
+ */
+@Log4j2
+public class AnimeLoadGenerator {
+
+    private final AnimeClient client;
+    private final LoadTestOptions options;
+    private final long[] ids;
+    private final AnimeOperation[] weightedOperations;
+    private final Map<AnimeOperation, EndpointStats> stats = new EnumMap<>(AnimeOperation.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    public AnimeLoadGenerator(AnimeClient client, LoadTestOptions options, long[] ids) {
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("The load generator needs at least one anime id");
+        }
+        this.client = client;
+        this.options = options;
+        this.ids = ids;
+
+        List<AnimeOperation> operations = new ArrayList<>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+            stats.put(operation, new EndpointStats());
+        });
+        this.weightedOperations = operations.toArray(new AnimeOperation[0]);
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        String startedAt = Instant.now().toString();
+        log.info("Warming up for {}", options.getWarmup());
+        runFor(options.getWarmup().toNanos());
+        stats.values().forEach(EndpointStats::reset);
+
+        log.info("Running {} loop for {}", options.getMode(), options.getDuration());
+        long measuredNanos = runFor(options.getDuration().toNanos());
+        return report(startedAt, measuredNanos / 1e9);
+    }
+
+    private long runFor(long nanos) throws InterruptedException {
+        long start = System.nanoTime();
+        if (options.getMode() == LoadTestOptions.Mode.OPEN) {
+            runOpenLoop(start, start + nanos);
+        } else {
+            runClosedLoop(start + nanos);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void runOpenLoop(long start, long end) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            pending.add(execute(intended));
+            if (pending.size() >= 10_000) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        pending.forEach(future -> future.handle((value, error) -> null).join());
+    }
+
+    private void runClosedLoop(long end) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    execute(System.nanoTime()).handle((value, error) -> null).join();
+                }
+            }, "load-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private CompletableFuture<?> execute(long intendedStartNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        AnimeOperation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+        EndpointStats endpointStats = stats.get(operation);
+
+        CompletableFuture<?> response;
+        try {
+            response = send(operation, random);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((value, error) ->
+                endpointStats.record(System.nanoTime() - intendedStartNanos, error != null));
+    }
+
+    private CompletableFuture<?> send(AnimeOperation operation, ThreadLocalRandom random) {
+        switch (operation) {
+            case LIST:
+                return client.listAsync(random.nextInt(options.getListPages()), 20);
+            case GET:
+                return client.getAsync(randomId(random));
+            case FIND:
+                return client.findByNameAsync("Anime " + random.nextInt(ids.length));
+            case SAVE:
+                return client.saveAsync(AnimePostRequestBody.builder()
+                        .name("Load anime " + sequence.incrementAndGet())
+                        .build());
+            case REPLACE:
+                return client.replaceAsync(AnimePutRequestBody.builder()
+                        .id(randomId(random))
+                        .name("Load anime " + sequence.incrementAndGet())
+                        .build());
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private LoadTestReport report(String startedAt, double seconds) {
+        Map<String, LoadTestReport.Endpoint> endpoints = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<AnimeOperation, EndpointStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().getHistogram().copy();
+            endpoints.put(entry.getKey().getEndpoint(), endpoint(histogram, entry.getValue().getErrors(), seconds));
+            total.add(histogram);
+            totalErrors += entry.getValue().getErrors();
+        }
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.getMix().forEach((operation, weight) -> mix.put(operation.getEndpoint(), weight));
+
+        return LoadTestReport.builder()
+                .startedAt(startedAt)
+                .baseUrl(options.getBaseUrl())
+                .mode(options.getMode().name().toLowerCase())
+                .targetRate(options.getMode() == LoadTestOptions.Mode.OPEN ? options.getRate() : 0)
+                .concurrency(options.getConcurrency())
+                .durationSeconds(seconds)
+                .mix(mix)
+                .endpoints(endpoints)
+                .total(endpoint(total, totalErrors, seconds))
+                .build();
+    }
+
+    private static LoadTestReport.Endpoint endpoint(Histogram histogram, long errors, double seconds) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] encoded = new byte[length];
+        buffer.flip();
+        buffer.get(encoded);
+
+        return LoadTestReport.Endpoint.builder()
+                .count(histogram.getTotalCount())
+                .errors(errors)
+                .throughputPerSecond(histogram.getTotalCount() / seconds)
+                .p50(millis(histogram.getValueAtPercentile(50)))
+                .p90(millis(histogram.getValueAtPercentile(90)))
+                .p99(millis(histogram.getValueAtPercentile(99)))
+                .p999(millis(histogram.getValueAtPercentile(99.9)))
+                .max(millis(histogram.getMaxValue()))
+                .mean(histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1000)
+                .histogram(Base64.getEncoder().encodeToString(encoded))
+                .build();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
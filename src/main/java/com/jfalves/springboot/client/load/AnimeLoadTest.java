@@ -0,0 +1,122 @@
+package com.jfalves.springboot.client.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jfalves.springboot.SpringbootEssentialsApplication;
+import com.jfalves.springboot.client.AnimeClient;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.service.TokenService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity test of the anime endpoints.
+ * <p>
+ * Without {@code --base-url} the app is started in this JVM on a random port with an in-memory H2
+ * database (H2 is on the classpath with the {@code loadtest} maven profile), seeded and driven:
+ * <pre>
+ * mvn -Ploadtest compile exec:java -Dexec.args="--mode=open --rate=1000 --seed=1000000"
+ * mvn -Ploadtest compile exec:java -Dexec.args="--mode=closed --concurrency=32 --duration=2m"
+ * </pre>
+ * Against an app that is already running pass {@code --base-url} and either {@code --token} or
+ * {@code --username}/{@code --password}; seeding needs the ADMIN role, {@code --seed=0} skips it
+ * and samples the existing ids instead. Other options: {@code --warmup=10s}, {@code --duration=60s},
+ * {@code --mix=list:20,get:60,find:10,save:5,replace:5}, {@code --list-pages=50},
+ * {@code --seed-batch-size=10000} and {@code --report=target/loadtest-report.json}.
+ */
+@Log4j2
+public class AnimeLoadTest {
+
+    private static final int SAMPLED_IDS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        ConfigurableApplicationContext context = null;
+        try {
+            String baseUrl = options.getBaseUrl();
+            AnimeClient.Builder clientBuilder;
+            if (baseUrl == null) {
+                context = startEmbeddedApp();
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                clientBuilder = AnimeClient.builder(baseUrl).bearerToken(adminToken(context));
+            } else if (options.getToken() != null) {
+                clientBuilder = AnimeClient.builder(baseUrl).bearerToken(options.getToken());
+            } else {
+                clientBuilder = AnimeClient.builder(baseUrl).basicAuthentication(options.getUsername(), options.getPassword());
+            }
+            AnimeClient client = clientBuilder.maxConcurrentRequests(options.getConcurrency()).build();
+
+            long[] ids = options.getSeed() > 0
+                    ? new AnimeDatasetSeeder(client, options.getSeedBatchSize()).seed(options.getSeed())
+                    : sampleIds(client);
+
+            LoadTestReport report = new AnimeLoadGenerator(client, options, ids).run();
+            report.setBaseUrl(baseUrl);
+            write(report, new File(options.getReport()));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbeddedApp() {
+        //Argumentos de linha de comando têm precedência sobre o application.yml
+        return new SpringApplicationBuilder(SpringbootEssentialsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--jalves.search.rebuild-on-startup=false",
+                "--logging.level.root=warn",
+                "--logging.level.com.jfalves.springboot.client.load=info");
+    }
+
+    private static String adminToken(ConfigurableApplicationContext context) {
+        return context.getBean(TokenService.class).issue(new UsernamePasswordAuthenticationToken("load-test", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+    }
+
+    private static long[] sampleIds(AnimeClient client) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ids.size() < SAMPLED_IDS; page++) {
+            List<Anime> content = client.list(page, 1000).getContent();
+            if (content.isEmpty()) {
+                break;
+            }
+            content.forEach(anime -> ids.add(anime.getId()));
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void write(LoadTestReport report, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+
+        for (Map.Entry<String, LoadTestReport.Endpoint> entry : report.getEndpoints().entrySet()) {
+            log(entry.getKey(), entry.getValue());
+        }
+        log("total", report.getTotal());
+        log.info("Report written to {}", file.getAbsolutePath());
+    }
+
+    private static void log(String endpoint, LoadTestReport.Endpoint stats) {
+        log.info(String.format("%-18s %8d req %6d err %9.1f req/s  p50 %8.2f  p99 %8.2f  p99.9 %8.2f  max %8.2f ms",
+                endpoint, stats.getCount(), stats.getErrors(), stats.getThroughputPerSecond(),
+                stats.getP50(), stats.getP99(), stats.getP999(), stats.getMax()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.jfalves.springboot.client.load;
+
+public enum AnimeOperation {
+    LIST("GET /animes"),
+    GET("GET /animes/{id}"),
+    FIND("GET /animes/find"),
+    SAVE("POST /animes"),
+    REPLACE("PUT /animes/{id}");
+
+    private final String endpoint;
+
+    AnimeOperation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
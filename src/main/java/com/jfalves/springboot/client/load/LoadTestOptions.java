@@ -0,0 +1,77 @@
+package com.jfalves.springboot.client.load;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line of {@link AnimeLoadTest}, every option written as {@code --name=value}.
+ */
+@Getter
+public class LoadTestOptions {
+
+    public enum Mode {
+        OPEN, CLOSED
+    }
+
+    //Sem base-url o app é iniciado no mesmo processo com H2 em memória
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private final String token;
+    private final Mode mode;
+    private final double rate;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<AnimeOperation, Integer> mix;
+    private final long seed;
+    private final int seedBatchSize;
+    private final int listPages;
+    private final String report;
+
+    public LoadTestOptions(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must be written as --name=value: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        this.baseUrl = values.get("base-url");
+        this.username = values.get("username");
+        this.password = values.get("password");
+        this.token = values.get("token");
+        this.mode = Mode.valueOf(values.getOrDefault("mode", "open").toUpperCase());
+        this.rate = Double.parseDouble(values.getOrDefault("rate", "500"));
+        this.concurrency = Integer.parseInt(values.getOrDefault("concurrency", mode == Mode.OPEN ? "256" : "16"));
+        this.warmup = DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s"));
+        this.duration = DurationStyle.detectAndParse(values.getOrDefault("duration", "60s"));
+        this.mix = parseMix(values.getOrDefault("mix", "list:20,get:60,find:10,save:5,replace:5"));
+        this.seed = Long.parseLong(values.getOrDefault("seed", "100000"));
+        this.seedBatchSize = Integer.parseInt(values.getOrDefault("seed-batch-size", "10000"));
+        this.listPages = Integer.parseInt(values.getOrDefault("list-pages", "50"));
+        this.report = values.getOrDefault("report", "target/loadtest-report.json");
+
+        if (rate <= 0 || concurrency < 1) {
+            throw new IllegalArgumentException("rate and concurrency must be positive");
+        }
+    }
+
+    private static Map<AnimeOperation, Integer> parseMix(String mix) {
+        Map<AnimeOperation, Integer> weights = new EnumMap<>(AnimeOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(AnimeOperation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,47 @@
+package com.jfalves.springboot.client.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Machine readable result of a run. Latencies are in milliseconds; {@code histogram} is the
+ * HdrHistogram of the endpoint (microseconds) compressed and Base64 encoded, so two reports can be
+ * compared at any percentile, not only the ones listed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestReport {
+
+    private String startedAt;
+    private String baseUrl;
+    private String mode;
+    private double targetRate;
+    private int concurrency;
+    private double durationSeconds;
+    private Map<String, Integer> mix;
+    private Map<String, Endpoint> endpoints;
+    private Endpoint total;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Endpoint {
+        private long count;
+        private long errors;
+        private double throughputPerSecond;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+        private double mean;
+        private String histogram;
+    }
+}
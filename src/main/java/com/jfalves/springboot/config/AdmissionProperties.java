@@ -0,0 +1,59 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits of the AdmissionFilter, read at startup. PUT /animes/admin/admission replaces them at
+ * runtime with a body of the same shape.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.admission")
+public class AdmissionProperties {
+
+    //Ligado no profile prod
+    private boolean enabled;
+    //Buckets de rate limit; principals que caem no mesmo stripe dividem o bucket
+    private int stripes = 16_384;
+    //Usuário do Basic ainda não verificado: bucket extra, com essa fração do rate e do burst do grupo
+    private double claimedUserShare = 0.25;
+    //Retry-After dos 503 do limite de concorrência
+    private Duration retryAfter = Duration.ofSeconds(1);
+    //GET/HEAD fora de /animes/admin/**
+    private Group read = new Group(200, 400, 100, 10, 200);
+    //POST/PUT/PATCH/DELETE fora de /animes/admin/**
+    private Group write = new Group(50, 100, 50, 5, 100);
+    private Group admin = new Group(20, 40, 10, 2, 20);
+
+    @Getter
+    @Setter
+    public static class Group {
+        //Requests por segundo de cada principal, com rajadas de até burst
+        private double rate;
+        private int burst;
+        //Requests simultâneos do grupo, ajustado pela latência entre min e max
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        //Latência média da janela até tolerance vezes a de longo prazo não reduz o limite
+        private double tolerance = 2.0;
+        private Duration window = Duration.ofSeconds(1);
+
+        public Group() {
+        }
+
+        Group(double rate, int burst, int initialLimit, int minLimit, int maxLimit) {
+            this.rate = rate;
+            this.burst = burst;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
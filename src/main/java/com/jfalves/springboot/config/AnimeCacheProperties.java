@@ -0,0 +1,30 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process anime cache used by {@code GET /animes/{id}}.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.cache.anime")
+public class AnimeCacheProperties {
+
+    public enum Policy {
+        LRU, TINY_LFU
+    }
+
+    private boolean enabled = true;
+    private Policy policy = Policy.TINY_LFU;
+    private int maximumSize = 10_000;
+    //Zero desabilita a expiração
+    private Duration ttl = Duration.ZERO;
+    //Zero usa 4 stripes por processador
+    private int stripes;
+}
@@ -0,0 +1,27 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the serialized response cache of {@code GET /animes} pages.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.cache.anime-pages")
+public class AnimePageCacheProperties {
+
+    private boolean enabled = true;
+    //Soma dos corpos e das cópias em gzip de todas as páginas
+    private DataSize maximumSize = DataSize.ofMegabytes(16);
+    //Páginas maiores que isso são servidas mas não guardadas
+    private DataSize maximumEntrySize = DataSize.ofKilobytes(256);
+    //Só as páginas 0 até cachedPages - 1 entram no cache, varreduras profundas não o poluem
+    private int cachedPages = 10;
+    //Abaixo disso o gzip não compensa
+    private DataSize minGzipSize = DataSize.ofKilobytes(1);
+}
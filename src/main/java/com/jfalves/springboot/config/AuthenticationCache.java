@@ -0,0 +1,140 @@
+package com.jfalves.springboot.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers successful username/password verifications for a short time so that repeated Basic
+ * auth requests skip the user lookup and the BCrypt check.
+ * <p>
+ * Only an HMAC of the credentials is kept, keyed with a random per-process secret, so the cache
+ * never holds a password and its contents are useless outside this JVM.
+ */
+@Log4j2
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final SecretKey secretKey;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AuthenticationCache(@Value("${jalves.security.auth-cache.enabled:true}") boolean enabled,
+                               @Value("${jalves.security.auth-cache.ttl:5m}") Duration ttl,
+                               @Value("${jalves.security.auth-cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.secretKey = generateKey();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the authentication produced by the last successful verification of exactly these
+     * credentials, or null when it is unknown or expired
+     */
+    public Authentication get(String username, String password) {
+        Entry entry = entries.get(username);
+        if (entry == null || System.nanoTime() - entry.createdAt > ttlNanos
+                || !MessageDigest.isEqual(entry.digest, digest(username, password))) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.authentication;
+    }
+
+    public void put(String username, String password, Authentication authentication) {
+        entries.put(username, new Entry(digest(username, password), authentication, System.nanoTime()));
+    }
+
+    public void evict(String username) {
+        if (username != null && entries.remove(username) != null) {
+            evictions.increment();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not digest credentials", e);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            return KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create the authentication cache key", e);
+        }
+    }
+
+    private static class Entry {
+        private final byte[] digest;
+        private final Authentication authentication;
+        private final long createdAt;
+
+        private Entry(byte[] digest, Authentication authentication, long createdAt) {
+            this.digest = digest;
+            this.authentication = authentication;
+            this.createdAt = createdAt;
+        }
+    }
+}
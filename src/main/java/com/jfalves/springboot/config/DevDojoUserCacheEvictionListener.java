@@ -0,0 +1,26 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.domain.DevDojoUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Drops cached verifications of a DevDojoUser as soon as it is saved or removed, so a changed
+ * password or authority list is checked again on the next request.
+ */
+@RequiredArgsConstructor
+public class DevDojoUserCacheEvictionListener {
+
+    private final ObjectProvider<AuthenticationCache> authenticationCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(DevDojoUser user) {
+        authenticationCache.ifAvailable(cache -> cache.evict(user.getUsername()));
+    }
+}
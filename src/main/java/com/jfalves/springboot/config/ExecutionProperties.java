@@ -0,0 +1,34 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Where the AnimeController handlers (and the AnimeService calls they make) run.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.execution")
+public class ExecutionProperties {
+
+    public enum Mode {
+        //No thread do Tomcat, como sempre foi
+        BLOCKING,
+        //Num pool limitado próprio; o thread do Tomcat é liberado
+        BOUNDED,
+        //Uma virtual thread por request (JDK 21+); em JDKs mais antigos cai para BOUNDED
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.BLOCKING;
+    //Passou disso a resposta é 503
+    private Duration timeout = Duration.ofSeconds(30);
+    private int threads = 200;
+    //Requests esperando um thread do pool; com a fila cheia a resposta é 503
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,31 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Write-behind ingestion of anime creates and updates (AnimeIngestionService).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.ingestion")
+public class IngestionProperties {
+
+    //Desligado, Prefer: respond-async é ignorado e tudo grava na hora
+    private boolean enabled = false;
+    //Escritas esperando o writer; com a fila cheia a resposta é 503
+    private int queueCapacity = 50_000;
+    //Escritas por transação
+    private int batchSize = 500;
+    //Espera por mais escritas antes de gravar; updates do mesmo id nessa janela viram um só
+    private Duration flushInterval = Duration.ofMillis(200);
+    //Quanto tempo o status de uma escrita terminada fica consultável
+    private Duration statusRetention = Duration.ofMinutes(10);
+    //No shutdown, quanto esperar a fila ser gravada
+    private Duration drainTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,90 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.admission.AdaptiveConcurrencyLimit;
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.admission.EndpointGroup;
+import com.jfalves.springboot.controller.AnimePageResponseCache;
+import com.jfalves.springboot.filter.RequestMetricsFilter;
+import com.jfalves.springboot.metrics.AnimeMetrics;
+import com.jfalves.springboot.metrics.CacheStatsMeterBinder;
+import com.jfalves.springboot.metrics.MethodTimingPostProcessor;
+import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.service.AnimeEntityCache;
+import com.jfalves.springboot.service.AnimeService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.prometheus.client.CollectorRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.DispatcherType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request and method metrics of the anime API, scraped together with the JVM, Tomcat, Hikari and
+ * cache meters from GET /animes/admin/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public AnimeMetrics animeMetrics(CollectorRegistry collectorRegistry) {
+        return new AnimeMetrics().register(collectorRegistry);
+    }
+
+    @Bean
+    public static MethodTimingPostProcessor methodTimingPostProcessor(ObjectProvider<AnimeMetrics> animeMetrics) {
+        Map<Class<?>, String> components = new LinkedHashMap<>();
+        components.put(AnimeService.class, "AnimeService");
+        components.put(AnimeRepository.class, "AnimeRepository");
+        return new MethodTimingPostProcessor(components, animeMetrics);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(AnimeMetrics animeMetrics) {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(animeMetrics));
+        //Antes do Spring Security, para medir também os 401/403
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder animeEntityCacheMetrics(AnimeEntityCache animeEntityCache) {
+        return new CacheStatsMeterBinder(animeEntityCache, "animes", animeEntityCache::stats);
+    }
+
+    @Bean
+    public MeterBinder animePageCacheMetrics(AnimePageResponseCache animePageResponseCache) {
+        return new CacheStatsMeterBinder(animePageResponseCache, "anime-pages", animePageResponseCache::stats);
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionControl admissionControl) {
+        return registry -> {
+            for (EndpointGroup group : EndpointGroup.values()) {
+                String tag = group.name().toLowerCase();
+                AdaptiveConcurrencyLimit limit = admissionControl.concurrencyLimit(group);
+                Gauge.builder("jalves.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                        .tag("group", tag)
+                        .register(registry);
+                Gauge.builder("jalves.admission.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                        .tag("group", tag)
+                        .register(registry);
+                FunctionCounter.builder("jalves.admission.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                        .tags("group", tag, "reason", "concurrency")
+                        .register(registry);
+                FunctionCounter.builder("jalves.admission.rejected", admissionControl,
+                                control -> control.rateLimited(group))
+                        .tags("group", tag, "reason", "rate")
+                        .register(registry);
+            }
+        };
+    }
+}
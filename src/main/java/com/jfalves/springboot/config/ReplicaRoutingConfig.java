@@ -0,0 +1,88 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.repository.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces Boot's DataSource with a {@link ReplicaRoutingDataSource} when jalves.datasource.replicas
+ * is set. The primary keeps its spring.datasource and spring.datasource.hikari settings.
+ * <p>
+ * AnimeService marks its reads {@code @Transactional(readOnly = true)}, as do the Spring Data
+ * repository methods; those are the transactions that go to a replica.
+ */
+@Configuration
+@ConditionalOnProperty("jalves.datasource.replicas[0].url")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    //Dono dos pools; não é bean, senão o Boot o trataria como um segundo banco
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaRoutingProperties properties,
+                                 Environment environment) {
+        HikariDataSource primaryDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryDataSource));
+        primaryDataSource.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            replicas.add(replicaDataSource(replica, replicas.size()));
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getSelection(),
+                properties.getReadYourWritesWindow(), properties.getRetryAfter());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Spring keeps the JDBC connection of an open-in-view EntityManager for the whole request, which
+     * would send the writes of a request to the replica of its first read. Releasing it after each
+     * transaction lets every transaction be routed on its own, also when spring.jpa.open-in-view
+     * is turned back on.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaRoutingConnectionHandling() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+    private static HikariDataSource replicaDataSource(ReplicaRoutingProperties.Replica replica, int index) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        //Réplica fora do ar no startup não impede a aplicação de subir
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,45 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas of spring.datasource. With none configured every transaction goes to the primary,
+ * as before.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.datasource")
+public class ReplicaRoutingProperties {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        //A réplica com menos conexões em uso no pool
+        LEAST_LOADED
+    }
+
+    private List<Replica> replicas = new ArrayList<>();
+    private Selection selection = Selection.ROUND_ROBIN;
+    //Depois de escrever, as leituras do mesmo usuário vão para o primário por esse tempo (lag de replicação)
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    //Réplica que falhou fica fora por esse tempo antes de ser tentada de novo
+    private Duration retryAfter = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        //Curto: com a réplica fora do ar a leitura cai no primário em vez de esperar
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -1,26 +1,47 @@
 package com.jfalves.springboot.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.filter.AdmissionFilter;
+import com.jfalves.springboot.filter.TokenAuthenticationFilter;
 import com.jfalves.springboot.service.DevDojoUserDetailsService;
+import com.jfalves.springboot.service.TokenService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.log4j.Log4j2;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
-@Log4j2
+import java.util.Arrays;
+
 @EnableWebSecurity
 @RequiredArgsConstructor
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    //"root" e "user"
+    private static final String JACKSON_PASSWORD = "{bcrypt}$2a$10$Q2dXXN6LXL3QcR.6ldmDNuHEh1kWOD0N3UZpGRWPHbTYqvlLu/2oG";
+    private static final String USER_PASSWORD = "{bcrypt}$2a$10$f/fD829hV2X7RZeLcBTnGuPmVrpOFL8zFu6daXCsQBOZB3ItYmf8O";
+
     private final DevDojoUserDetailsService devDojoUserDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
 
     /**
+     * TokenAuthenticationFilter
+     * AdmissionFilter
      * BasicAuthenticationFilter
      * UsernamePasswordAuthenticationFilter
      * DefaultLoginPageGeneratingFilter
@@ -46,24 +67,41 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .and()
                 .formLogin()
                 .and()
-                .httpBasic();
+                .httpBasic()
+                .and()
+                //Os dois antes do login por formulário e do Basic: a admissão corta o excesso antes de qualquer BCrypt
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new AdmissionFilter(admissionControl, objectMapper), UsernamePasswordAuthenticationFilter.class);
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
-        log.info("Password encoder{}", passwordEncoder.encode("test"));
 
-        //Dupla autenticação
-        auth.inMemoryAuthentication()
-                .withUser("jackson")
-                .password(passwordEncoder.encode("root"))
-                .roles("User", "Admin")
-                .and()
-                .withUser("user")
-                .password(passwordEncoder.encode("user"))
-                .roles("User");
+        //Senhas já codificadas: cada BCrypt no startup custava dezenas de ms
+        InMemoryUserDetailsManager inMemoryUsers = new InMemoryUserDetailsManager(
+                User.withUsername("jackson")
+                        .password(JACKSON_PASSWORD)
+                        .roles("User", "Admin")
+                        .build(),
+                User.withUsername("user")
+                        .password(USER_PASSWORD)
+                        .roles("User")
+                        .build());
+
+        //Dupla autenticação, com o cache de credenciais na frente das duas
+        ProviderManager credentialsManager = new ProviderManager(Arrays.asList(
+                daoAuthenticationProvider(inMemoryUsers, passwordEncoder),
+                daoAuthenticationProvider(devDojoUserDetailsService, passwordEncoder)));
+
+        auth.authenticationProvider(new CachingAuthenticationProvider(credentialsManager, authenticationCache));
+    }
 
-        auth.userDetailsService(devDojoUserDetailsService).passwordEncoder(passwordEncoder);
+    private static DaoAuthenticationProvider daoAuthenticationProvider(UserDetailsService userDetailsService,
+                                                                       PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return provider;
     }
 }
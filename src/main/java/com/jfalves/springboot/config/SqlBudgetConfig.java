@@ -0,0 +1,58 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.filter.SqlBudgetFilter;
+import com.jfalves.springboot.repository.SqlExecutionListener;
+import com.jfalves.springboot.repository.SqlRowCountingDataSource;
+import com.jfalves.springboot.repository.SqlStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.DispatcherType;
+import javax.sql.DataSource;
+
+/**
+ * Hooks Hibernate and the DataSource into the per-request SQL counters of {@link SqlBudgetFilter}.
+ * The hooks do nothing outside a request (tests, startup, async streaming threads); handlers
+ * offloaded by jalves.execution carry the request's counters to their executor thread.
+ */
+@Configuration
+public class SqlBudgetConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementStatsCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlExecutionListener.class.getName());
+        };
+    }
+
+    //Linhas contadas no JDBC: projeções e escalares não passam pelos hooks de entidade do Hibernate.
+    //Cada conexão, statement e result set passa por um proxy: só com o orçamento e a contagem ligados
+    @Bean
+    @ConditionalOnProperty(prefix = "jalves.sql-budget", name = {"enabled", "count-rows"}, matchIfMissing = true)
+    public static BeanPostProcessor sqlRowCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource && !(bean instanceof SqlRowCountingDataSource)
+                        ? new SqlRowCountingDataSource((DataSource) bean)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(SqlBudgetProperties properties) {
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>(new SqlBudgetFilter(properties));
+        //Logo depois do RequestMetricsFilter: a autenticação também conta no orçamento
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+}
@@ -0,0 +1,26 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-request SQL budget: requests above it are logged with the statements they issued.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+    private int maxStatements = 10;
+    private Duration maxExecutionTime = Duration.ofMillis(200);
+    //X-Sql-Statements, X-Sql-Rows, X-Sql-Time-Millis e X-Sql-Connection-Millis em cada resposta; desligado no profile prod
+    private boolean exposeHeaders = true;
+    //Proxy no DataSource que conta as linhas lidas; desligado no profile prod, onde o log mostra 0 linhas
+    private boolean countRows = true;
+}
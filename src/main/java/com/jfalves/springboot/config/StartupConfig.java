@@ -0,0 +1,22 @@
+package com.jfalves.springboot.config;
+
+import com.jfalves.springboot.controller.AnimeController;
+import com.jfalves.springboot.controller.AuthController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With spring.main.lazy-initialization (profile prod) beans are only created when first used.
+ * The controllers stay eager, and with them everything a request goes through (services,
+ * repositories, Hibernate, caches), so the first request does not pay for it; what is left lazy
+ * (actuator endpoints, admin and client side beans) is not on the request path.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AnimeController.class, AuthController.class);
+    }
+}
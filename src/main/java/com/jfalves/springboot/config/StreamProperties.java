@@ -0,0 +1,23 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * NDJSON export of the whole catalog (GET /animes/all/stream). The fetch size of its query,
+ * jalves.stream.fetch-size, is read by AnimeRepositoryImpl, which the JPA test slices build
+ * without the configuration properties beans.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.stream")
+public class StreamProperties {
+
+    //Só do streaming; os demais handlers assíncronos ficam com o timeout padrão do Spring MVC
+    private Duration timeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,27 @@
+package com.jfalves.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signing keys of the access tokens. New tokens are signed with the active key; every key still
+ * listed is accepted, so a key is rotated by adding the new one, making it active and removing
+ * the old one once its tokens have expired.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jalves.security.token")
+public class TokenProperties {
+
+    private Duration ttl = Duration.ofMinutes(15);
+    private String activeKey;
+    //id da chave -> segredo em Base64 (no mínimo 32 bytes)
+    private Map<String, String> keys = new LinkedHashMap<>();
+}
@@ -1,20 +1,53 @@
 package com.jfalves.springboot.configurer;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jfalves.springboot.metrics.AnimeMetrics;
+import com.jfalves.springboot.metrics.InFlightRequestsInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 @Configuration
+@RequiredArgsConstructor
 public class JalvesWebMvcConfigurer implements WebMvcConfigurer {
 
+    //Builder do Spring Boot, já com as configurações spring.jackson.*
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final AnimeMetrics animeMetrics;
+
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
         PageableHandlerMethodArgumentResolver pageHandler = new PageableHandlerMethodArgumentResolver();
         pageHandler.setFallbackPageable(PageRequest.of(0, 5));
         resolvers.add(pageHandler);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new InFlightRequestsInterceptor(animeMetrics));
+    }
+
+    /**
+     * Smile (binary JSON, application/x-jackson-smile) for clients that ask for it in Accept or
+     * send it as Content-Type. It is added after the JSON converter, so JSON stays the default
+     * for Accept: *&#47;* and requests without Accept.
+     * <p>
+     * Spring MVC already registers a Smile converter when the library is on the classpath, but
+     * with a bare ObjectMapper; this one shares the JSON mapper's configuration.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
 }
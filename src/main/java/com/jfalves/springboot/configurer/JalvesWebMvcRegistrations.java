@@ -0,0 +1,93 @@
+package com.jfalves.springboot.configurer;
+
+import com.jfalves.springboot.config.ExecutionProperties;
+import com.jfalves.springboot.controller.AnimeController;
+import com.jfalves.springboot.repository.SqlStatementStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Installs the {@link OffloadingRequestMappingHandlerAdapter} for the AnimeController handlers
+ * when jalves.execution.mode is BOUNDED or VIRTUAL. In BLOCKING mode Spring Boot's adapter is
+ * used unchanged. The executors carry the request's SQL counters (see SqlBudgetFilter) to the
+ * handler thread.
+ * <p>
+ * The executor is not a bean on purpose: an Executor bean would replace Boot's
+ * applicationTaskExecutor, which the streaming endpoints run on.
+ */
+@Log4j2
+@Configuration
+@RequiredArgsConstructor
+public class JalvesWebMvcRegistrations implements WebMvcRegistrations, DisposableBean {
+
+    private final ExecutionProperties properties;
+    private ExecutorService virtualThreadExecutor;
+    private ThreadPoolTaskExecutor boundedExecutor;
+    private RequestMappingHandlerAdapter adapter;
+
+    @Override
+    public synchronized RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        //O Boot chama este método duas vezes (checa null e depois usa): cria o executor uma vez só
+        if (adapter == null) {
+            adapter = createRequestMappingHandlerAdapter();
+        }
+        return adapter;
+    }
+
+    private RequestMappingHandlerAdapter createRequestMappingHandlerAdapter() {
+        ExecutionProperties.Mode mode = properties.getMode();
+        if (mode == ExecutionProperties.Mode.BLOCKING) {
+            return null;
+        }
+
+        if (mode == ExecutionProperties.Mode.VIRTUAL) {
+            Optional<ExecutorService> virtualThreads = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            if (virtualThreads.isPresent()) {
+                log.info("AnimeController handlers run on virtual threads");
+                virtualThreadExecutor = virtualThreads.get();
+                //Virtual threads não precisam de limite; o pool de conexões já segura o banco
+                TaskExecutorAdapter executor = new TaskExecutorAdapter(virtualThreadExecutor);
+                executor.setTaskDecorator(SqlStatementStats::propagate);
+                return offloadingAdapter(executor, 0);
+            }
+            log.warn("Virtual threads need JDK 21 or later, running on {}; falling back to the bounded executor",
+                    Runtime.version());
+        }
+
+        log.info("AnimeController handlers run on a pool of {} threads, {} requests queued at most",
+                properties.getThreads(), properties.getQueueCapacity());
+        boundedExecutor = new ThreadPoolTaskExecutor();
+        boundedExecutor.setThreadNamePrefix("anime-handler-");
+        boundedExecutor.setCorePoolSize(properties.getThreads());
+        boundedExecutor.setMaxPoolSize(properties.getThreads());
+        boundedExecutor.setQueueCapacity(properties.getQueueCapacity());
+        boundedExecutor.setTaskDecorator(SqlStatementStats::propagate);
+        boundedExecutor.initialize();
+        return offloadingAdapter(boundedExecutor, properties.getThreads() + properties.getQueueCapacity());
+    }
+
+    private RequestMappingHandlerAdapter offloadingAdapter(AsyncTaskExecutor executor, int maxPending) {
+        return new OffloadingRequestMappingHandlerAdapter(executor, properties.getTimeout().toMillis(), maxPending,
+                handlerMethod -> AnimeController.class.isAssignableFrom(handlerMethod.getBeanType()));
+    }
+
+    @Override
+    public void destroy() {
+        if (boundedExecutor != null) {
+            boundedExecutor.shutdown();
+        }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jfalves.springboot.configurer;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Runs the selected handler methods on an executor instead of the Tomcat thread, as if they had
+ * been written to return a {@link WebAsyncTask}: arguments are resolved (and the body read) on
+ * the Tomcat thread, the method itself runs on the executor, and Spring MVC async dispatches the
+ * result back to be written as usual. The controllers stay plain blocking code.
+ * <p>
+ * Handlers that already return an async type (StreamingResponseBody, DeferredResult...) are left
+ * alone. A timeout ends in 503 through AsyncRequestTimeoutException. When {@code maxPending}
+ * requests are already running or queued, the next one is rejected on the Tomcat thread, before
+ * going async, with a {@link RejectedExecutionException} (503 as well).
+ */
+public class OffloadingRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private static final Class<?>[] ASYNC_RETURN_TYPES = {Callable.class, WebAsyncTask.class, DeferredResult.class,
+            CompletionStage.class, ListenableFuture.class, StreamingResponseBody.class, ResponseBodyEmitter.class};
+
+    //Sem stack trace: sob sobrecarga rejeitar tem que ser barato
+    private static final RejectedExecutionException SATURATED = new RejectedExecutionException("Server is busy") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMillis;
+    private final Predicate<HandlerMethod> offloaded;
+    private final Semaphore pending;
+    private final ConcurrentMap<Method, Boolean> offloadedMethods = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxPending offloaded requests allowed to run or wait for the executor at once, 0 for no limit
+     */
+    public OffloadingRequestMappingHandlerAdapter(AsyncTaskExecutor executor, long timeoutMillis, int maxPending,
+                                                  Predicate<HandlerMethod> offloaded) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.pending = maxPending > 0 ? new Semaphore(maxPending) : null;
+        this.offloaded = offloaded;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        Boolean offload = offloadedMethods.get(handlerMethod.getMethod());
+        if (offload == null) {
+            offload = offloaded.test(handlerMethod) && !returnsAsyncValue(handlerMethod.getMethod());
+            offloadedMethods.put(handlerMethod.getMethod(), offload);
+        }
+        return offload
+                ? new OffloadedHandlerMethod(handlerMethod)
+                : super.createInvocableHandlerMethod(handlerMethod);
+    }
+
+    private static boolean returnsAsyncValue(Method method) {
+        ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+        Class<?> valueType = ResponseEntity.class.isAssignableFrom(returnType.toClass())
+                ? returnType.getGeneric().toClass()
+                : returnType.toClass();
+        return Stream.of(ASYNC_RETURN_TYPES).anyMatch(asyncType -> asyncType.isAssignableFrom(valueType));
+    }
+
+    private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        private OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                       Object... providedArgs) throws Exception {
+            Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            if (pending == null) {
+                return new WebAsyncTask<>(timeoutMillis, executor, () -> doInvoke(args));
+            }
+            if (!pending.tryAcquire()) {
+                throw SATURATED;
+            }
+            //Libera na conclusão do request, inclusive por timeout, não quando o método retorna
+            WebAsyncTask<Object> task = new WebAsyncTask<>(timeoutMillis, executor, () -> doInvoke(args));
+            task.onCompletion(pending::release);
+            return task;
+        }
+    }
+}
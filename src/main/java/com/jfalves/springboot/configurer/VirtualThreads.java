@@ -0,0 +1,27 @@
+package com.jfalves.springboot.configurer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads looked up at runtime: the build targets Java 11 (Spring Boot 2.3 cannot read
+ * newer class files), but the same jar gets them when it runs on JDK 21 or later.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.jfalves.springboot.controller;
+
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.config.AdmissionProperties;
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.wrapper.AdmissionStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(value = "animes/admin/admission")
+public class AdmissionController {
+
+    private final AdmissionControl admissionControl;
+
+    @GetMapping
+    public ResponseEntity<AdmissionStats> stats() {
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+
+    //Troca os limites sem restart; o corpo tem o formato de jalves.admission
+    @PutMapping
+    public ResponseEntity<AdmissionStats> reload(@RequestBody AdmissionProperties admissionProperties) {
+        try {
+            admissionControl.reload(admissionProperties);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+}
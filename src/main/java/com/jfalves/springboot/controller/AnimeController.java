@@ -1,53 +1,169 @@
 package com.jfalves.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jfalves.springboot.config.StreamProperties;
 import com.jfalves.springboot.domain.Anime;
 import com.jfalves.springboot.requests.AnimePostRequestBody;
 import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.service.AnimeIngestionService;
 import com.jfalves.springboot.service.AnimeService;
+import com.jfalves.springboot.util.AnimeETags;
 import com.jfalves.springboot.util.DateUtil;
+import com.jfalves.springboot.wrapper.CacheStats;
+import com.jfalves.springboot.wrapper.CursorResponse;
+import com.jfalves.springboot.wrapper.IngestionStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Log4j2
+@Validated
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(value = "animes")
 public class AnimeController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TOTAL_EXACT_HEADER = "X-Total-Exact";
+    public static final String PREFER_HEADER = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+
     private final AnimeService service;
+    private final ObjectMapper objectMapper;
+    private final AnimePageResponseCache pageResponseCache;
+    private final AnimeIngestionService ingestion;
+    private final StreamProperties streamProperties;
 
+    //Nas listagens a ETag é a versão do catálogo: checkNotModified responde 304 antes de qualquer query
     @GetMapping
-    public ResponseEntity<Page<Anime>> list(Pageable pageable) {
-        return ResponseEntity.ok(service.listAll(pageable));
+    public ResponseEntity<Page<Anime>> list(Pageable pageable,
+                                            @RequestParam(defaultValue = "true") boolean exactTotal,
+                                            NativeWebRequest webRequest) {
+        String catalogETag = service.catalogETag();
+        if (webRequest.checkNotModified(catalogETag)) {
+            return null;
+        }
+
+        //Primeiras páginas: bytes já serializados (e em gzip) escritos direto na resposta
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        MediaType cacheableType = response == null
+                ? null
+                : pageResponseCache.cacheableType(pageable, webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (cacheableType != null) {
+            AnimePageResponseCache.CachedPage page = pageResponseCache.get(pageable, exactTotal, cacheableType,
+                    catalogETag, () -> exactTotal ? service.listAll(pageable) : service.listAllWithCachedTotal(pageable));
+            response.setHeader(TOTAL_EXACT_HEADER, String.valueOf(page.isTotalExact()));
+            try {
+                page.writeTo(response, AnimePageResponseCache.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        if (exactTotal) {
+            return ResponseEntity.ok()
+                    .header(TOTAL_EXACT_HEADER, "true")
+                    .body(service.listAll(pageable));
+        }
+
+        Page<Anime> page = service.listAllWithCachedTotal(pageable);
+        return ResponseEntity.ok()
+                .header(TOTAL_EXACT_HEADER, String.valueOf(AnimeService.isTotalExact(page)))
+                .body(page);
+    }
+
+    @GetMapping(value = "/cursor")
+    public ResponseEntity<CursorResponse<Anime>> listByCursor(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "5") int size,
+                                                             WebRequest webRequest) {
+        if (webRequest.checkNotModified(service.catalogETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(service.listAllByCursor(cursor, size));
     }
 
     @GetMapping(value = "/all")
-    public ResponseEntity<List<Anime>> listAll() {
+    public ResponseEntity<List<Anime>> listAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(service.catalogETag())) {
+            return null;
+        }
         return ResponseEntity.ok(service.listAllNoPageable());
     }
 
+    /**
+     * Writes straight to the response from a WebAsyncTask rather than returning a
+     * StreamingResponseBody, so the export gets its own jalves.stream.timeout instead of raising
+     * the async timeout of every handler.
+     */
+    @GetMapping(value = {"/all", "/all/stream"}, produces = APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamAll(NativeWebRequest webRequest) {
+        if (webRequest.checkNotModified(service.catalogETag())) {
+            return null;
+        }
+
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        ObjectWriter writer = objectMapper.writerFor(Anime.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+
+        return new WebAsyncTask<>(streamProperties.getTimeout().toMillis(), () -> {
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            service.streamAll(anime -> writeLine(writer, generator, anime));
+            generator.flush();
+            //Resposta já escrita: o retorno nulo não passa pelos message converters
+            return null;
+        });
+    }
+
+    //Com a ETag no ResponseEntity o Spring responde 304 ao If-None-Match sem serializar o corpo
     @GetMapping(value = "/{id}")
     public ResponseEntity<Anime> findById(@PathVariable long id) {
-        return ResponseEntity.ok(service.findByIdOrThrowBadRequestException(id));
+        Anime anime = service.findByIdOrThrowBadRequestException(id);
+        return ResponseEntity.ok().eTag(AnimeETags.of(anime)).body(anime);
     }
 
     @GetMapping(value = "by-id/{id}")
     public ResponseEntity<Anime> findByIdAuthenticationPrincipal(@PathVariable long id,
                                                                  @AuthenticationPrincipal UserDetails userDetails) {
         log.info(userDetails);
-        return ResponseEntity.ok(service.findByIdOrThrowBadRequestException(id));
+        Anime anime = service.findByIdOrThrowBadRequestException(id);
+        return ResponseEntity.ok().eTag(AnimeETags.of(anime)).body(anime);
+    }
+
+    @GetMapping(value = "/admin/cache")
+    public ResponseEntity<CacheStats> entityCacheStats() {
+        return ResponseEntity.ok(service.entityCacheStats());
+    }
+
+    @GetMapping(value = "/admin/cache/pages")
+    public ResponseEntity<CacheStats> pageResponseCacheStats() {
+        return ResponseEntity.ok(pageResponseCache.stats());
     }
 
     @GetMapping(value = "/find")
@@ -55,21 +171,93 @@ public class AnimeController {
         return ResponseEntity.ok(service.findByName(name));
     }
 
+    @GetMapping(value = "/search")
+    public ResponseEntity<List<Anime>> search(@RequestParam String q,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.search(q, limit));
+    }
+
+    @GetMapping(value = "/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.suggest(prefix, limit));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Anime> save(@RequestBody @Valid AnimePostRequestBody animePostRequestBody) {
         return new ResponseEntity<>(service.save(animePostRequestBody), HttpStatus.CREATED);
     }
 
+    //Prefer: respond-async com jalves.ingestion.enabled: 202 e a gravação fica para o AnimeIngestionService
+    @PostMapping(headers = PREFER_HEADER + "=" + AnimeIngestionService.RESPOND_ASYNC)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> saveAsync(@RequestBody @Valid AnimePostRequestBody animePostRequestBody) {
+        if (!ingestion.isEnabled()) {
+            return save(animePostRequestBody);
+        }
+        return accepted(ingestion.enqueue(animePostRequestBody));
+    }
+
+    @GetMapping(value = "/ingestion/{trackingId}")
+    public ResponseEntity<IngestionStatus> ingestionStatus(@PathVariable long trackingId) {
+        return ResponseEntity.ok(ingestion.status(trackingId));
+    }
+
+    @PostMapping(value = "/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Anime>> saveAll(@RequestBody List<@Valid AnimePostRequestBody> animePostRequestBodies) {
+        return new ResponseEntity<>(service.saveAll(animePostRequestBodies), HttpStatus.CREATED);
+    }
+
     @DeleteMapping(value = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable long id) {
         service.delete(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @DeleteMapping(value = "/admin/batch")
+    public ResponseEntity<Void> deleteAll(@RequestBody List<Long> ids) {
+        service.deleteAll(ids);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @PutMapping(value = "/{id}")
-    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody animePutRequestBody) {
-        service.replace(animePutRequestBody);
+    public ResponseEntity<Void> replace(@RequestBody @Valid AnimePutRequestBody animePutRequestBody,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.replace(animePutRequestBody, AnimeETags.parseIfMatch(ifMatch));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    //Com If-Match continua síncrono: o 412 precisa sair nesta resposta
+    @PutMapping(value = "/{id}", headers = PREFER_HEADER + "=" + AnimeIngestionService.RESPOND_ASYNC)
+    public ResponseEntity<?> replaceAsync(@RequestBody @Valid AnimePutRequestBody animePutRequestBody,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!ingestion.isEnabled() || ifMatch != null) {
+            return replace(animePutRequestBody, ifMatch);
+        }
+        return accepted(ingestion.enqueue(animePutRequestBody));
+    }
+
+    @PatchMapping(value = "/admin/batch")
+    public ResponseEntity<Void> replaceAll(@RequestBody List<@Valid AnimePutRequestBody> animePutRequestBodies) {
+        service.replaceAll(animePutRequestBodies);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    private static ResponseEntity<IngestionStatus> accepted(IngestionStatus status) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/animes/ingestion/" + status.getTrackingId()))
+                .header(PREFERENCE_APPLIED_HEADER, AnimeIngestionService.RESPOND_ASYNC)
+                .body(status);
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, Anime anime) {
+        try {
+            writer.writeValue(generator, anime);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
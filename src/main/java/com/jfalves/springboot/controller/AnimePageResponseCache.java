@@ -0,0 +1,340 @@
+package com.jfalves.springboot.controller;
+
+import com.jfalves.springboot.config.AnimePageCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.ReplicaRoutingDataSource;
+import com.jfalves.springboot.service.AnimeService;
+import com.jfalves.springboot.wrapper.CacheStats;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized bodies of {@code GET /animes} pages, kept as bytes plus a gzipped copy and written
+ * straight to the servlet response, so a hit costs no query, no serialization and no compression.
+ * <p>
+ * Keyed by page, size, sort, exactTotal and content type (JSON or Smile). Pages are serialized
+ * with Spring MVC's own message converters, so the bytes are the ones the uncached path would
+ * send. Entries belong to one catalog ETag: the first lookup with a new ETag drops them all.
+ * Memory is bounded by the total bytes held, evicting the least recently used page.
+ * <p>
+ * Misses load from the primary even with read replicas: a page read from a lagging replica just
+ * after a write would be kept under the new ETag until the next one.
+ */
+@Component
+public class AnimePageResponseCache {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final List<MediaType> CACHEABLE_TYPES = List.of(MediaType.APPLICATION_JSON, APPLICATION_SMILE);
+    private static final Type PAGE_TYPE = ResolvableType.forClassWithGenerics(Page.class, Anime.class).getType();
+    //Chave, arrays e objetos da entrada
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final boolean enabled;
+    private final long maximumBytes;
+    private final long maximumEntryBytes;
+    private final int cachedPages;
+    private final int minGzipBytes;
+    private final Supplier<List<HttpMessageConverter<?>>> converters;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, CachedPage> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private String catalogETag;
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    @Autowired
+    public AnimePageResponseCache(AnimePageCacheProperties properties,
+                                  ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this(properties, () -> handlerAdapter.getObject().getMessageConverters());
+    }
+
+    AnimePageResponseCache(AnimePageCacheProperties properties, Supplier<List<HttpMessageConverter<?>>> converters) {
+        this.enabled = properties.isEnabled() && properties.getMaximumSize().toBytes() > 0;
+        this.maximumBytes = properties.getMaximumSize().toBytes();
+        this.maximumEntryBytes = Math.min(properties.getMaximumEntrySize().toBytes(), maximumBytes);
+        this.cachedPages = properties.getCachedPages();
+        this.minGzipBytes = (int) Math.min(Integer.MAX_VALUE, properties.getMinGzipSize().toBytes());
+        this.converters = converters;
+    }
+
+    /**
+     * @return the type the page is cached and written as, or null when the request has to take
+     * the regular Spring MVC path: cache disabled, page beyond cachedPages, or an Accept header
+     * that neither JSON nor Smile satisfies
+     */
+    public MediaType cacheableType(Pageable pageable, String accept) {
+        if (!enabled || pageable.isUnpaged() || pageable.getPageNumber() >= cachedPages) {
+            return null;
+        }
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        //Mesma ordem de preferência que o Spring MVC usa na negociação
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType cacheable : CACHEABLE_TYPES) {
+                if (mediaType.isCompatibleWith(cacheable)) {
+                    return cacheable;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param catalogETag ETag of the catalog read before the page is loaded
+     * @param loader      queries the page on a miss
+     */
+    public CachedPage get(Pageable pageable, boolean exactTotal, MediaType mediaType, String catalogETag,
+                          Supplier<Page<Anime>> loader) {
+        Key key = new Key(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), exactTotal, mediaType);
+        lock.lock();
+        try {
+            if (!catalogETag.equals(this.catalogETag)) {
+                entries.clear();
+                bytes = 0;
+                this.catalogETag = catalogETag;
+            }
+            CachedPage cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        Page<Anime> page = ReplicaRoutingDataSource.readFromPrimary(loader);
+        CachedPage loaded = serialize(page, exactTotal || AnimeService.isTotalExact(page), mediaType);
+        loadNanos.add(System.nanoTime() - start);
+        if (loaded.weight() <= maximumEntryBytes) {
+            put(key, loaded, catalogETag);
+        }
+        return loaded;
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+            String name = parts[0];
+            if (("gzip".equalsIgnoreCase(name) || "*".equals(name))
+                    && !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long sizeInBytes;
+        long size;
+        lock.lock();
+        try {
+            size = entries.size();
+            sizeInBytes = bytes;
+        } finally {
+            lock.unlock();
+        }
+        return CacheStats.builder()
+                .enabled(enabled)
+                .policy("LRU")
+                .size(size)
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .hitRatio(requests == 0 ? 0 : (double) hitCount / requests)
+                .evictionCount(evictions.sum())
+                .loadCount(missCount)
+                .averageLoadMillis(missCount == 0 ? 0 : (double) loadNanos.sum() / missCount / TimeUnit.MILLISECONDS.toNanos(1))
+                .sizeInBytes(sizeInBytes)
+                .maximumSizeInBytes(maximumBytes)
+                .build();
+    }
+
+    private void put(Key key, CachedPage page, String catalogETag) {
+        lock.lock();
+        try {
+            //Uma escrita mudou a ETag durante o load: a página já nasceu velha
+            if (!catalogETag.equals(this.catalogETag)) {
+                return;
+            }
+            CachedPage previous = entries.put(key, page);
+            bytes += page.weight() - (previous == null ? 0 : previous.weight());
+            Iterator<Map.Entry<Key, CachedPage>> eldest = entries.entrySet().iterator();
+            while (bytes > maximumBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().weight();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CachedPage serialize(Page<Anime> page, boolean totalExact, MediaType mediaType) {
+        for (HttpMessageConverter<?> converter : converters.get()) {
+            if (converter instanceof GenericHttpMessageConverter
+                    && ((GenericHttpMessageConverter<?>) converter).canWrite(PAGE_TYPE, page.getClass(), mediaType)) {
+                BufferedOutputMessage message = new BufferedOutputMessage();
+                try {
+                    ((GenericHttpMessageConverter<Object>) converter).write(page, PAGE_TYPE, mediaType, message);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                byte[] body = message.body.toByteArray();
+                MediaType contentType = message.headers.getContentType() != null ? message.headers.getContentType() : mediaType;
+                return new CachedPage(contentType.toString(), body, gzip(body), totalExact);
+            }
+        }
+        throw new IllegalStateException("No message converter writes " + mediaType);
+    }
+
+    //Só guarda o gzip quando ele é de fato menor
+    private byte[] gzip(byte[] body) {
+        if (body.length < minGzipBytes) {
+            return null;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.size() < body.length ? compressed.toByteArray() : null;
+    }
+
+    @Getter
+    public static class CachedPage {
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final boolean totalExact;
+
+        private CachedPage(String contentType, byte[] body, byte[] gzipBody, boolean totalExact) {
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.totalExact = totalExact;
+        }
+
+        /**
+         * Writes status, content headers and the body as is, gzipped when the client accepts it
+         * and a compressed copy exists. Headers already on the response (ETag, ...) are kept.
+         */
+        public void writeTo(HttpServletResponse response, boolean acceptsGzip) throws IOException {
+            byte[] bytes = body;
+            if (gzipBody != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (acceptsGzip) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    bytes = gzipBody;
+                }
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLength(bytes.length);
+            OutputStream outputStream = response.getOutputStream();
+            outputStream.write(bytes);
+            outputStream.flush();
+        }
+
+        private long weight() {
+            return ENTRY_OVERHEAD + body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final int page;
+        private final int size;
+        private final Sort sort;
+        private final boolean exactTotal;
+        private final MediaType mediaType;
+
+        private Key(int page, int size, Sort sort, boolean exactTotal, MediaType mediaType) {
+            this.page = page;
+            this.size = size;
+            this.sort = sort;
+            this.exactTotal = exactTotal;
+            this.mediaType = mediaType;
+        }
+    }
+
+    private static class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.jfalves.springboot.controller;
+
+import com.jfalves.springboot.service.TokenService;
+import com.jfalves.springboot.wrapper.TokenResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(value = "auth")
+public class AuthController {
+
+    private final TokenService tokenService;
+
+    //Login com Basic uma única vez, as próximas requisições usam o token
+    //Só com usuário e senha (Basic ou formulário): um token não renova a si mesmo
+    @PostMapping(value = "/token")
+    public ResponseEntity<TokenResponse> token(Authentication authentication) {
+        if (authentication instanceof TokenService.TokenAuthentication) {
+            //O ExceptionTranslationFilter responde 401 com o desafio Basic
+            throw new InsufficientAuthenticationException(
+                    "A token cannot be exchanged for a new token, log in with username and password");
+        }
+        return ResponseEntity.ok(TokenResponse.builder()
+                .accessToken(tokenService.issue(authentication))
+                .tokenType("Bearer")
+                .expiresIn(tokenService.getTtlSeconds())
+                .build());
+    }
+}
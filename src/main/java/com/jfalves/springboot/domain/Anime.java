@@ -1,10 +1,13 @@
 package com.jfalves.springboot.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -16,12 +19,26 @@ import javax.validation.constraints.NotEmpty;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+//Criado pela migration V3__add_anime_name_index no profile prod; aqui para o ddl-auto update criar o mesmo índice
+@Table(indexes = @Index(name = "idx_anime_name", columnList = "name"))
 public class Anime{
 
+    //Sequence em blocos de 50 (tabela anime_seq no MySQL), permite o batch de inserts do Hibernate
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anime_seq")
+    @GenericGenerator(name = "anime_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "anime_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "com.jfalves.springboot.repository.LockFreePooledLoOptimizer")
+            })
     private Long id;
 
     @NotEmpty(message = "The anime name cannot be empty")
     private String name;
+
+    //Incrementada a cada update, vira a ETag do anime
+    @Version
+    @JsonIgnore
+    private Long version;
 }
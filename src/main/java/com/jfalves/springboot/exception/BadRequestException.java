@@ -1,12 +1,34 @@
 package com.jfalves.springboot.exception;
 
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException{
 
+    public static final BadRequestException ANIME_NOT_FOUND = preallocated("Anime not found");
+    public static final BadRequestException INVALID_CURSOR = preallocated("Invalid cursor");
+
+    @Getter
+    private final boolean preallocated;
+
     public BadRequestException(String message){
         super(message);
+        this.preallocated = false;
+    }
+
+    private BadRequestException(String message, boolean preallocated) {
+        super(message, null, false, false);
+        this.preallocated = preallocated;
+    }
+
+    /**
+     * For expected outcomes (random ids, bad cursors, oversized batches) thrown over and over:
+     * the instance is created once, with no stack trace to fill on each throw and no suppressed
+     * list, so it is immutable and safe to throw from any thread.
+     */
+    public static BadRequestException preallocated(String message) {
+        return new BadRequestException(message, true);
     }
 }
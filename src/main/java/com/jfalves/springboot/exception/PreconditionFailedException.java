@@ -0,0 +1,31 @@
+package com.jfalves.springboot.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException{
+
+    public static final PreconditionFailedException ANIME_MODIFIED = preallocated("Anime was modified");
+
+    @Getter
+    private final boolean preallocated;
+
+    public PreconditionFailedException(String message){
+        super(message);
+        this.preallocated = false;
+    }
+
+    private PreconditionFailedException(String message, boolean preallocated) {
+        super(message, null, false, false);
+        this.preallocated = preallocated;
+    }
+
+    /**
+     * Shared, stackless instance, see {@link BadRequestException#preallocated(String)}.
+     */
+    public static PreconditionFailedException preallocated(String message) {
+        return new PreconditionFailedException(message, true);
+    }
+}
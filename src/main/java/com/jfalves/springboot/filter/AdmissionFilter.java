@@ -0,0 +1,164 @@
+package com.jfalves.springboot.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jfalves.springboot.admission.AdaptiveConcurrencyLimit;
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.admission.EndpointGroup;
+import com.jfalves.springboot.exception.ExceptionDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Sheds load before any authentication that costs a BCrypt or a query: it sits in the security
+ * chain right after TokenAuthenticationFilter (an HMAC check) and before the Basic and form login
+ * filters. Each request first spends a token of its principal for the endpoint group (429 when
+ * there is none) and then takes a slot of the group's adaptive concurrency limit (503 when full),
+ * both with Retry-After.
+ * <p>
+ * The principal is the authenticated user (bearer token or session), otherwise the client
+ * address, so rotating the user names of unverified Basic credentials does not buy more tokens.
+ * A claimed Basic user name also spends a token of its own, stricter bucket, which caps guessing
+ * the password of one user from many addresses.
+ */
+@RequiredArgsConstructor
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!admissionControl.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        EndpointGroup group = EndpointGroup.of(request);
+        long start = System.nanoTime();
+        long wait = admissionControl.tryAcquireRate(principalKey(request), group, start);
+        String claimedUser = wait > 0 ? null : claimedUser(request);
+        if (claimedUser != null) {
+            wait = admissionControl.tryAcquireClaimedUserRate(claimedUser, group, start);
+        }
+        if (wait > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests for " + group.name().toLowerCase()
+                    + " endpoints, slow down", (wait + 999_999_999) / 1_000_000_000);
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = admissionControl.concurrencyLimit(group);
+        if (!limit.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent " + group.name().toLowerCase()
+                    + " requests", admissionControl.retryAfterSeconds());
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            //Handlers assíncronos (streaming, jalves.execution) seguram a vaga até a resposta terminar
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limit, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                long now = System.nanoTime();
+                limit.release(now - start, now);
+            }
+        }
+    }
+
+    private static Object principalKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (isAuthenticated(authentication)) {
+            return authentication.getName();
+        }
+        return "@" + request.getRemoteAddr();
+    }
+
+    //Usuário do header Basic ainda não verificado, ou null
+    private static String claimedUser(HttpServletRequest request) {
+        if (isAuthenticated(SecurityContextHolder.getContext().getAuthentication())) {
+            return null;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim()),
+                    StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon < 0 ? credentials : credentials.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            //Base64 inválido: o BasicAuthenticationFilter responde, aqui só conta o endereço
+            return null;
+        }
+    }
+
+    private static boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String details, long retryAfterSeconds)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ExceptionDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .tittle(status.getReasonPhrase() + ", Try Again Later")
+                .details(details)
+                .developerMessage(AdmissionFilter.class.getName())
+                .build());
+    }
+
+    private static class ReleasingListener implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+
+        private ReleasingListener(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            long now = System.nanoTime();
+            limit.release(now - start, now);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
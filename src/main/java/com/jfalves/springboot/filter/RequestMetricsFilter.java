@@ -0,0 +1,72 @@
+package com.jfalves.springboot.filter;
+
+import com.jfalves.springboot.metrics.AnimeMetrics;
+import com.jfalves.springboot.metrics.RequestMetrics;
+import com.jfalves.springboot.repository.SqlStatementStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records latency and response status per handler method. It runs in front of Spring Security,
+ * so rejected requests are timed too (under the "none" handler, as they never reach one).
+ * <p>
+ * The start time stays in a local variable; only requests that go async (the streaming
+ * endpoints) carry it in a request attribute until their async dispatch completes. The JDBC
+ * connection hold time comes from the counters {@link SqlBudgetFilter} leaves in the request, so
+ * it is only recorded while jalves.sql-budget is enabled.
+ */
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String START_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".START";
+
+    private final AnimeMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object asyncStart = request.getAttribute(START_ATTRIBUTE);
+        long start = asyncStart != null ? (Long) asyncStart : System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.setAttribute(START_ATTRIBUTE, start);
+            } else {
+                //Exceção que escapou do DispatcherServlet vira 500 no container
+                int status = failed && response.getStatus() < 400
+                        ? HttpStatus.INTERNAL_SERVER_ERROR.value()
+                        : response.getStatus();
+                RequestMetrics requestMetrics = requestMetrics(request);
+                requestMetrics.record(status, System.nanoTime() - start);
+                Object sqlStats = request.getAttribute(SqlBudgetFilter.STATS_ATTRIBUTE);
+                if (sqlStats != null) {
+                    requestMetrics.recordConnectionHold(((SqlStatementStats) sqlStats).getConnectionHoldNanos());
+                }
+            }
+        }
+    }
+
+    private RequestMetrics requestMetrics(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod
+                ? metrics.handler(((HandlerMethod) handler).getMethod())
+                : metrics.unmatched();
+    }
+}
@@ -0,0 +1,118 @@
+package com.jfalves.springboot.filter;
+
+import com.jfalves.springboot.config.SqlBudgetProperties;
+import com.jfalves.springboot.repository.SqlStatementStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements, rows, database time and connection hold time of each request and logs
+ * the requests that go over the {@link SqlBudgetProperties budget}. With expose-headers on, the
+ * numbers are also sent back as X-Sql-* headers, which is what the integration tests assert on.
+ * <p>
+ * Headers have to be set before the response commits, so they carry the numbers up to the first
+ * flush of the body; the log line has the final ones. The counters stay in the
+ * {@link #STATS_ATTRIBUTE} request attribute, where RequestMetricsFilter picks the connection hold
+ * time of the handler up, and requests that go async (offloaded handlers) are reported when the
+ * async dispatch completes.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Millis";
+    public static final String CONNECTION_HEADER = "X-Sql-Connection-Millis";
+    public static final String STATS_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".STATS";
+
+    private final SqlBudgetProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object asyncStats = request.getAttribute(STATS_ATTRIBUTE);
+        SqlStatementStats stats;
+        if (asyncStats != null) {
+            stats = SqlStatementStats.resume((SqlStatementStats) asyncStats);
+        } else {
+            stats = SqlStatementStats.start();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        }
+        SqlHeadersResponse headersResponse = properties.isExposeHeaders() ? new SqlHeadersResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, headersResponse != null ? headersResponse : response);
+        } finally {
+            SqlStatementStats.stop();
+            if (!request.isAsyncStarted()) {
+                report(request, response, stats, headersResponse);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, SqlStatementStats stats,
+                        SqlHeadersResponse headersResponse) {
+        //Respostas sem corpo (204, 304...) só commitam depois do filtro
+        if (headersResponse != null && !response.isCommitted()) {
+            headersResponse.writeHeaders();
+        }
+        if (overBudget(stats)) {
+            log.warn("{} {} issued {} SQL statements ({} rows, {} ms, connection held {} ms), "
+                            + "budget is {} statements and {} ms: {}",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getRows(),
+                    String.format("%.1f", stats.getExecutionMillis()),
+                    String.format("%.1f", stats.getConnectionHoldMillis()), properties.getMaxStatements(),
+                    properties.getMaxExecutionTime().toMillis(), stats.getSql());
+        }
+    }
+
+    private boolean overBudget(SqlStatementStats stats) {
+        return stats.getStatements() > properties.getMaxStatements()
+                || stats.getExecutionMillis() > properties.getMaxExecutionTime().toMillis();
+    }
+
+    private static class SqlHeadersResponse extends OnCommittedResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean headersWritten;
+
+        private SqlHeadersResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        private void writeHeaders() {
+            if (headersWritten) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+            setHeader(TIME_HEADER, String.format("%.3f", stats.getExecutionMillis()));
+            setHeader(CONNECTION_HEADER, String.format("%.3f", stats.getConnectionHoldMillis()));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jfalves.springboot.handler;
+
+import com.jfalves.springboot.exception.ExceptionDetails;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Function;
+
+/**
+ * Error response of a preallocated exception. Everything but the timestamp is fixed, so the body
+ * is built at most once per millisecond and shared by every response in it; once returned it is
+ * only serialized, never modified.
+ */
+class ErrorBodyTemplate<T extends ExceptionDetails> {
+
+    private final HttpStatus status;
+    private final Function<LocalDateTime, T> bodyFactory;
+    private volatile Stamped<T> current;
+
+    ErrorBodyTemplate(HttpStatus status, Function<LocalDateTime, T> bodyFactory) {
+        this.status = status;
+        this.bodyFactory = bodyFactory;
+    }
+
+    ResponseEntity<T> response() {
+        long millis = System.currentTimeMillis();
+        Stamped<T> stamped = current;
+        if (stamped == null || stamped.millis != millis) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+            stamped = new Stamped<>(millis, new ResponseEntity<>(bodyFactory.apply(timestamp), status));
+            current = stamped;
+        }
+        return stamped.response;
+    }
+
+    private static class Stamped<T> {
+        private final long millis;
+        private final ResponseEntity<T> response;
+
+        private Stamped(long millis, ResponseEntity<T> response) {
+            this.millis = millis;
+            this.response = response;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.jfalves.springboot.handler;
 import com.jfalves.springboot.exception.BadRequestException;
 import com.jfalves.springboot.exception.BadRequestExceptionDetails;
 import com.jfalves.springboot.exception.ExceptionDetails;
+import com.jfalves.springboot.exception.PreconditionFailedException;
 import com.jfalves.springboot.exception.ValidationExceptionDetails;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpHeaders;
@@ -17,22 +18,104 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 import org.springframework.web.util.WebUtils;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Log4j2
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
+
+    //Só exceções pré-alocadas entram aqui, então os mapas não crescem além das constantes
+    private final Map<BadRequestException, ErrorBodyTemplate<BadRequestExceptionDetails>> badRequestTemplates =
+            new ConcurrentHashMap<>();
+    private final Map<PreconditionFailedException, ErrorBodyTemplate<ExceptionDetails>> preconditionFailedTemplates =
+            new ConcurrentHashMap<>();
+
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<BadRequestExceptionDetails> handleBadRequestException(BadRequestException badRequestException) {
+        if (badRequestException.isPreallocated()) {
+            return badRequestTemplates.computeIfAbsent(badRequestException, exception ->
+                    new ErrorBodyTemplate<>(HttpStatus.BAD_REQUEST, timestamp -> badRequestDetails(exception, timestamp)))
+                    .response();
+        }
+        return new ResponseEntity<>(badRequestDetails(badRequestException, LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ExceptionDetails> handlePreconditionFailedException(
+            PreconditionFailedException preconditionFailedException) {
+        if (preconditionFailedException.isPreallocated()) {
+            return preconditionFailedTemplates.computeIfAbsent(preconditionFailedException, exception ->
+                    new ErrorBodyTemplate<>(HttpStatus.PRECONDITION_FAILED,
+                            timestamp -> preconditionFailedDetails(exception, timestamp)))
+                    .response();
+        }
+        return new ResponseEntity<>(preconditionFailedDetails(preconditionFailedException, LocalDateTime.now()),
+                HttpStatus.PRECONDITION_FAILED);
+    }
+
+    //Pool dos handlers cheio (jalves.execution.mode bounded)
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ExceptionDetails> handleRejectedExecutionException(
+            RejectedExecutionException rejectedExecutionException) {
         return new ResponseEntity<>(
-                BadRequestExceptionDetails.builder()
+                ExceptionDetails.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .tittle("Service Unavailable, Try Again Later")
+                        .details(rejectedExecutionException.getMessage())
+                        .developerMessage(RejectedExecutionException.class.getName())
+                        .build(), HttpStatus.SERVICE_UNAVAILABLE
+        );
+    }
+
+    private static BadRequestExceptionDetails badRequestDetails(BadRequestException badRequestException,
+                                                                LocalDateTime timestamp) {
+        return BadRequestExceptionDetails.builder()
+                .timestamp(timestamp)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .tittle("Bad Request Exception, Check the Documentation")
+                .details(badRequestException.getMessage())
+                .developerMessage(badRequestException.getClass().getName())
+                .build();
+    }
+
+    private static ExceptionDetails preconditionFailedDetails(PreconditionFailedException preconditionFailedException,
+                                                              LocalDateTime timestamp) {
+        return ExceptionDetails.builder()
+                .timestamp(timestamp)
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .tittle("Precondition Failed, Fetch the Anime Again")
+                .details(preconditionFailedException.getMessage())
+                .developerMessage(preconditionFailedException.getClass().getName())
+                .build();
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ValidationExceptionDetails> handleConstraintViolationException(
+            ConstraintViolationException exception) {
+        String fields = exception.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath().toString())
+                .collect(Collectors.joining(","));
+        String fieldsMessage = exception.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(","));
+
+        return new ResponseEntity<>(
+                ValidationExceptionDetails.builder()
                         .timestamp(LocalDateTime.now())
                         .status(HttpStatus.BAD_REQUEST.value())
                         .tittle("Bad Request Exception, Check the Documentation")
-                        .details(badRequestException.getMessage())
-                        .developerMessage(badRequestException.getClass().getName())
+                        .details("Check the field(s) error")
+                        .developerMessage(exception.getClass().getName())
+                        .fields(fields)
+                        .fieldsMessage(fieldsMessage)
                         .build(), HttpStatus.BAD_REQUEST
         );
     }
@@ -66,7 +149,8 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         ExceptionDetails exceptionDetails = ExceptionDetails.builder()
                 .timestamp(LocalDateTime.now())
                 .status(status.value())
-                .tittle(ex.getCause().getMessage())
+                //Nem toda exceção do Spring MVC tem causa (ex.: HttpRequestMethodNotSupportedException)
+                .tittle(ex.getCause() != null ? ex.getCause().getMessage() : status.getReasonPhrase())
                 .details(ex.getMessage())
                 .developerMessage(ex.getClass().getName())
                 .build();
@@ -4,6 +4,7 @@ import com.jfalves.springboot.domain.Anime;
 import com.jfalves.springboot.requests.AnimePostRequestBody;
 import com.jfalves.springboot.requests.AnimePutRequestBody;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -11,6 +12,9 @@ public abstract class AnimeMapper {
 
     public static final AnimeMapper INSTANCE = Mappers.getMapper(AnimeMapper.class);
 
+    //A versão é do banco (@Version), nunca vem do request
+    @Mapping(target = "version", ignore = true)
     public abstract Anime toAnime(AnimePostRequestBody animePostRequestBody);
+    @Mapping(target = "version", ignore = true)
     public abstract Anime toAnime(AnimePutRequestBody animePutRequestBody);
 }
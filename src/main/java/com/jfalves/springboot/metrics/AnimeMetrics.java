@@ -0,0 +1,123 @@
+package com.jfalves.springboot.metrics;
+
+import io.prometheus.client.Collector;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Request metrics of every handler method and timings of the AnimeService and AnimeRepository
+ * methods, exposed as a Prometheus collector (GET /animes/admin/prometheus, ADMIN only).
+ * <p>
+ * Meters are created the first time a handler or method is called and looked up by its
+ * {@link Method} afterwards, so the request path never builds tags or ids. Everything is read
+ * and formatted only when Prometheus scrapes.
+ */
+public class AnimeMetrics extends Collector {
+
+    public static final String UNMATCHED_HANDLER = "none";
+
+    private static final String REQUESTS = "anime_http_server_requests_seconds";
+    private static final String RESPONSES = "anime_http_server_responses_total";
+    private static final String IN_FLIGHT = "anime_http_server_requests_in_flight";
+    private static final String CONNECTION_HOLD = "anime_http_server_connection_hold_seconds";
+    private static final String METHOD_TIMINGS = "anime_method_seconds";
+    private static final String METHOD_ERRORS = "anime_method_errors_total";
+
+    private final ConcurrentMap<Method, RequestMetrics> handlers = new ConcurrentHashMap<>();
+    //401/403 do Spring Security e 404 chegam aqui sem handler
+    private final RequestMetrics unmatched = new RequestMetrics(UNMATCHED_HANDLER);
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    public RequestMetrics handler(Method handlerMethod) {
+        RequestMetrics metrics = handlers.get(handlerMethod);
+        if (metrics != null) {
+            return metrics;
+        }
+        return handlers.computeIfAbsent(handlerMethod, method ->
+                new RequestMetrics(method.getDeclaringClass().getSimpleName() + "." + method.getName()));
+    }
+
+    public RequestMetrics unmatched() {
+        return unmatched;
+    }
+
+    /**
+     * Overloads get their own meters, labelled with the parameter types: findAll() and
+     * findAll(Pageable) cost very different things.
+     */
+    public MethodMetrics method(String component, Method method) {
+        String signature = method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", "(", ")"));
+        return methods.computeIfAbsent(component + "." + signature, key -> new MethodMetrics(component, signature));
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        List<RequestMetrics> requestMetrics = new ArrayList<>(handlers.values());
+        requestMetrics.add(unmatched);
+
+        List<MetricFamilySamples.Sample> requests = new ArrayList<>();
+        List<MetricFamilySamples.Sample> responses = new ArrayList<>();
+        List<MetricFamilySamples.Sample> inFlight = new ArrayList<>();
+        List<MetricFamilySamples.Sample> connectionHold = new ArrayList<>();
+        for (RequestMetrics metrics : requestMetrics) {
+            List<String> labelNames = Collections.singletonList("handler");
+            List<String> labelValues = Collections.singletonList(metrics.getHandler());
+            addHistogram(requests, REQUESTS, labelNames, labelValues, metrics.getLatency());
+            metrics.forEachStatus((status, count) -> responses.add(new MetricFamilySamples.Sample(RESPONSES,
+                    Arrays.asList("handler", "status"), Arrays.asList(metrics.getHandler(), String.valueOf(status)),
+                    count)));
+            inFlight.add(new MetricFamilySamples.Sample(IN_FLIGHT, labelNames, labelValues, metrics.inFlight()));
+            addHistogram(connectionHold, CONNECTION_HOLD, labelNames, labelValues, metrics.getConnectionHold());
+        }
+
+        List<MetricFamilySamples.Sample> methodTimings = new ArrayList<>();
+        List<MetricFamilySamples.Sample> methodErrors = new ArrayList<>();
+        for (MethodMetrics metrics : methods.values()) {
+            List<String> labelNames = Arrays.asList("component", "method");
+            List<String> labelValues = Arrays.asList(metrics.getComponent(), metrics.getMethod());
+            addHistogram(methodTimings, METHOD_TIMINGS, labelNames, labelValues, metrics.getLatency());
+            methodErrors.add(new MetricFamilySamples.Sample(METHOD_ERRORS, labelNames, labelValues,
+                    metrics.getErrors().sum()));
+        }
+
+        return Arrays.asList(
+                new MetricFamilySamples(REQUESTS, Type.HISTOGRAM, "Latency of each handler method", requests),
+                new MetricFamilySamples(RESPONSES, Type.COUNTER, "Responses by handler method and status",
+                        responses),
+                new MetricFamilySamples(IN_FLIGHT, Type.GAUGE, "Requests being handled right now", inFlight),
+                new MetricFamilySamples(CONNECTION_HOLD, Type.HISTOGRAM,
+                        "Time each handler method held a JDBC connection, per request", connectionHold),
+                new MetricFamilySamples(METHOD_TIMINGS, Type.HISTOGRAM,
+                        "Latency of the AnimeService and AnimeRepository methods", methodTimings),
+                new MetricFamilySamples(METHOD_ERRORS, Type.COUNTER,
+                        "Exceptions thrown by the AnimeService and AnimeRepository methods", methodErrors));
+    }
+
+    private static void addHistogram(List<MetricFamilySamples.Sample> samples, String name, List<String> labelNames,
+                                     List<String> labelValues, LatencyHistogram histogram) {
+        List<String> bucketLabelNames = new ArrayList<>(labelNames);
+        bucketLabelNames.add("le");
+        long[] cumulative = histogram.cumulativeCounts();
+        for (int i = 0; i < cumulative.length; i++) {
+            List<String> bucketLabelValues = new ArrayList<>(labelValues);
+            bucketLabelValues.add(i < LatencyHistogram.BUCKETS_SECONDS.length
+                    ? doubleToGoString(LatencyHistogram.BUCKETS_SECONDS[i])
+                    : "+Inf");
+            samples.add(new MetricFamilySamples.Sample(name + "_bucket", bucketLabelNames, bucketLabelValues,
+                    cumulative[i]));
+        }
+        //_count igual ao +Inf, mesmo que outra thread tenha gravado entre as leituras
+        samples.add(new MetricFamilySamples.Sample(name + "_count", labelNames, labelValues,
+                cumulative[cumulative.length - 1]));
+        samples.add(new MetricFamilySamples.Sample(name + "_sum", labelNames, labelValues, histogram.sumSeconds()));
+    }
+}
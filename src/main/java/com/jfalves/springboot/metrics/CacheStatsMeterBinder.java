@@ -0,0 +1,58 @@
+package com.jfalves.springboot.metrics;
+
+import com.jfalves.springboot.wrapper.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.function.Supplier;
+
+/**
+ * Publishes the {@link CacheStats} of the in-house caches as Micrometer's standard cache meters
+ * (cache_gets_total{result="hit|miss"}, cache_evictions_total, cache_size...), next to the
+ * ones Spring Boot binds for its own caches.
+ */
+public class CacheStatsMeterBinder extends CacheMeterBinder {
+
+    private final Supplier<CacheStats> stats;
+
+    public CacheStatsMeterBinder(Object cache, String cacheName, Supplier<CacheStats> stats) {
+        super(cache, cacheName, Tags.empty());
+        this.stats = stats;
+    }
+
+    @Override
+    protected Long size() {
+        return stats.get().getSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return stats.get().getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return stats.get().getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return stats.get().getEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return stats.get().getLoadCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.size.bytes", stats, s -> s.get().getSizeInBytes())
+                .tags(getTagsWithCacheName())
+                .description("Bytes held by caches bounded by size in bytes")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jfalves.springboot.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Keeps the in-flight count of each handler method. An async request passes through preHandle
+ * twice (request and async dispatch) but through afterCompletion only once, at the very end.
+ * Error and forward dispatches belong to a request that is already counted and are skipped.
+ */
+@RequiredArgsConstructor
+public class InFlightRequestsInterceptor implements HandlerInterceptor {
+
+    private final AnimeMetrics metrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() == DispatcherType.REQUEST) {
+            metrics.handler(((HandlerMethod) handler).getMethod()).started();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        DispatcherType dispatcherType = request.getDispatcherType();
+        if (handler instanceof HandlerMethod
+                && (dispatcherType == DispatcherType.REQUEST || dispatcherType == DispatcherType.ASYNC)) {
+            metrics.handler(((HandlerMethod) handler).getMethod()).finished();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jfalves.springboot.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram in the shape Prometheus expects (cumulative "le" buckets, count
+ * and sum). Recording is a bucket lookup plus two LongAdder increments: no locks and no
+ * allocation once the adders have spread their cells. Buckets are only summed at scrape time.
+ */
+public class LatencyHistogram {
+
+    //Limites em segundos, os mesmos do client Java do Prometheus estendidos para baixo
+    static final double[] BUCKETS_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private static final long[] BUCKETS_NANOS = new long[BUCKETS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+            BUCKETS_NANOS[i] = (long) (BUCKETS_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    //Último contador é o +Inf
+    private final LongAdder[] counts = new LongAdder[BUCKETS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        counts[bucketIndex(nanos)].increment();
+        sumNanos.add(nanos);
+    }
+
+    static int bucketIndex(long nanos) {
+        int low = 0;
+        int high = BUCKETS_NANOS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BUCKETS_NANOS[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return cumulative counts, one per bucket in {@link #BUCKETS_SECONDS} plus +Inf at the end
+     */
+    public long[] cumulativeCounts() {
+        long[] cumulative = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    public long count() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public double sumSeconds() {
+        return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.jfalves.springboot.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and thrown-exception count of one service or repository method.
+ */
+@Getter
+public class MethodMetrics {
+
+    private final String component;
+    private final String method;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    public MethodMetrics(String component, String method) {
+        this.component = component;
+        this.method = method;
+    }
+
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+}
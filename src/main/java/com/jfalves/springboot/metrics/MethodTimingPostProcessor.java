@@ -0,0 +1,58 @@
+package com.jfalves.springboot.metrics;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.Map;
+
+/**
+ * Adds a {@link MethodTimingInterceptor} to the beans of the given types. Beans that are already
+ * proxies (the transactional AnimeService, the Spring Data repositories) get the interceptor in
+ * front of their existing advice, so the timing includes opening and committing the transaction.
+ * <p>
+ * Not {@link org.springframework.core.Ordered}: it has to run after the auto-proxy creators.
+ */
+public class MethodTimingPostProcessor implements BeanPostProcessor {
+
+    private final Map<Class<?>, String> components;
+    //Resolvido só quando o primeiro bean é instrumentado, não junto com os BeanPostProcessors
+    private final ObjectProvider<AnimeMetrics> metrics;
+
+    public MethodTimingPostProcessor(Map<Class<?>, String> components, ObjectProvider<AnimeMetrics> metrics) {
+        this.components = components;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        for (Map.Entry<Class<?>, String> component : components.entrySet()) {
+            if (component.getKey().isInstance(bean)) {
+                return instrument(bean, component.getKey(),
+                        new MethodTimingInterceptor(component.getValue(), metrics.getObject()));
+            }
+        }
+        return bean;
+    }
+
+    private static Object instrument(Object bean, Class<?> type, MethodTimingInterceptor interceptor) {
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            Advised advised = (Advised) bean;
+            Advisor[] advisors = advised.getAdvisors();
+            int position = 0;
+            while (position < advisors.length && advisors[position].getAdvice() instanceof ExposeInvocationInterceptor) {
+                position++;
+            }
+            advised.addAdvice(position, interceptor);
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(!type.isInterface());
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,69 @@
+package com.jfalves.springboot.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Latency, JDBC connection hold time, responses by status and in-flight count of one handler
+ * method. The counter of a
+ * status is created with a CAS the first time it is seen, every later response only increments it.
+ */
+public class RequestMetrics {
+
+    private static final int MAX_STATUS = 600;
+
+    @Getter
+    private final String handler;
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+    @Getter
+    private final LatencyHistogram connectionHold = new LatencyHistogram();
+    private final AtomicReferenceArray<LongAdder> responses = new AtomicReferenceArray<>(MAX_STATUS);
+    private final LongAdder inFlight = new LongAdder();
+
+    public RequestMetrics(String handler) {
+        this.handler = handler;
+    }
+
+    public void started() {
+        inFlight.increment();
+    }
+
+    public void finished() {
+        inFlight.decrement();
+    }
+
+    public void record(int status, long nanos) {
+        latency.record(nanos);
+        int index = status > 0 && status < MAX_STATUS ? status : 0;
+        LongAdder counter = responses.get(index);
+        if (counter == null) {
+            responses.compareAndSet(index, null, new LongAdder());
+            counter = responses.get(index);
+        }
+        counter.increment();
+    }
+
+    public void recordConnectionHold(long nanos) {
+        connectionHold.record(nanos);
+    }
+
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Passes each status seen so far with its response count; status 0 collects out-of-range codes.
+     */
+    public void forEachStatus(ObjLongConsumer<Integer> consumer) {
+        for (int status = 0; status < MAX_STATUS; status++) {
+            LongAdder counter = responses.get(status);
+            if (counter != null) {
+                consumer.accept(status, counter.sum());
+            }
+        }
+    }
+}
@@ -1,13 +1,58 @@
 package com.jfalves.springboot.repository;
 
 import com.jfalves.springboot.domain.Anime;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AnimeRepository extends JpaRepository<Anime, Long> {
+public interface AnimeRepository extends JpaRepository<Anime, Long>, AnimeRepositoryCustom {
 
-    List<Anime> findByName(String name);
+    //Projeção: os Animes voltam fora do persistence context, sem hidratação de entidade nem snapshot para o dirty checking
+    String READ_ONLY_SELECT = "select new com.jfalves.springboot.domain.Anime(a.id, a.name, a.version) from Anime a";
+
+    @Query(value = READ_ONLY_SELECT, countQuery = "select count(a) from Anime a")
+    Page<Anime> findAllReadOnly(Pageable pageable);
+
+    @Query(READ_ONLY_SELECT)
+    Slice<Anime> findSliceReadOnly(Pageable pageable);
+
+    @Query(READ_ONLY_SELECT)
+    List<Anime> findAllReadOnly();
+
+    @Query(READ_ONLY_SELECT + " where a.name = :name")
+    List<Anime> findByNameReadOnly(@Param("name") String name);
+
+    Slice<Anime> findAllBy(Pageable pageable);
+
+    //Equivalente a WHERE (name, id) > (:name, :id), que o JPQL não suporta
+    @Query("select a from Anime a where a.name > :name or (a.name = :name and a.id > :id)")
+    Slice<Anime> findAllAfter(@Param("name") String name, @Param("id") long id, Pageable pageable);
+
+    //Um único UPDATE/DELETE por chamada, o retorno é o número de linhas afetadas
+    //coalesce: linhas criadas antes da coluna version existir
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = coalesce(a.version, 0) + 1 where a.id = :id")
+    int updateNameById(@Param("id") Long id, @Param("name") String name);
+
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.version = coalesce(a.version, 0) + 1 " +
+            "where a.id = :id and coalesce(a.version, 0) = :version")
+    int updateNameByIdAndVersion(@Param("id") Long id, @Param("name") String name, @Param("version") long version);
+
+    @Modifying
+    @Query("delete from Anime a where a.id = :id")
+    int removeById(@Param("id") long id);
+
+    @Modifying
+    @Query("delete from Anime a where a.id in :ids")
+    int removeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,23 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.domain.Anime;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface AnimeRepositoryCustom {
+
+    /**
+     * Cursor based read of the whole anime table. Every row is detached right after being
+     * read, so the persistence context does not grow with the table size.
+     * Must be consumed inside a transaction and closed after use.
+     */
+    Stream<Anime> streamAll();
+
+    /**
+     * Renames every anime in the map with one JDBC batch of {@code UPDATE ... WHERE id = ?}
+     * statements, bypassing the persistence context. Returns the affected row count of each
+     * statement in the map's iteration order. Must be called inside a transaction.
+     */
+    int[] updateNames(Map<Long, String> namesById);
+}
@@ -0,0 +1,51 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.domain.Anime;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class AnimeRepositoryImpl implements AnimeRepositoryCustom {
+
+    private static final String UPDATE_NAME_SQL = "update anime set name = ?, version = coalesce(version, 0) + 1 where id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${jalves.stream.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Anime> streamAll() {
+        return entityManager.createQuery("select a from Anime a order by a.id", Anime.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public int[] updateNames(Map<Long, String> namesById) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_NAME_SQL)) {
+                for (Map.Entry<Long, String> entry : namesById.entrySet()) {
+                    statement.setString(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    statement.addBatch();
+                }
+                //Conexão crua: o StatementInspector e o SqlExecutionListener não veem este batch
+                long start = System.nanoTime();
+                int[] updateCounts = statement.executeBatch();
+                SqlStatementStats.rawStatement(UPDATE_NAME_SQL, System.nanoTime() - start);
+                return updateCounts;
+            }
+        });
+    }
+}
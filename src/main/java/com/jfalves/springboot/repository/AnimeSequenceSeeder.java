@@ -0,0 +1,54 @@
+package com.jfalves.springboot.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Moves anime_seq past the ids the anime table already has. A database that ddl-auto update
+ * carried over from IDENTITY ids gets an anime_seq starting at 1, and the pooled generator would
+ * hand out ids already taken; with Flyway (profile prod) the V2 migration seeds it instead.
+ * <p>
+ * Runs on the context refresh, before the web server takes requests.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class AnimeSequenceSeeder {
+
+    private static final String SEQUENCE = "anime_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        seed();
+    }
+
+    public void seed() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from anime", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        //Mesma escolha do SequenceStyleGenerator: sequence quando o banco tem, senão a tabela anime_seq
+        if (dialect.supportsSequences()) {
+            //Lê o próximo valor, o que descarta um bloco de ids; só reinicia se ele cair em ids já usados
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(SEQUENCE), Long.class);
+            if (next != null && next <= maxId) {
+                jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + (maxId + 1));
+                log.info("Restarted {} at {}, it was behind the ids already in anime", SEQUENCE, maxId + 1);
+            }
+        } else if (jdbcTemplate.update("update " + SEQUENCE + " set next_val = ? where next_val <= ?", maxId + 1, maxId) > 0) {
+            log.info("Moved {} to {}, it was behind the ids already in anime", SEQUENCE, maxId + 1);
+        }
+    }
+}
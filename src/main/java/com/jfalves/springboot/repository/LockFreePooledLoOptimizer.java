@@ -0,0 +1,83 @@
+package com.jfalves.springboot.repository;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Same allocation scheme as Hibernate's "pooled-lo" optimizer: each database round trip on the
+ * sequence (or its table emulation on MySQL) reserves a block of incrementSize ids starting at
+ * the returned value. Ids inside a block are handed out with a single atomic increment instead of
+ * a synchronized method; only the thread that exhausts a block takes a lock to fetch the next one.
+ */
+public class LockFreePooledLoOptimizer implements Optimizer {
+
+    private final Class returnClass;
+    private final int incrementSize;
+    private volatile Block block;
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    public LockFreePooledLoOptimizer(Class returnClass, int incrementSize) {
+        if (returnClass == null) {
+            throw new IllegalArgumentException("Return class is required");
+        }
+        if (incrementSize < 1) {
+            throw new IllegalArgumentException("Increment size must be positive");
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long value = current.next.getAndIncrement();
+                if (value < current.limit) {
+                    return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass)
+                            .initialize(value)
+                            .makeValue();
+                }
+            }
+
+            synchronized (this) {
+                if (block == current) {
+                    IntegralDataTypeHolder sourceValue = callback.getNextValue();
+                    long low = ((Number) sourceValue.makeValue()).longValue();
+                    lastSourceValue = sourceValue;
+                    block = new Block(low, low + incrementSize);
+                }
+            }
+        }
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private static class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long low, long limit) {
+            this.next = new AtomicLong(low);
+            this.limit = limit;
+        }
+    }
+}
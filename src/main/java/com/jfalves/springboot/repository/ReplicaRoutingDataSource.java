@@ -0,0 +1,225 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.config.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * <p>
+ * The decision is taken when a connection is requested, so this has to sit behind a
+ * LazyConnectionDataSourceProxy: the JPA transaction manager asks for the connection before it
+ * marks the transaction read only, the proxy only fetches it on the first statement.
+ * <p>
+ * A user that committed a write reads from the primary for the read-your-writes window, hiding
+ * replication lag from them. A replica that fails to hand out a connection is skipped for the
+ * retry-after interval and its reads go to the next replica, or to the primary.
+ * <p>
+ * Reads whose result outlives the request (cache loads) run inside {@link #readFromPrimary}: an
+ * entry loaded from a lagging replica right after a write would be served stale until evicted.
+ */
+@Log4j2
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    //Acima disso as escritas expiradas são removidas do mapa
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaRoutingProperties.Selection selection;
+    private final long readYourWritesNanos;
+    private final long retryAfterNanos;
+    private final LongSupplier ticker;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ConcurrentHashMap<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    ReplicaRoutingProperties.Selection selection,
+                                    Duration readYourWritesWindow, Duration retryAfter) {
+        this(primary, replicas, selection, readYourWritesWindow, retryAfter, System::nanoTime);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                             ReplicaRoutingProperties.Selection selection,
+                             Duration readYourWritesWindow, Duration retryAfter, LongSupplier ticker) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.selection = selection;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.ticker = ticker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return primary.getConnection();
+        }
+        if (PRIMARY_READS.get() != null || recentlyWrote(currentUser())) {
+            return primary.getConnection();
+        }
+        return readConnection();
+    }
+
+    /**
+     * Runs the reads on the primary, read-only transactions included. Only connections fetched
+     * inside it are routed, so it has to wrap the transaction or run before its first statement.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        if (PRIMARY_READS.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    /**
+     * Explicit credentials are the primary's (each replica has its own), so these go to the primary.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Closes the primary and replica pools.
+     */
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable) {
+            ((AutoCloseable) primary).close();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    private Connection readConnection() throws SQLException {
+        long now = ticker.getAsLong();
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = select(now);
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.down = false;
+                return connection;
+            } catch (SQLException e) {
+                replica.downUntil = now + retryAfterNanos;
+                replica.down = true;
+                log.warn("Read replica {} unavailable, skipping it for {} ms: {}", replica.dataSource,
+                        retryAfterNanos / 1_000_000, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private Replica select(long now) {
+        if (selection == ReplicaRoutingProperties.Selection.LEAST_LOADED) {
+            Replica leastLoaded = null;
+            for (Replica replica : replicas) {
+                if (replica.isUp(now) && (leastLoaded == null || replica.load() < leastLoaded.load())) {
+                    leastLoaded = replica;
+                }
+            }
+            return leastLoaded;
+        }
+
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.isUp(now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void trackWrite() {
+        //Conexões fora de transação (DDL, contagem no startup...) não são escritas de usuário
+        if (readYourWritesNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String user = currentUser();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                written(user);
+            }
+        });
+    }
+
+    void written(String user) {
+        long now = ticker.getAsLong();
+        if (lastWriteByUser.size() > MAX_TRACKED_WRITERS) {
+            lastWriteByUser.values().removeIf(writtenAt -> now - writtenAt > readYourWritesNanos);
+        }
+        lastWriteByUser.put(user, now);
+    }
+
+    boolean recentlyWrote(String user) {
+        Long writtenAt = lastWriteByUser.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (ticker.getAsLong() - writtenAt > readYourWritesNanos) {
+            lastWriteByUser.remove(user, writtenAt);
+            return false;
+        }
+        return true;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        //Sem usuário (startup, jobs) todos compartilham a mesma janela
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    private static class Replica {
+        private final DataSource dataSource;
+        private volatile long downUntil;
+        private volatile boolean down;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isUp(long now) {
+            return !down || now - downUntil >= 0;
+        }
+
+        private int load() {
+            if (dataSource instanceof HikariDataSource) {
+                HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+            return 0;
+        }
+    }
+}
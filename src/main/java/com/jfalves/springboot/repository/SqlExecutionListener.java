@@ -0,0 +1,56 @@
+package com.jfalves.springboot.repository;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing statements and batches, and the time the session held a JDBC
+ * connection, to the current request's {@link SqlStatementStats}. Hibernate creates one per
+ * session, from hibernate.session.events.auto.
+ */
+public class SqlExecutionListener extends BaseSessionEventListener {
+
+    private long executionStart;
+    private long connectionAcquired;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        recordExecution();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        recordExecution();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        connectionAcquired = System.nanoTime();
+    }
+
+    //Sem open-in-view a sessão devolve a conexão no fim da transação
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats != null && connectionAcquired != 0) {
+            stats.connectionHeld(System.nanoTime() - connectionAcquired);
+        }
+        connectionAcquired = 0;
+    }
+
+    private void recordExecution() {
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats != null) {
+            stats.execution(System.nanoTime() - executionStart);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.jfalves.springboot.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the rows the current request reads from JDBC result sets, whatever they are mapped to:
+ * entities, projections, scalars and counts alike. Generated keys are not counted.
+ * <p>
+ * Connections and statements are proxied so their result sets can be; a result set opened
+ * outside a request is handed out as is.
+ */
+public class SqlRowCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public SqlRowCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Closes the pool behind it, the bean's destroy method.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable) {
+            ((AutoCloseable) getTargetDataSource()).close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, SqlStatementStats stats) {
+        return (T) Proxy.newProxyInstance(SqlRowCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                new RowCounting(target, stats));
+    }
+
+    private static class RowCounting implements InvocationHandler {
+        private final Object target;
+        //Só nos result sets
+        private final SqlStatementStats stats;
+
+        private RowCounting(Object target, SqlStatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            //Identidade do proxy: o Hibernate guarda statements e result sets em mapas
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            if (stats != null) {
+                if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                    stats.row();
+                }
+                return result;
+            }
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, (CallableStatement) result, null);
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, (PreparedStatement) result, null);
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, (Statement) result, null);
+            }
+            if (result instanceof ResultSet && !method.getName().equals("getGeneratedKeys")) {
+                SqlStatementStats current = SqlStatementStats.current();
+                return current != null ? proxy(ResultSet.class, (ResultSet) result, current) : result;
+            }
+            return result;
+        }
+    }
+}
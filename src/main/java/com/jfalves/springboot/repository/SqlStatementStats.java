@@ -0,0 +1,119 @@
+package com.jfalves.springboot.repository;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL issued by the current thread between {@link #start()} and {@link #stop()}, filled by the
+ * Hibernate hooks ({@link SqlStatementInspector}, {@link SqlExecutionListener}) and, for rows, by
+ * {@link SqlRowCountingDataSource}. Statements run on a raw connection through
+ * {@code Session.doWork} bypass Hibernate: whoever runs them counts them with
+ * {@link #rawStatement(String, long)}.
+ */
+public class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+    //Só para o log de quem estourou o orçamento
+    private static final int MAX_KEPT_STATEMENTS = 50;
+
+    @Getter
+    private int statements;
+    @Getter
+    private long rows;
+    private long executionNanos;
+    @Getter
+    private long connectionHoldNanos;
+    private final List<String> sql = new ArrayList<>();
+
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Binds stats started by an earlier dispatch of the same request (async requests).
+     */
+    public static SqlStatementStats resume(SqlStatementStats stats) {
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Makes the SQL of a task count towards the request that submits it, for handlers offloaded to
+     * another thread. Meant as a TaskDecorator: the request thread must not issue SQL while the
+     * task runs, as the counters are not thread safe.
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Counts a statement the Hibernate hooks did not see towards the current request, if any. A
+     * JDBC batch is one statement, as Hibernate's own batches are.
+     */
+    static void rawStatement(String statementSql, long executionNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statement(statementSql);
+            stats.execution(executionNanos);
+        }
+    }
+
+    void statement(String statementSql) {
+        statements++;
+        if (sql.size() < MAX_KEPT_STATEMENTS) {
+            sql.add(statementSql);
+        }
+    }
+
+    void execution(long nanos) {
+        executionNanos += nanos;
+    }
+
+    void connectionHeld(long nanos) {
+        connectionHoldNanos += nanos;
+    }
+
+    void row() {
+        rows++;
+    }
+
+    public double getExecutionMillis() {
+        return executionNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getConnectionHoldMillis() {
+        return connectionHoldNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the first statements issued, in order
+     */
+    public List<String> getSql() {
+        return Collections.unmodifiableList(sql);
+    }
+}
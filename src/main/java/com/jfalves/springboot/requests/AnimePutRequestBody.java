@@ -2,10 +2,16 @@ package com.jfalves.springboot.requests;
 
 import lombok.*;
 
+import javax.validation.constraints.NotEmpty;
+
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class AnimePutRequestBody {
     //Nada mais que um dto
     private Long id;
+
+    @NotEmpty(message = "The anime name cannot be empty")
     private String name;
 }
@@ -0,0 +1,291 @@
+package com.jfalves.springboot.search;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.AnimeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process full text index over Anime.name: an inverted index from token to anime ids plus a
+ * {@link TokenTrie} for prefix and typo tolerant lookups. Queries never touch the database.
+ * <p>
+ * Target latency, 1M names on one core: suggest p99 under 1ms, search p99 under 5ms
+ * (AnimeSearchIndexBenchmark, under src/jmh).
+ * <p>
+ * Kept up to date by AnimeService writes and rebuilt from the database on startup. Writes made
+ * while a rebuild streams the table are replayed on the new entries before they replace the old.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class AnimeSearchIndex {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_CANDIDATES = 10_000;
+
+    private final AnimeRepository repository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Entries entries = new Entries();
+    //Escritas durante um rebuild (nome null é remoção), reaplicadas antes da troca; null fora de um rebuild
+    private Map<Long, String> writesDuringRebuild;
+
+    @Value("${jalves.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Entries fresh = new Entries();
+        boolean streamed = false;
+        try (Stream<Anime> animes = repository.streamAll()) {
+            animes.forEach(anime -> fresh.add(anime.getId(), anime.getName()));
+            streamed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (streamed) {
+                    writesDuringRebuild.forEach((id, name) -> {
+                        fresh.remove(id);
+                        fresh.add(id, name);
+                    });
+                    this.entries = fresh;
+                }
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Anime search index rebuilt with {} names in {} ms", fresh.names.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            entries.remove(id);
+            entries.add(id, name);
+            recordWrite(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            entries.remove(id);
+            recordWrite(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Chamado com o write lock
+    private void recordWrite(long id, String name) {
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(id, name);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search: each query token scores 3 for an exact token match, 2 for a prefix match and
+     * 1 for a match within one or two typos. Ties go to the shorter name.
+     */
+    public List<Anime> search(String query, int limit) {
+        List<String> queryTokens = AnimeNameTokenizer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Entries current = entries;
+            Map<Long, Integer> scores = new HashMap<>();
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> tokenScores = new HashMap<>();
+                int maxTypos = maxTypos(queryToken);
+                if (maxTypos > 0) {
+                    current.trie.withinDistance(queryToken, maxTypos)
+                            .keySet()
+                            .forEach(token -> current.score(tokenScores, token, FUZZY_SCORE));
+                }
+                current.trie.withPrefix(queryToken, MAX_PREFIX_EXPANSIONS)
+                        .forEach(token -> current.score(tokenScores, token, PREFIX_SCORE));
+                current.score(tokenScores, queryToken, EXACT_SCORE);
+
+                tokenScores.forEach((id, score) -> scores.merge(id, score, Integer::sum));
+            }
+            return current.top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Autocomplete: names containing every typed word, the last one as a prefix.
+     * Names that start with the typed text come first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> prefixTokens = AnimeNameTokenizer.tokenize(prefix);
+        if (prefixTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalizedPrefix = AnimeNameTokenizer.normalize(prefix);
+        String lastToken = prefixTokens.get(prefixTokens.size() - 1);
+        List<String> completeTokens = prefixTokens.subList(0, prefixTokens.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            Entries current = entries;
+            Map<Long, Integer> scores = new HashMap<>();
+            for (String token : current.trie.withPrefix(lastToken, MAX_PREFIX_EXPANSIONS)) {
+                for (Long id : current.postings.getOrDefault(token, Collections.emptySet())) {
+                    if (scores.size() >= MAX_CANDIDATES) {
+                        break;
+                    }
+                    if (current.containsAll(id, completeTokens)) {
+                        String normalizedName = AnimeNameTokenizer.normalize(current.names.get(id));
+                        scores.put(id, normalizedName.startsWith(normalizedPrefix) ? PREFIX_SCORE : FUZZY_SCORE);
+                    }
+                }
+            }
+
+            List<String> suggestions = new ArrayList<>();
+            for (Anime anime : current.top(scores, limit)) {
+                suggestions.add(anime.getName());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int maxTypos(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Everything the index holds, swapped as a whole when the index is rebuilt.
+     */
+    private static class Entries {
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final TokenTrie trie = new TokenTrie();
+
+        void add(long id, String name) {
+            if (name == null) {
+                return;
+            }
+            names.put(id, name);
+            for (String token : AnimeNameTokenizer.tokenize(name)) {
+                postings.computeIfAbsent(token, t -> {
+                    trie.add(t);
+                    return new HashSet<>();
+                }).add(id);
+            }
+        }
+
+        void remove(long id) {
+            String name = names.remove(id);
+            if (name == null) {
+                return;
+            }
+            for (String token : AnimeNameTokenizer.tokenize(name)) {
+                Set<Long> ids = postings.get(token);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(token);
+                    trie.remove(token);
+                }
+            }
+        }
+
+        boolean containsAll(Long id, List<String> tokens) {
+            for (String token : tokens) {
+                if (!postings.getOrDefault(token, Collections.emptySet()).contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void score(Map<Long, Integer> tokenScores, String token, int score) {
+            for (Long id : postings.getOrDefault(token, Collections.emptySet())) {
+                tokenScores.merge(id, score, Math::max);
+            }
+        }
+
+        List<Anime> top(Map<Long, Integer> scores, int limit) {
+            int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+            Comparator<Map.Entry<Long, Integer>> ranking = Comparator.<Map.Entry<Long, Integer>>comparingInt(Map.Entry::getValue)
+                    .thenComparing(entry -> names.get(entry.getKey()).length(), Comparator.reverseOrder())
+                    .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+
+            PriorityQueue<Map.Entry<Long, Integer>> best = new PriorityQueue<>(size + 1, ranking);
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                best.offer(entry);
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+
+            List<Anime> animes = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Long id = best.poll().getKey();
+                animes.add(Anime.builder().id(id).name(names.get(id)).build());
+            }
+            Collections.reverse(animes);
+            return animes;
+        }
+    }
+}
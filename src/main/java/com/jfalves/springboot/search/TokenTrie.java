@@ -0,0 +1,109 @@
+package com.jfalves.springboot.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix tree over the indexed tokens. Answers prefix expansion for autocomplete and bounded
+ * Levenshtein lookups for typo tolerance, pruning whole branches once the edit distance of a
+ * prefix already exceeds the limit. Not thread safe, AnimeSearchIndex guards it.
+ */
+class TokenTrie {
+
+    private final Node root = new Node();
+
+    void add(String token) {
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.children.computeIfAbsent(token.charAt(i), c -> new Node());
+        }
+        node.token = token;
+    }
+
+    void remove(String token) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            path.push(node);
+            node = node.children.get(token.charAt(i));
+            if (node == null) {
+                return;
+            }
+        }
+        node.token = null;
+
+        for (int i = token.length() - 1; i >= 0 && node.token == null && node.children.isEmpty(); i--) {
+            Node parent = path.pop();
+            parent.children.remove(token.charAt(i));
+            node = parent;
+        }
+    }
+
+    List<String> withPrefix(String prefix, int limit) {
+        List<String> tokens = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return tokens;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty() && tokens.size() < limit) {
+            Node current = pending.pop();
+            if (current.token != null) {
+                tokens.add(current.token);
+            }
+            current.children.values().forEach(pending::push);
+        }
+        return tokens;
+    }
+
+    /**
+     * @return tokens within maxDistance edits of the word, mapped to their distance
+     */
+    Map<String, Integer> withinDistance(String word, int maxDistance) {
+        Map<String, Integer> matches = new HashMap<>();
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        root.children.forEach((character, child) -> collect(child, character, word, firstRow, maxDistance, matches));
+        return matches;
+    }
+
+    private void collect(Node node, char character, String word, int[] previousRow, int maxDistance,
+                         Map<String, Integer> matches) {
+        int columns = word.length() + 1;
+        int[] currentRow = new int[columns];
+        currentRow[0] = previousRow[0] + 1;
+        int rowMinimum = currentRow[0];
+
+        for (int column = 1; column < columns; column++) {
+            int insertCost = currentRow[column - 1] + 1;
+            int deleteCost = previousRow[column] + 1;
+            int replaceCost = previousRow[column - 1] + (word.charAt(column - 1) == character ? 0 : 1);
+            currentRow[column] = Math.min(Math.min(insertCost, deleteCost), replaceCost);
+            rowMinimum = Math.min(rowMinimum, currentRow[column]);
+        }
+
+        if (node.token != null && currentRow[columns - 1] <= maxDistance) {
+            matches.put(node.token, currentRow[columns - 1]);
+        }
+
+        if (rowMinimum <= maxDistance) {
+            node.children.forEach((next, child) -> collect(child, next, word, currentRow, maxDistance, matches));
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String token;
+    }
+}
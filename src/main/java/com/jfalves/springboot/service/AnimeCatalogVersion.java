@@ -0,0 +1,42 @@
+package com.jfalves.springboot.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counter, bumped by every anime write. List endpoints use it as their ETag,
+ * so a poll of an unchanged catalog is answered with 304 before any query runs.
+ * <p>
+ * The counter only sees writes made through this process.
+ */
+@Component
+public class AnimeCatalogVersion {
+
+    //Parte aleatória: depois de um restart o contador recomeça sem repetir ETags antigas
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    public String etag() {
+        return "\"" + epoch + "-" + counter.get() + "\"";
+    }
+
+    /**
+     * Bumps the counter now and, inside a transaction, again once it completes, so an ETag read
+     * while the write was still uncommitted is not reused for the committed data.
+     */
+    public void increment() {
+        counter.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+    }
+}
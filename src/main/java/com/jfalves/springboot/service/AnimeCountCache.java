@@ -0,0 +1,48 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.repository.AnimeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory total of animes, so listings can skip the SELECT COUNT(*).
+ * Seeded once from the database and adjusted by AnimeService writes; writes made outside this
+ * instance are not seen, which is why the value is only an approximation.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnimeCountCache {
+
+    private static final long NOT_SEEDED = -1;
+
+    private final AnimeRepository repository;
+    private final AtomicLong total = new AtomicLong(NOT_SEEDED);
+
+    public long get() {
+        long current = total.get();
+        if (current != NOT_SEEDED) {
+            return current;
+        }
+        total.compareAndSet(NOT_SEEDED, repository.count());
+        return total.get();
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void decrement() {
+        add(-1);
+    }
+
+    public void add(long delta) {
+        //Enquanto não foi carregado a contagem do banco já inclui a alteração
+        total.updateAndGet(current -> current == NOT_SEEDED ? NOT_SEEDED : Math.max(0, current + delta));
+    }
+
+    public void reset() {
+        total.set(NOT_SEEDED);
+    }
+}
@@ -0,0 +1,231 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.AnimeCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.ReplicaRoutingDataSource;
+import com.jfalves.springboot.wrapper.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of animes by id in front of the repository.
+ * <p>
+ * Lookups read a {@link ConcurrentHashMap} without locking. The eviction order lives in
+ * independent stripes, each guarded by its own lock; a hit only records itself in its stripe
+ * when that lock is free, so readers never wait on each other and losing a few access records
+ * under contention only makes the eviction order slightly less precise.
+ * <p>
+ * Cached animes are shared between requests and must be treated as read only. Misses load from
+ * the primary even with read replicas, since the TTL is off by default and an anime loaded from a
+ * lagging replica after an update would stay stale until evicted.
+ */
+@Component
+public class AnimeEntityCache {
+
+    private final boolean enabled;
+    private final AnimeCacheProperties.Policy policy;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final ConcurrentHashMap<Long, Entry> entries;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    @Autowired
+    public AnimeEntityCache(AnimeCacheProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AnimeEntityCache(AnimeCacheProperties properties, LongSupplier ticker) {
+        this.enabled = properties.isEnabled() && properties.getMaximumSize() > 0;
+        this.policy = properties.getPolicy();
+        this.maximumSize = properties.getMaximumSize();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.ticker = ticker;
+
+        int requestedStripes = properties.getStripes() > 0
+                ? properties.getStripes()
+                : Runtime.getRuntime().availableProcessors() * 4;
+        //Potência de 2 para escolher a stripe com uma máscara, nunca mais stripes do que entradas
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(requestedStripes, maximumSize)));
+        int stripeCapacity = Math.max(1, (maximumSize + stripeCount - 1) / stripeCount);
+
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(policy == AnimeCacheProperties.Policy.LRU
+                    ? new LruEvictionPolicy<>(stripeCapacity)
+                    : new TinyLfuEvictionPolicy<>(stripeCapacity));
+        }
+    }
+
+    /**
+     * @return the cached anime, or the result of the loader, which is cached when present
+     */
+    public Optional<Anime> get(long id, LongFunction<Optional<Anime>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+
+        Stripe stripe = stripeFor(id);
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            if (!entry.isExpired(ticker.getAsLong())) {
+                hits.increment();
+                stripe.recordAccess(id);
+                return Optional.of(entry.anime);
+            }
+            stripe.expire(id, entry);
+        }
+
+        misses.increment();
+        long epoch = stripe.epoch;
+        long start = ticker.getAsLong();
+        Optional<Anime> loaded = ReplicaRoutingDataSource.readFromPrimary(() -> loader.apply(id));
+        loadNanos.add(ticker.getAsLong() - start);
+        loads.increment();
+        loaded.ifPresent(anime -> stripe.add(id, anime, epoch));
+        return loaded;
+    }
+
+    /**
+     * Drops the id now and, inside a transaction, again once it completes, so a reader that
+     * loaded the row before the commit cannot leave the old value behind.
+     */
+    public void invalidate(long id) {
+        if (!enabled) {
+            return;
+        }
+        stripeFor(id).invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    stripeFor(id).invalidate(id);
+                }
+            });
+        }
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        long requests = hitCount + missCount;
+        return CacheStats.builder()
+                .enabled(enabled)
+                .policy(policy.name())
+                .size(size())
+                .maximumSize(maximumSize)
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .hitRatio(requests == 0 ? 0 : (double) hitCount / requests)
+                .evictionCount(evictions.sum())
+                .loadCount(loadCount)
+                .averageLoadMillis(loadCount == 0 ? 0 : (double) loadNanos.sum() / loadCount / TimeUnit.MILLISECONDS.toNanos(1))
+                .build();
+    }
+
+    private Stripe stripeFor(long id) {
+        int hash = Long.hashCode(id) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private long expiresAt() {
+        return ttlNanos > 0 ? ticker.getAsLong() + ttlNanos : Long.MAX_VALUE;
+    }
+
+    private class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final EvictionPolicy<Long> policy;
+        //Incrementado a cada invalidação, descarta loads que começaram antes dela
+        private volatile long epoch;
+
+        private Stripe(EvictionPolicy<Long> policy) {
+            this.policy = policy;
+        }
+
+        private void recordAccess(long id) {
+            if (lock.tryLock()) {
+                try {
+                    policy.recordAccess(id);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void add(long id, Anime anime, long loadEpoch) {
+            lock.lock();
+            try {
+                if (epoch != loadEpoch || entries.put(id, new Entry(anime, expiresAt())) != null) {
+                    return;
+                }
+                Long victim = policy.add(id);
+                if (victim != null) {
+                    entries.remove(victim);
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expire(long id, Entry entry) {
+            lock.lock();
+            try {
+                if (entries.remove(id, entry)) {
+                    policy.remove(id);
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void invalidate(long id) {
+            lock.lock();
+            try {
+                epoch++;
+                if (entries.remove(id) != null) {
+                    policy.remove(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Anime anime;
+        private final long expiresAt;
+
+        private Entry(Anime anime, long expiresAt) {
+            this.anime = anime;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
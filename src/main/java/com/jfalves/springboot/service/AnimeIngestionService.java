@@ -0,0 +1,320 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.IngestionProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.wrapper.IngestionStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind for anime creates and updates during bulk syncs. Requests only enqueue and get a
+ * tracking id back; a single writer thread drains the queue into {@link AnimeService#ingest}
+ * transactions of up to batchSize writes, waiting up to flushInterval for a batch to fill. Updates
+ * to the same id inside one batch are coalesced into the last one. A batch that fails, in the
+ * transaction or after it, marks its unfinished writes FAILED and the writer moves on.
+ * <p>
+ * The queue is a ConcurrentLinkedQueue bounded by a CAS on its size, so producers never block
+ * each other or the writer; once it is full the request is rejected (503) instead of queueing
+ * unbounded work. On shutdown the web server stops first (higher lifecycle phase) and then
+ * everything still queued is written before the DataSource closes.
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class AnimeIngestionService implements SmartLifecycle {
+
+    public static final String RESPOND_ASYNC = "respond-async";
+    //Sem stack trace: sob sobrecarga rejeitar tem que ser barato
+    private static final RejectedExecutionException QUEUE_FULL = new RejectedExecutionException("Ingestion queue is full") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+    private static final RejectedExecutionException NOT_RUNNING = new RejectedExecutionException("Ingestion is not running") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+    private static final BadRequestException INGESTION_NOT_FOUND = BadRequestException.preallocated("Ingestion not found");
+
+    private final AnimeService service;
+    private final IngestionProperties properties;
+
+    private final Queue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong trackingIds = new AtomicLong();
+    private final Map<Long, IngestionStatus> statuses = new ConcurrentHashMap<>();
+    //Só o writer mexe, em ordem de término
+    private final Deque<Finished> finished = new ArrayDeque<>();
+    private volatile boolean accepting;
+    private volatile Thread writer;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public IngestionStatus enqueue(AnimePostRequestBody animePostRequestBody) {
+        return enqueue(IngestionStatus.Operation.CREATE, null, animePostRequestBody, null);
+    }
+
+    public IngestionStatus enqueue(AnimePutRequestBody animePutRequestBody) {
+        if (animePutRequestBody.getId() == null) {
+            throw BadRequestException.ANIME_NOT_FOUND;
+        }
+        return enqueue(IngestionStatus.Operation.UPDATE, animePutRequestBody.getId(), null, animePutRequestBody.getName());
+    }
+
+    public IngestionStatus status(long trackingId) {
+        IngestionStatus status = statuses.get(trackingId);
+        if (status == null) {
+            throw INGESTION_NOT_FOUND;
+        }
+        return status;
+    }
+
+    /**
+     * Writes still waiting for the writer.
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    private IngestionStatus enqueue(IngestionStatus.Operation operation, Long animeId,
+                                    AnimePostRequestBody animePostRequestBody, String name) {
+        if (!accepting) {
+            throw NOT_RUNNING;
+        }
+        int size;
+        do {
+            size = queued.get();
+            if (size >= properties.getQueueCapacity()) {
+                throw QUEUE_FULL;
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+
+        IngestionStatus status = IngestionStatus.builder()
+                .trackingId(trackingIds.incrementAndGet())
+                .operation(operation)
+                .state(IngestionStatus.State.QUEUED)
+                .animeId(animeId)
+                .build();
+        statuses.put(status.getTrackingId(), status);
+        Write write = new Write(status, animePostRequestBody, name);
+        queue.offer(write);
+        //Um stop() entre a checagem acima e o offer pode ter deixado o writer sair sem esta escrita;
+        //se ela ainda está na fila, é rejeitada em vez de ficar QUEUED para sempre
+        if (!accepting && queue.remove(write)) {
+            queued.decrementAndGet();
+            statuses.remove(status.getTrackingId());
+            throw NOT_RUNNING;
+        }
+        //O writer só é acordado quando a fila deixa de estar vazia ou completa um batch
+        if (size == 0 || size + 1 == properties.getBatchSize()) {
+            LockSupport.unpark(writer);
+        }
+        return status;
+    }
+
+    private void run() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<Write> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                evictExpiredStatuses();
+                continue;
+            }
+
+            //Janela de coalescência: espera o batch encher ou o flushInterval passar
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            long remaining;
+            while (accepting && queued.get() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            Write write;
+            while (batch.size() < batchSize && (write = queue.poll()) != null) {
+                batch.add(write);
+            }
+            queued.addAndGet(-batch.size());
+            //O writer é um só: se ele morre, toda escrita depois fica QUEUED para sempre
+            try {
+                flush(batch);
+                evictExpiredStatuses();
+            } catch (Throwable e) {
+                log.error("Ingestion batch of {} writes failed after the transaction", batch.size(), e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Write> batch) {
+        List<Write> creates = new ArrayList<>();
+        List<AnimePostRequestBody> animePostRequestBodies = new ArrayList<>();
+        Map<Long, Write> updatesById = new LinkedHashMap<>();
+        Map<Long, List<Write>> coalescedById = new LinkedHashMap<>();
+        for (Write write : batch) {
+            if (write.status.getOperation() == IngestionStatus.Operation.CREATE) {
+                creates.add(write);
+                animePostRequestBodies.add(write.animePostRequestBody);
+                continue;
+            }
+            Long animeId = write.status.getAnimeId();
+            Write previous = updatesById.remove(animeId);
+            //remove + put: a posição no batch é a do último update do id
+            updatesById.put(animeId, write);
+            if (previous != null) {
+                coalescedById.computeIfAbsent(animeId, id -> new ArrayList<>()).add(previous);
+            }
+        }
+        Map<Long, String> namesById = new LinkedHashMap<>();
+        updatesById.forEach((id, write) -> namesById.put(id, write.name));
+
+        AnimeService.IngestedBatch ingested;
+        try {
+            ingested = service.ingest(animePostRequestBodies, namesById);
+        } catch (RuntimeException e) {
+            log.error("Ingestion batch of {} writes failed", batch.size(), e);
+            fail(batch, e);
+            return;
+        }
+
+        List<Anime> savedAnimes = ingested.getSavedAnimes();
+        for (int i = 0; i < creates.size(); i++) {
+            finish(creates.get(i).status.toBuilder()
+                    .state(IngestionStatus.State.COMPLETED)
+                    .animeId(savedAnimes.get(i).getId()));
+        }
+        int i = 0;
+        for (Write write : updatesById.values()) {
+            boolean updated = ingested.getUpdateCounts()[i++] != 0;
+            IngestionStatus.State state = updated ? IngestionStatus.State.COMPLETED : IngestionStatus.State.FAILED;
+            String error = updated ? null : BadRequestException.ANIME_NOT_FOUND.getMessage();
+            finish(write.status.toBuilder().state(state).error(error));
+            for (Write coalesced : coalescedById.getOrDefault(write.status.getAnimeId(), List.of())) {
+                finish(coalesced.status.toBuilder().state(state).error(error).coalesced(true));
+            }
+        }
+        log.debug("Ingested {} creates and {} updates from {} writes", creates.size(), updatesById.size(), batch.size());
+    }
+
+    //Só as escritas que ainda não terminaram: as outras já têm o resultado certo
+    private void fail(List<Write> batch, Throwable e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        for (Write write : batch) {
+            IngestionStatus status = statuses.get(write.status.getTrackingId());
+            if (status != null && status.getState() == IngestionStatus.State.QUEUED) {
+                finish(write.status.toBuilder().state(IngestionStatus.State.FAILED).error(error));
+            }
+        }
+    }
+
+    private void finish(IngestionStatus.IngestionStatusBuilder status) {
+        IngestionStatus finishedStatus = status.build();
+        statuses.put(finishedStatus.getTrackingId(), finishedStatus);
+        finished.addLast(new Finished(finishedStatus.getTrackingId(), System.nanoTime()));
+    }
+
+    private void evictExpiredStatuses() {
+        long expiredBefore = System.nanoTime() - properties.getStatusRetention().toNanos();
+        while (!finished.isEmpty() && finished.peekFirst().finishedAt - expiredBefore < 0) {
+            statuses.remove(finished.pollFirst().trackingId);
+        }
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        accepting = true;
+        writer = new Thread(this::run, "anime-ingestion");
+        writer.start();
+    }
+
+    //Para de aceitar e só volta depois de gravar o que está na fila (ou do drainTimeout)
+    @Override
+    public synchronized void stop() {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        accepting = false;
+        LockSupport.unpark(current);
+        try {
+            current.join(properties.getDrainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            log.warn("Ingestion did not drain in {}, {} writes left", properties.getDrainTimeout(), queued.get());
+        } else {
+            log.info("Ingestion drained, {} writes left", queued.get());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    //Depois do web server (Integer.MAX_VALUE), antes do DataSource fechar
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    private static class Write {
+        private final IngestionStatus status;
+        //Só no CREATE
+        private final AnimePostRequestBody animePostRequestBody;
+        //Só no UPDATE
+        private final String name;
+
+        private Write(IngestionStatus status, AnimePostRequestBody animePostRequestBody, String name) {
+            this.status = status;
+            this.animePostRequestBody = animePostRequestBody;
+            this.name = name;
+        }
+    }
+
+    private static class Finished {
+        private final long trackingId;
+        private final long finishedAt;
+
+        private Finished(long trackingId, long finishedAt) {
+            this.trackingId = trackingId;
+            this.finishedAt = finishedAt;
+        }
+    }
+}
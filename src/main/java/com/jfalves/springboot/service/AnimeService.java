@@ -2,57 +2,238 @@ package com.jfalves.springboot.service;
 
 import com.jfalves.springboot.domain.Anime;
 import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.exception.PreconditionFailedException;
 import com.jfalves.springboot.mapper.AnimeMapper;
 import com.jfalves.springboot.repository.AnimeRepository;
 import com.jfalves.springboot.requests.AnimePostRequestBody;
 import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.search.AnimeSearchIndex;
+import com.jfalves.springboot.util.AnimeCursor;
+import com.jfalves.springboot.wrapper.CacheStats;
+import com.jfalves.springboot.wrapper.CursorResponse;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.transaction.Transactional;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AnimeService {
 
+    public static final int MAX_CURSOR_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    private static final BadRequestException BATCH_TOO_LARGE =
+            BadRequestException.preallocated("Batch cannot have more than " + MAX_BATCH_SIZE + " animes");
+    private static final Sort CURSOR_SORT = Sort.by("name", "id");
+
     private final AnimeRepository repository;
+    private final AnimeCountCache countCache;
+    private final AnimeSearchIndex searchIndex;
+    private final AnimeEntityCache entityCache;
+    private final AnimeCatalogVersion catalogVersion;
 
+    /**
+     * The list and find by name methods read through the projections of {@link AnimeRepository}:
+     * the animes they return are plain objects, never managed, and the read-only transaction
+     * leaves flushing off.
+     */
+    @Transactional(readOnly = true)
     public Page<Anime> listAll(Pageable pageable) {
-        return repository.findAll(pageable);
+        return repository.findAllReadOnly(pageable);
+    }
+
+    /**
+     * Same page as {@link #listAll(Pageable)} without the count query: the total comes from
+     * {@link AnimeCountCache}, except on a last page with animes where it is known exactly
+     * (see {@link #isTotalExact(Page)}).
+     */
+    @Transactional(readOnly = true)
+    public Page<Anime> listAllWithCachedTotal(Pageable pageable) {
+        Slice<Anime> slice = repository.findSliceReadOnly(pageable);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(countCache.get(), seen + 1);
+        } else if (slice.hasContent() || pageable.getOffset() == 0) {
+            total = seen;
+        } else {
+            //Página vazia depois do fim: o offset não diz quantos animes existem
+            total = countCache.get();
+        }
+        return new PageImpl<>(slice.getContent(), pageable, total);
     }
 
+    /**
+     * @return whether the total of a page from {@link #listAllWithCachedTotal(Pageable)} is exact:
+     * only on the last page, and never on an empty page past the end
+     */
+    public static boolean isTotalExact(Page<?> page) {
+        return page.isLast() && (page.hasContent() || page.getPageable().getOffset() == 0);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorResponse<Anime> listAllByCursor(String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)), CURSOR_SORT);
+        Slice<Anime> slice;
+        if (cursor == null || cursor.isEmpty()) {
+            slice = repository.findAllBy(pageable);
+        } else {
+            AnimeCursor animeCursor = AnimeCursor.decode(cursor);
+            slice = repository.findAllAfter(animeCursor.getName(), animeCursor.getId(), pageable);
+        }
+
+        List<Anime> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? AnimeCursor.of(content.get(content.size() - 1)).encode() : null;
+
+        return CursorResponse.<Anime>builder()
+                .content(content)
+                .size(pageable.getPageSize())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
     public List<Anime> listAllNoPageable() {
-        return repository.findAll();
+        return repository.findAllReadOnly();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Anime> consumer) {
+        try (Stream<Anime> animes = repository.streamAll()) {
+            animes.forEach(consumer);
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<Anime> findByName(String name) {
-        return repository.findByName(name);
+        return repository.findByNameReadOnly(name);
     }
 
+    public List<Anime> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit);
+    }
+
+    @Transactional(readOnly = true)
     public Anime findByIdOrThrowBadRequestException(long id) {
-        return repository.findById(id).orElseThrow(() -> new BadRequestException("Anime not found"));
+        return entityCache.get(id, repository::findById).orElseThrow(() -> BadRequestException.ANIME_NOT_FOUND);
+    }
+
+    public String catalogETag() {
+        return catalogVersion.etag();
+    }
+
+    public CacheStats entityCacheStats() {
+        return entityCache.stats();
     }
 
     @Transactional
     public Anime save(AnimePostRequestBody animePostRequestBody) {
-        return repository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        Anime savedAnime = repository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        countCache.increment();
+        searchIndex.put(savedAnime.getId(), savedAnime.getName());
+        catalogVersion.increment();
+        return savedAnime;
         //return repository.save(Anime.builder().name(animePostRequestBody.getName()).build());
     }
 
+    /**
+     * Inserts all animes in one transaction; with pooled ids Hibernate sends them as JDBC batches
+     * (hibernate.jdbc.batch_size) instead of one round trip per row.
+     */
+    @Transactional
+    public List<Anime> saveAll(List<AnimePostRequestBody> animePostRequestBodies) {
+        checkBatchSize(animePostRequestBodies.size());
+
+        List<Anime> savedAnimes = repository.saveAll(animePostRequestBodies.stream()
+                .map(AnimeMapper.INSTANCE::toAnime)
+                .collect(Collectors.toList()));
+        countCache.add(savedAnimes.size());
+        savedAnimes.forEach(anime -> searchIndex.put(anime.getId(), anime.getName()));
+        catalogVersion.increment();
+        return savedAnimes;
+    }
+
+    @Transactional
     public void delete(long id) {
-        repository.delete(findByIdOrThrowBadRequestException(id));
+        if (repository.removeById(id) == 0) {
+            throw BadRequestException.ANIME_NOT_FOUND;
+        }
+        countCache.decrement();
+        searchIndex.remove(id);
+        entityCache.invalidate(id);
+        catalogVersion.increment();
     }
 
+    /**
+     * Deletes every id with a single {@code DELETE ... WHERE id IN (...)}. If any id does not
+     * exist nothing is deleted and the same "Anime not found" error as {@link #delete(long)} is thrown.
+     */
+    @Transactional
+    public void deleteAll(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        checkBatchSize(distinctIds.size());
+        if (distinctIds.isEmpty()) {
+            return;
+        }
+
+        if (repository.removeAllByIdIn(distinctIds) != distinctIds.size()) {
+            throw BadRequestException.ANIME_NOT_FOUND;
+        }
+        countCache.add(-distinctIds.size());
+        distinctIds.forEach(searchIndex::remove);
+        distinctIds.forEach(entityCache::invalidate);
+        catalogVersion.increment();
+    }
+
+    //A chamada interna não passa pelo proxy, a transação tem que vir deste método
+    @Transactional
     public void replace(AnimePutRequestBody animePutRequestBody) {
-        Anime savedAnime = findByIdOrThrowBadRequestException(animePutRequestBody.getId());
-        Anime anime = AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
-        anime.setId(savedAnime.getId());
-        repository.save(anime);
+        replace(animePutRequestBody, null);
+    }
+
+    /**
+     * @param expectedVersion version the client last saw (from If-Match), or null to replace
+     *                        whatever is stored
+     */
+    @Transactional
+    public void replace(AnimePutRequestBody animePutRequestBody, Long expectedVersion) {
+        Long id = animePutRequestBody.getId();
+        String name = animePutRequestBody.getName();
+        int updated = expectedVersion == null
+                ? repository.updateNameById(id, name)
+                : repository.updateNameByIdAndVersion(id, name, expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && id != null && repository.existsById(id)) {
+                throw PreconditionFailedException.ANIME_MODIFIED;
+            }
+            throw BadRequestException.ANIME_NOT_FOUND;
+        }
+        searchIndex.put(id, name);
+        entityCache.invalidate(id);
+        catalogVersion.increment();
 
 //        Anime anime = Anime.builder()
 //                .id(savedAnime.getId())
@@ -62,5 +243,71 @@ public class AnimeService {
 //        repository.save(anime);
     }
 
+    /**
+     * Renames all animes with one JDBC batch of single row updates. When the same id appears
+     * more than once the last name wins. Any missing id rolls the whole batch back.
+     */
+    @Transactional
+    public void replaceAll(List<AnimePutRequestBody> animePutRequestBodies) {
+        checkBatchSize(animePutRequestBodies.size());
+        Map<Long, String> namesById = new LinkedHashMap<>();
+        animePutRequestBodies.forEach(body -> namesById.put(body.getId(), body.getName()));
+        if (namesById.isEmpty()) {
+            return;
+        }
+        if (namesById.containsKey(null)) {
+            throw BadRequestException.ANIME_NOT_FOUND;
+        }
+
+        for (int updated : repository.updateNames(namesById)) {
+            if (updated == 0) {
+                throw BadRequestException.ANIME_NOT_FOUND;
+            }
+        }
+        namesById.forEach(searchIndex::put);
+        namesById.keySet().forEach(entityCache::invalidate);
+        catalogVersion.increment();
+    }
+
+    /**
+     * One transaction per write-behind batch ({@link AnimeIngestionService}): the new animes go
+     * as one JDBC batch of inserts and the renames as one of updates. Unlike {@link #replaceAll(List)}
+     * a missing id does not roll the batch back; its update count is 0 and only that write fails.
+     */
+    @Transactional
+    public IngestedBatch ingest(List<AnimePostRequestBody> animePostRequestBodies, Map<Long, String> namesById) {
+        List<Anime> savedAnimes = animePostRequestBodies.isEmpty()
+                ? Collections.emptyList()
+                : repository.saveAll(animePostRequestBodies.stream()
+                .map(AnimeMapper.INSTANCE::toAnime)
+                .collect(Collectors.toList()));
+        int[] updateCounts = namesById.isEmpty() ? new int[0] : repository.updateNames(namesById);
 
+        countCache.add(savedAnimes.size());
+        savedAnimes.forEach(anime -> searchIndex.put(anime.getId(), anime.getName()));
+        int i = 0;
+        for (Map.Entry<Long, String> entry : namesById.entrySet()) {
+            if (updateCounts[i++] != 0) {
+                searchIndex.put(entry.getKey(), entry.getValue());
+                entityCache.invalidate(entry.getKey());
+            }
+        }
+        catalogVersion.increment();
+        return new IngestedBatch(savedAnimes, updateCounts);
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw BATCH_TOO_LARGE;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class IngestedBatch {
+        //Na ordem dos request bodies
+        private final List<Anime> savedAnimes;
+        //Na ordem de iteração do namesById; 0 quando o id não existe
+        private final int[] updateCounts;
+    }
 }
@@ -0,0 +1,20 @@
+package com.jfalves.springboot.service;
+
+/**
+ * Keeps the eviction order of the keys of one cache stripe. Implementations are not thread safe;
+ * the owning stripe calls them while holding its lock.
+ */
+interface EvictionPolicy<K> {
+
+    void recordAccess(K key);
+
+    /**
+     * Adds a key that just missed. May reject the key itself when the policy considers it less
+     * valuable than what is already cached.
+     *
+     * @return the key that left the cache, or null when there was room for it
+     */
+    K add(K key);
+
+    void remove(K key);
+}
@@ -0,0 +1,36 @@
+package com.jfalves.springboot.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+class LruEvictionPolicy<K> implements EvictionPolicy<K> {
+
+    private final int capacity;
+    private final LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    LruEvictionPolicy(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        keys.get(key);
+    }
+
+    @Override
+    public K add(K key) {
+        keys.put(key, Boolean.TRUE);
+        if (keys.size() <= capacity) {
+            return null;
+        }
+        Iterator<K> eldest = keys.keySet().iterator();
+        K victim = eldest.next();
+        eldest.remove();
+        return victim;
+    }
+
+    @Override
+    public void remove(K key) {
+        keys.remove(key);
+    }
+}
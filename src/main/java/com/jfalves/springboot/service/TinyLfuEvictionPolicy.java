@@ -0,0 +1,84 @@
+package com.jfalves.springboot.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU as described by Einziger, Friedman and Manes: new keys enter a small LRU window,
+ * keys leaving the window compete with the LRU victim of the main segmented LRU and only the one
+ * with the higher estimated frequency stays. A burst of one-off ids (a crawler, a full scan) so
+ * cannot push the hot titles out, while a recency-biased window still absorbs short bursts.
+ */
+class TinyLfuEvictionPolicy<K> implements EvictionPolicy<K> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;
+
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    TinyLfuEvictionPolicy(int capacity) {
+        this.windowCapacity = Math.max(1, capacity * WINDOW_PERCENT / 100);
+        this.mainCapacity = Math.max(1, capacity - windowCapacity);
+        this.protectedCapacity = mainCapacity * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key.hashCode());
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return;
+        }
+        if (probation.remove(key) != null) {
+            protectedSegment.put(key, Boolean.TRUE);
+            if (protectedSegment.size() > protectedCapacity) {
+                probation.put(removeEldest(protectedSegment), Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public K add(K key) {
+        sketch.increment(key.hashCode());
+        window.put(key, Boolean.TRUE);
+        if (window.size() <= windowCapacity) {
+            return null;
+        }
+
+        K candidate = removeEldest(window);
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate, Boolean.TRUE);
+            return null;
+        }
+
+        LinkedHashMap<K, Boolean> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victim = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidate.hashCode()) > sketch.frequency(victim.hashCode())) {
+            victimSegment.remove(victim);
+            probation.put(candidate, Boolean.TRUE);
+            return victim;
+        }
+        return candidate;
+    }
+
+    @Override
+    public void remove(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    private static <K> K removeEldest(LinkedHashMap<K, Boolean> segment) {
+        Iterator<K> eldest = segment.keySet().iterator();
+        K key = eldest.next();
+        eldest.remove();
+        return key;
+    }
+}
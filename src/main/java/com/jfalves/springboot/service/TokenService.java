@@ -0,0 +1,159 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.TokenProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed access tokens:
+ * {@code <key id>.<base64url payload>.<base64url signature>}, where the payload carries the
+ * expiry, the authorities and the username. Verification is pure CPU work, it never touches the
+ * database or the password encoder.
+ */
+@Log4j2
+@Service
+public class TokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String GENERATED_KEY_ID = "generated";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, ThreadLocal<Mac>> macs = new HashMap<>();
+    private final String activeKeyId;
+    private final long ttlSeconds;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(TokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    TokenService(TokenProperties properties, Clock clock) {
+        this.clock = clock;
+        this.ttlSeconds = properties.getTtl().getSeconds();
+
+        if (properties.getKeys().isEmpty()) {
+            log.warn("No jalves.security.token.keys configured, tokens will not survive a restart");
+            macs.put(GENERATED_KEY_ID, macFor(generateKey()));
+            this.activeKeyId = GENERATED_KEY_ID;
+        } else {
+            properties.getKeys().forEach((keyId, secret) ->
+                    macs.put(keyId, macFor(new SecretKeySpec(Base64.getDecoder().decode(secret), HMAC_ALGORITHM))));
+            this.activeKeyId = properties.getActiveKey() != null
+                    ? properties.getActiveKey()
+                    : properties.getKeys().keySet().iterator().next();
+        }
+
+        if (!macs.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active token key '" + activeKeyId + "' is not configured");
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String issue(Authentication authentication) {
+        long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = ENCODER.encodeToString((expiresAt + "\n" + authorities + "\n" + authentication.getName())
+                .getBytes(StandardCharsets.UTF_8));
+        String signed = activeKeyId + "." + payload;
+        return signed + "." + ENCODER.encodeToString(sign(activeKeyId, signed));
+    }
+
+    /**
+     * @throws BadCredentialsException when the token is malformed, signed with an unknown key,
+     *                                 tampered with or expired
+     */
+    public Authentication verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        String keyId = token.substring(0, firstDot);
+        if (!macs.containsKey(keyId)) {
+            throw new BadCredentialsException("Unknown token key");
+        }
+
+        String[] claims;
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(keyId, token.substring(0, lastDot)))) {
+                throw new BadCredentialsException("Invalid token signature");
+            }
+            claims = new String(DECODER.decode(token.substring(firstDot + 1, lastDot)), StandardCharsets.UTF_8)
+                    .split("\n", 3);
+            if (claims.length != 3) {
+                throw new BadCredentialsException("Malformed token");
+            }
+            if (Long.parseLong(claims[0]) < clock.instant().getEpochSecond()) {
+                throw new BadCredentialsException("Expired token");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        return new TokenAuthentication(claims[2], AuthorityUtils.commaSeparatedStringToAuthorityList(claims[1]));
+    }
+
+    private byte[] sign(String keyId, String content) {
+        return macs.get(keyId).get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ThreadLocal<Mac> macFor(Key key) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not initialize token signature", e);
+            }
+        });
+    }
+
+    /**
+     * Authentication built from a verified token, told apart from a username/password login so a
+     * token cannot be traded for a new one (POST /auth/token).
+     */
+    public static class TokenAuthentication extends UsernamePasswordAuthenticationToken {
+
+        private TokenAuthentication(String username, Collection<? extends GrantedAuthority> authorities) {
+            super(username, null, authorities);
+        }
+    }
+
+    private static Key generateKey() {
+        try {
+            return KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate token key", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.jfalves.springboot.startup;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time each bean takes from instantiation to the end of its initialization, minus the time spent
+ * creating the beans it depends on while it was being created.
+ */
+class BeanCreationTimer implements InstantiationAwareBeanPostProcessor {
+
+    private final ThreadLocal<Deque<Creation>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<String, Long> ownNanos = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        creations.get().push(new Creation(beanName, System.nanoTime()));
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<Creation> stack = creations.get();
+        //Objetos de FactoryBean passam por aqui sem ter passado pela instanciação
+        if (stack.stream().noneMatch(creation -> creation.beanName.equals(beanName))) {
+            return bean;
+        }
+        Creation creation = stack.pop();
+        while (!creation.beanName.equals(beanName)) {
+            creation = stack.pop();
+        }
+        long total = System.nanoTime() - creation.start;
+        ownNanos.merge(beanName, total - creation.dependencyNanos, Long::sum);
+        if (!stack.isEmpty()) {
+            stack.peek().dependencyNanos += total;
+        }
+        return bean;
+    }
+
+    Map<String, Long> slowest(int limit) {
+        Map<String, Long> slowest = new LinkedHashMap<>();
+        ownNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(bean -> slowest.put(bean.getKey(), TimeUnit.NANOSECONDS.toMillis(bean.getValue())));
+        return slowest;
+    }
+
+    private static class Creation {
+        private final String beanName;
+        private final long start;
+        private long dependencyNanos;
+
+        private Creation(String beanName, long start) {
+            this.beanName = beanName;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.jfalves.springboot.startup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long each startup phase took, from the JVM launch to the ApplicationReadyEvent
+ * listeners, followed by the slowest beans ({@link BeanCreationTimer}). Enabled with
+ * jalves.startup.report; registered in META-INF/spring.factories.
+ * <p>
+ * With jalves.startup.exit-after-startup the JVM exits as soon as the application is ready,
+ * which is what the AppCDS training run of the {@code appcds} maven profile needs.
+ */
+@Log4j2
+public class StartupTimingListener implements SpringApplicationRunListener {
+
+    private static final int SLOWEST_BEANS = 10;
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long jvmMillis;
+    private long last;
+    private boolean report;
+    private boolean exitAfterStartup;
+    private BeanCreationTimer beanCreationTimer;
+
+    public StartupTimingListener(SpringApplication application, String[] args) {
+    }
+
+    @Override
+    public void starting() {
+        last = System.nanoTime();
+        jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    @Override
+    public void environmentPrepared(ConfigurableEnvironment environment) {
+        phase("environment");
+        report = environment.getProperty("jalves.startup.report", Boolean.class, false);
+        exitAfterStartup = environment.getProperty("jalves.startup.exit-after-startup", Boolean.class, false);
+    }
+
+    @Override
+    public void contextPrepared(ConfigurableApplicationContext context) {
+        phase("context creation");
+        if (report) {
+            beanCreationTimer = new BeanCreationTimer();
+            context.getBeanFactory().addBeanPostProcessor(beanCreationTimer);
+        }
+    }
+
+    @Override
+    public void contextLoaded(ConfigurableApplicationContext context) {
+        phase("bean definitions");
+    }
+
+    @Override
+    public void started(ConfigurableApplicationContext context) {
+        //Criação dos beans, Hibernate, Flyway e o Tomcat subindo
+        phase("refresh");
+    }
+
+    @Override
+    public void running(ConfigurableApplicationContext context) {
+        //Runners e listeners do ApplicationReadyEvent (rebuild do índice de busca)
+        phase("ready listeners");
+        if (report) {
+            log.info(report());
+        }
+        if (exitAfterStartup) {
+            log.info("Exiting after startup (jalves.startup.exit-after-startup)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void phase(String name) {
+        long now = System.nanoTime();
+        phases.put(name, TimeUnit.NANOSECONDS.toMillis(now - last));
+        last = now;
+    }
+
+    private String report() {
+        long total = jvmMillis + phases.values().stream().mapToLong(Long::longValue).sum();
+        StringBuilder report = new StringBuilder("Started in ").append(total).append(" ms: jvm ")
+                .append(jvmMillis).append(" ms");
+        phases.forEach((name, millis) -> report.append(", ").append(name).append(' ').append(millis).append(" ms"));
+        report.append(". Slowest beans, without their dependencies: ")
+                .append(beanCreationTimer.slowest(SLOWEST_BEANS).entrySet().stream()
+                        .map(bean -> bean.getKey() + ' ' + bean.getValue() + " ms")
+                        .collect(Collectors.joining(", ")));
+        return report.toString();
+    }
+}
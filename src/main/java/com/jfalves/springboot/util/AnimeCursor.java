@@ -0,0 +1,42 @@
+package com.jfalves.springboot.util;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last anime of a keyset page, ordered by (name, id).
+ * Travels to the client as an opaque url-safe token.
+ */
+@Getter
+@AllArgsConstructor
+public class AnimeCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final long id;
+    private final String name;
+
+    public static AnimeCursor of(Anime anime) {
+        return new AnimeCursor(anime.getId(), anime.getName());
+    }
+
+    public String encode() {
+        byte[] raw = (id + String.valueOf(SEPARATOR) + name).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static AnimeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new AnimeCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw BadRequestException.INVALID_CURSOR;
+        }
+    }
+}
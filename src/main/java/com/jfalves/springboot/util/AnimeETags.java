@@ -0,0 +1,42 @@
+package com.jfalves.springboot.util;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags of single animes, taken from their {@code @Version} column instead of a hash of
+ * the serialized body.
+ */
+public final class AnimeETags {
+
+    private AnimeETags() {
+    }
+
+    public static String of(Anime anime) {
+        return "\"" + versionOf(anime) + "\"";
+    }
+
+    public static long versionOf(Anime anime) {
+        return anime.getVersion() == null ? 0 : anime.getVersion();
+    }
+
+    /**
+     * @return the version required by an If-Match header, or null when there is no header or it
+     * is "*" (any current version)
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        //If-Match usa comparação forte, uma ETag fraca (W/"...") nunca confere
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || etag.charAt(0) != '"' || etag.charAt(etag.length() - 1) != '"') {
+            throw PreconditionFailedException.ANIME_MODIFIED;
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw PreconditionFailedException.ANIME_MODIFIED;
+        }
+    }
+}
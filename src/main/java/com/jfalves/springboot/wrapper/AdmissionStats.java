@@ -0,0 +1,35 @@
+package com.jfalves.springboot.wrapper;
+
+import com.jfalves.springboot.admission.EndpointGroup;
+import com.jfalves.springboot.config.AdmissionProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStats {
+    private boolean enabled;
+    private AdmissionProperties limits;
+    private Map<EndpointGroup, Group> groups;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        //Limite de concorrência atual, ajustado pela latência
+        private int limit;
+        private int inFlight;
+        private double latencyMillis;
+        //429
+        private long rateLimited;
+        //503
+        private long concurrencyLimited;
+    }
+}
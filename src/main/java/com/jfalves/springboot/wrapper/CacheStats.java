@@ -0,0 +1,26 @@
+package com.jfalves.springboot.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+    private boolean enabled;
+    private String policy;
+    private long size;
+    private long maximumSize;
+    private long hitCount;
+    private long missCount;
+    private double hitRatio;
+    private long evictionCount;
+    private long loadCount;
+    private double averageLoadMillis;
+    //Só nos caches limitados por bytes
+    private long sizeInBytes;
+    private long maximumSizeInBytes;
+}
@@ -0,0 +1,21 @@
+package com.jfalves.springboot.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    //Enviar de volta como ?cursor= para buscar a proxima pagina
+    private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package com.jfalves.springboot.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionStatus {
+
+    public enum Operation {
+        CREATE,
+        UPDATE
+    }
+
+    public enum State {
+        QUEUED,
+        COMPLETED,
+        FAILED
+    }
+
+    private long trackingId;
+    private Operation operation;
+    private State state;
+    //No CREATE só depois de gravado
+    private Long animeId;
+    //Substituído por um update posterior do mesmo id na mesma transação
+    private boolean coalesced;
+    private String error;
+}
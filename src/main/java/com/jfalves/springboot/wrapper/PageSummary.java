@@ -0,0 +1,24 @@
+package com.jfalves.springboot.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Everything a {@link PageableResponse} carries except its content, returned when the content
+ * was handed to a consumer instead of being kept.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageSummary {
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private int numberOfElements;
+    private boolean first;
+    private boolean last;
+}
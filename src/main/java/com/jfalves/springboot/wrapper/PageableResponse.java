@@ -1,23 +1,16 @@
 package com.jfalves.springboot.wrapper;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.JsonNode;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 
-import static com.fasterxml.jackson.annotation.JsonCreator.Mode;
-
 @Getter
 @Setter
-
+@JsonDeserialize(using = PageableResponseDeserializer.class)
 public class PageableResponse<T> extends PageImpl<T> {
 
     private boolean first;
@@ -25,18 +18,14 @@ public class PageableResponse<T> extends PageImpl<T> {
     private int totalPages;
     private int numberOfElements;
 
-    @JsonCreator(mode = Mode.PROPERTIES)
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public PageableResponse(@JsonProperty("content") List<T> content,
-                            @JsonProperty("number") int number,
-                            @JsonProperty("size") int size,
-                            @JsonProperty("totalElements") int totalElements,
-                            @JsonProperty("last") boolean last,
-                            @JsonProperty("first") boolean first,
-                            @JsonProperty("totalPages") int totalPages,
-                            @JsonProperty("numberOfElements") int numberOfElements,
-                            @JsonProperty("pageable") JsonNode pageable,
-                            @JsonProperty("sort") JsonNode sort) {
+    public PageableResponse(List<T> content,
+                            int number,
+                            int size,
+                            long totalElements,
+                            boolean last,
+                            boolean first,
+                            int totalPages,
+                            int numberOfElements) {
         super(content, PageRequest.of(number, size), totalElements);
 
         this.last = last;
@@ -44,4 +33,9 @@ public class PageableResponse<T> extends PageImpl<T> {
         this.totalPages = totalPages;
         this.numberOfElements = numberOfElements;
     }
+
+    public PageableResponse(List<T> content, PageSummary summary) {
+        this(content, summary.getNumber(), summary.getSize(), summary.getTotalElements(), summary.isLast(),
+                summary.isFirst(), summary.getTotalPages(), summary.getNumberOfElements());
+    }
 }
@@ -0,0 +1,133 @@
+package com.jfalves.springboot.wrapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the JSON of a Spring Data {@link org.springframework.data.domain.Page} in a single pass
+ * over the tokens. The page fields are read as scalars, every other field ({@code pageable},
+ * {@code sort}, ...) is skipped without building a tree, and each element of {@code content} is
+ * bound with the element type's own deserializer as soon as the parser reaches it.
+ */
+public class PageableResponseDeserializer extends StdDeserializer<PageableResponse<?>>
+        implements ContextualDeserializer {
+
+    private final JsonDeserializer<Object> contentDeserializer;
+
+    public PageableResponseDeserializer() {
+        this(null);
+    }
+
+    private PageableResponseDeserializer(JsonDeserializer<Object> contentDeserializer) {
+        super(PageableResponse.class);
+        this.contentDeserializer = contentDeserializer;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property)
+            throws JsonMappingException {
+        JavaType type = ctxt.getContextualType();
+        if (type == null && property != null) {
+            type = property.getType();
+        }
+        JavaType pageType = type == null ? null : type.findSuperType(PageableResponse.class);
+        JavaType contentType = pageType == null ? TypeFactory.unknownType() : pageType.containedTypeOrUnknown(0);
+        return new PageableResponseDeserializer(ctxt.findContextualValueDeserializer(contentType, property));
+    }
+
+    @Override
+    public PageableResponse<?> deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+        List<Object> content = new ArrayList<>();
+        PageSummary summary = readPage(parser,
+                elementParser -> content.add(readElement(elementParser, ctxt, contentDeserializer)));
+        return new PageableResponse<>(content, summary);
+    }
+
+    /**
+     * Reads a page object starting at its START_OBJECT (or before it), calling the handler with
+     * the parser on the first token of each content element. The handler must leave the parser on
+     * the element's last token.
+     */
+    static PageSummary readPage(JsonParser parser, ElementHandler handler) throws IOException {
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+        if (!parser.isExpectedStartObjectToken()) {
+            throw MismatchedInputException.from(parser, PageableResponse.class,
+                    "Expected a page object but found " + parser.currentToken());
+        }
+
+        PageSummary summary = new PageSummary();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "content":
+                    readContent(parser, token, handler);
+                    break;
+                case "number":
+                    summary.setNumber(parser.getValueAsInt());
+                    break;
+                case "size":
+                    summary.setSize(parser.getValueAsInt());
+                    break;
+                case "totalElements":
+                    summary.setTotalElements(parser.getValueAsLong());
+                    break;
+                case "totalPages":
+                    summary.setTotalPages(parser.getValueAsInt());
+                    break;
+                case "numberOfElements":
+                    summary.setNumberOfElements(parser.getValueAsInt());
+                    break;
+                case "first":
+                    summary.setFirst(parser.getValueAsBoolean());
+                    break;
+                case "last":
+                    summary.setLast(parser.getValueAsBoolean());
+                    break;
+                default:
+                    //pageable, sort, empty: pula a subárvore sem criar nós
+                    parser.skipChildren();
+            }
+        }
+        return summary;
+    }
+
+    static Object readElement(JsonParser parser, DeserializationContext ctxt,
+                              JsonDeserializer<Object> contentDeserializer) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL
+                ? contentDeserializer.getNullValue(ctxt)
+                : contentDeserializer.deserialize(parser, ctxt);
+    }
+
+    private static void readContent(JsonParser parser, JsonToken token, ElementHandler handler) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(parser, PageableResponse.class,
+                    "Expected the page content to be an array but found " + token);
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            handler.handle(parser);
+        }
+    }
+
+    @FunctionalInterface
+    interface ElementHandler {
+        void handle(JsonParser parser) throws IOException;
+    }
+}
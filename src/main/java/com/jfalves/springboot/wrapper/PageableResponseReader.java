@@ -0,0 +1,59 @@
+package com.jfalves.springboot.wrapper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Iterator style alternative to deserializing a whole {@link PageableResponse}: each element of
+ * the page is handed to a consumer as soon as it is parsed and then dropped, so memory stays flat
+ * whatever the page size. Thread safe; create one per element type and reuse it.
+ */
+public class PageableResponseReader<T> {
+
+    private final JsonFactory jsonFactory;
+    private final DefaultDeserializationContext contextBlueprint;
+    private final DeserializationConfig config;
+    private final InjectableValues injectableValues;
+    private final JavaType contentType;
+
+    public PageableResponseReader(ObjectMapper objectMapper, Class<T> contentType) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.contextBlueprint = (DefaultDeserializationContext) objectMapper.getDeserializationContext();
+        this.config = objectMapper.getDeserializationConfig();
+        this.injectableValues = objectMapper.getInjectableValues();
+        this.contentType = objectMapper.constructType(contentType);
+    }
+
+    public PageSummary read(InputStream json, Consumer<? super T> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return read(parser, consumer);
+        }
+    }
+
+    public PageSummary read(byte[] json, Consumer<? super T> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return read(parser, consumer);
+        }
+    }
+
+    //Um único contexto por página, o deserializer do elemento vem do cache do ObjectMapper
+    @SuppressWarnings("unchecked")
+    private PageSummary read(JsonParser parser, Consumer<? super T> consumer) throws IOException {
+        config.initialize(parser);
+        DeserializationContext ctxt = contextBlueprint.createInstance(config, parser, injectableValues);
+        JsonDeserializer<Object> contentDeserializer = ctxt.findRootValueDeserializer(contentType);
+        return PageableResponseDeserializer.readPage(parser, elementParser -> consumer.accept(
+                (T) PageableResponseDeserializer.readElement(elementParser, ctxt, contentDeserializer)));
+    }
+}
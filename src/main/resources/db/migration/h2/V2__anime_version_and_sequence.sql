@@ -0,0 +1,7 @@
+-- Lock otimista; linhas antigas começam na versão 0
+alter table anime add column version bigint;
+update anime set version = 0;
+-- Ids passam a vir do anime_seq em blocos de 50, que começa depois do maior id já usado
+alter table anime alter column id bigint not null;
+create sequence anime_seq start with 1 increment by 50;
+alter sequence anime_seq restart with (select coalesce(max(id), 0) + 1 from anime);
@@ -0,0 +1 @@
+create index idx_anime_name on anime (name);
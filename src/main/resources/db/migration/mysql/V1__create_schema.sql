@@ -0,0 +1,3 @@
+-- Schema que o ddl-auto update criava com ids IDENTITY; bancos existentes entram nesta versão pelo baseline-on-migrate
+create table anime (id bigint not null auto_increment, name varchar(255), primary key (id)) engine=InnoDB;
+create table dev_dojo_user (id bigint not null auto_increment, authorities varchar(255), name varchar(255), password varchar(255), username varchar(255), primary key (id)) engine=InnoDB;
@@ -0,0 +1,7 @@
+-- Lock otimista; linhas antigas começam na versão 0
+alter table anime add column version bigint;
+update anime set version = 0;
+-- Ids passam a vir do anime_seq em blocos de 50, que começa depois do maior id já usado
+alter table anime modify id bigint not null;
+create table anime_seq (next_val bigint) engine=InnoDB;
+insert into anime_seq select coalesce(max(id), 0) + 1 from anime;
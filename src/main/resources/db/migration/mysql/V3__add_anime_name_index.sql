@@ -0,0 +1,2 @@
+-- findByName e a paginação por cursor (name, id); o InnoDB já guarda o id em todo índice secundário
+create index idx_anime_name on anime (name);
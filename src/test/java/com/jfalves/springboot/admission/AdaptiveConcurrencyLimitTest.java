@@ -0,0 +1,94 @@
+package com.jfalves.springboot.admission;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long WINDOW = 100 * MILLIS;
+
+    private long now = 0;
+
+    @Test
+    @DisplayName("Try acquire returns false when the limit is in flight")
+    void tryAcquireReturnsFalseWhenLimitIsInFlight() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, WINDOW, now);
+
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+        Assertions.assertThat(limit.tryAcquire()).isFalse();
+        Assertions.assertThat(limit.getRejected()).isEqualTo(1);
+
+        limit.release(MILLIS, now);
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Limit grows while latency is steady and the limit is used")
+    void limitGrowsWhileLatencyIsSteadyAndLimitIsUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0, WINDOW, now);
+
+        runWindows(limit, 5, 20, 5 * MILLIS);
+
+        Assertions.assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    @DisplayName("Limit shrinks when latency goes over tolerance times the long term latency")
+    void limitShrinksWhenLatencyGoesOverTolerance() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 2.0, WINDOW, now);
+        runWindows(limit, 3, 50, 5 * MILLIS);
+        int before = limit.getLimit();
+
+        runWindows(limit, 5, limit.getLimit(), 100 * MILLIS);
+
+        Assertions.assertThat(limit.getLimit()).isLessThan(before).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Limit does not grow when traffic stays under half of it")
+    void limitDoesNotGrowWhenTrafficStaysUnderHalfOfIt() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 1, 100, 2.0, WINDOW, now);
+
+        runWindows(limit, 5, 10, 5 * MILLIS);
+
+        Assertions.assertThat(limit.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Update clamps the current limit to the new bounds")
+    void updateClampsCurrentLimitToNewBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 1, 100, 2.0, WINDOW, now);
+
+        limit.update(40, 1, 10, 2.0, WINDOW);
+
+        Assertions.assertThat(limit.getLimit()).isEqualTo(10);
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> limit.update(10, 5, 4, 2.0, WINDOW));
+    }
+
+    //Cada janela: concurrent requests simultâneos, depois 20 amostras com a latência dada
+    private void runWindows(AdaptiveConcurrencyLimit limit, int windows, int concurrent, long latency) {
+        for (int window = 0; window < windows; window++) {
+            int acquired = 0;
+            while (acquired < concurrent && limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(latency, now);
+            }
+            for (int i = acquired; i < 20; i++) {
+                if (limit.tryAcquire()) {
+                    limit.release(latency, now);
+                }
+            }
+            now += WINDOW;
+            //Fecha a janela
+            if (limit.tryAcquire()) {
+                limit.release(latency, now);
+            }
+        }
+    }
+}
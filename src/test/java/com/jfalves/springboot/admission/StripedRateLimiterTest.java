@@ -0,0 +1,45 @@
+package com.jfalves.springboot.admission;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StripedRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final StripedRateLimiter rateLimiter = new StripedRateLimiter(1024);
+
+    @Test
+    @DisplayName("Try acquire admits a burst and then returns the wait for the next token")
+    void tryAcquireAdmitsBurstAndThenReturnsWaitForNextToken() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 10, 5, now)).isZero();
+        }
+
+        //10 por segundo: o próximo token chega em 100ms
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 10, 5, now)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    @DisplayName("Try acquire admits again once the rate refills a token")
+    void tryAcquireAdmitsAgainOnceRateRefillsToken() {
+        long now = System.nanoTime();
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 10, 1, now)).isZero();
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 10, 1, now + SECOND / 20)).isPositive();
+
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 10, 1, now + SECOND / 10)).isZero();
+    }
+
+    @Test
+    @DisplayName("Try acquire keeps separate buckets per key and per salt")
+    void tryAcquireKeepsSeparateBucketsPerKeyAndPerSalt() {
+        long now = System.nanoTime();
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 1, 1, now)).isZero();
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 0, 1, 1, now)).isPositive();
+
+        Assertions.assertThat(rateLimiter.tryAcquire("user", 0, 1, 1, now)).isZero();
+        Assertions.assertThat(rateLimiter.tryAcquire("jackson", 1, 1, 1, now)).isZero();
+    }
+}
@@ -0,0 +1,59 @@
+package com.jfalves.springboot.client;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("Submit starts at most the limit and starts queued tasks as running ones complete")
+    void submitStartsAtMostLimitAndStartsQueuedTasksOnCompletion() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        List<CompletableFuture<Integer>> started = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            results.add(limiter.submit(() -> {
+                CompletableFuture<Integer> running = new CompletableFuture<>();
+                started.add(running);
+                return running;
+            }));
+        }
+
+        Assertions.assertThat(started).hasSize(2);
+        Assertions.assertThat(limiter.queued()).isEqualTo(3);
+
+        started.get(0).complete(0);
+        Assertions.assertThat(started).hasSize(3);
+        Assertions.assertThat(results.get(0)).isCompletedWithValue(0);
+
+        for (int i = 1; i < 5; i++) {
+            started.get(i).complete(i);
+        }
+        Assertions.assertThat(results).allMatch(CompletableFuture::isDone);
+        Assertions.assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Submit drains many synchronously failing tasks without recursion")
+    void submitDrainsSynchronouslyFailingTasksWithoutRecursion() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        CompletableFuture<Integer> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            results.add(limiter.submit(() -> {
+                throw new IllegalStateException("failed");
+            }));
+        }
+        blocker.complete(0);
+
+        Assertions.assertThat(results).allMatch(CompletableFuture::isCompletedExceptionally);
+    }
+}
@@ -0,0 +1,41 @@
+package com.jfalves.springboot.client.load;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class LoadTestOptionsTest {
+
+    @Test
+    @DisplayName("Options use an open loop against an embedded app by default")
+    void optionsUseOpenLoopAgainstEmbeddedAppByDefault() {
+        LoadTestOptions options = new LoadTestOptions();
+
+        Assertions.assertThat(options.getBaseUrl()).isNull();
+        Assertions.assertThat(options.getMode()).isEqualTo(LoadTestOptions.Mode.OPEN);
+        Assertions.assertThat(options.getMix()).containsOnlyKeys(AnimeOperation.values());
+    }
+
+    @Test
+    @DisplayName("Options parse mode, durations and mix when successful")
+    void optionsParseModeDurationsAndMixWhenSuccessful() {
+        LoadTestOptions options = new LoadTestOptions("--mode=closed", "--concurrency=8", "--duration=2m",
+                "--warmup=500ms", "--mix=get:9,save:1", "--seed=0");
+
+        Assertions.assertThat(options.getMode()).isEqualTo(LoadTestOptions.Mode.CLOSED);
+        Assertions.assertThat(options.getConcurrency()).isEqualTo(8);
+        Assertions.assertThat(options.getDuration()).isEqualTo(Duration.ofMinutes(2));
+        Assertions.assertThat(options.getWarmup()).isEqualTo(Duration.ofMillis(500));
+        Assertions.assertThat(options.getMix()).containsEntry(AnimeOperation.GET, 9).containsEntry(AnimeOperation.SAVE, 1);
+        Assertions.assertThat(options.getSeed()).isZero();
+    }
+
+    @Test
+    @DisplayName("Options throw illegal argument exception when an option has no value")
+    void optionsThrowIllegalArgumentExceptionWhenOptionHasNoValue() {
+        Assertions.assertThatIllegalArgumentException()
+                .isThrownBy(() -> new LoadTestOptions("--mode"));
+    }
+}
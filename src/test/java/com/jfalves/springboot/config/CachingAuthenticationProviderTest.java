@@ -0,0 +1,109 @@
+package com.jfalves.springboot.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+
+@ExtendWith(SpringExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationManager delegate;
+
+    private AuthenticationCache cache;
+
+    private CachingAuthenticationProvider provider;
+
+    private final Authentication authenticated = new UsernamePasswordAuthenticationToken("jackson", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticationCache(true, Duration.ofMinutes(5), 2);
+        provider = new CachingAuthenticationProvider(delegate, cache);
+
+        BDDMockito.when(delegate.authenticate(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    Authentication request = invocation.getArgument(0);
+                    if (!"root".equals(request.getCredentials())) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    return authenticated;
+                });
+    }
+
+    @Test
+    @DisplayName("Authenticate verifies the credentials only once while they are cached")
+    void authenticateVerifiesCredentialsOnceWhileCached() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "root"));
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "root"));
+
+        Assertions.assertThat(result.getName()).isEqualTo("jackson");
+        Assertions.assertThat(result.getAuthorities()).isEqualTo(authenticated.getAuthorities());
+        Assertions.assertThat(result.isAuthenticated()).isTrue();
+        Assertions.assertThat(cache.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(cache.getMissCount()).isEqualTo(1);
+        BDDMockito.verify(delegate, BDDMockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Authenticate returns the details of the current request on a cache hit")
+    void authenticateReturnsDetailsOfCurrentRequestOnCacheHit() {
+        UsernamePasswordAuthenticationToken first = new UsernamePasswordAuthenticationToken("jackson", "root");
+        first.setDetails("10.0.0.1");
+        provider.authenticate(first);
+
+        UsernamePasswordAuthenticationToken second = new UsernamePasswordAuthenticationToken("jackson", "root");
+        second.setDetails("10.0.0.2");
+        Authentication result = provider.authenticate(second);
+
+        Assertions.assertThat(result).isNotSameAs(authenticated);
+        Assertions.assertThat(result.getDetails()).isEqualTo("10.0.0.2");
+        Assertions.assertThat(result.getCredentials()).isNull();
+    }
+
+    @Test
+    @DisplayName("Authenticate does not accept a different password for a cached user")
+    void authenticateRejectsDifferentPasswordForCachedUser() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "root"));
+
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "wrong")));
+    }
+
+    @Test
+    @DisplayName("Authenticate verifies the credentials again after the user is evicted")
+    void authenticateVerifiesAgainAfterEviction() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "root"));
+        cache.evict("jackson");
+        provider.authenticate(new UsernamePasswordAuthenticationToken("jackson", "root"));
+
+        BDDMockito.verify(delegate, BDDMockito.times(2)).authenticate(ArgumentMatchers.any());
+        Assertions.assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cache keeps at most the configured number of users")
+    void cacheKeepsAtMostMaxSizeUsers() {
+        cache.put("a", "root", authenticated);
+        cache.put("b", "root", authenticated);
+        cache.put("c", "root", authenticated);
+
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.get("a", "root")).isNull();
+        Assertions.assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jfalves.springboot.configurer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+
+class OffloadingRequestMappingHandlerAdapterTest {
+
+    private OffloadingRequestMappingHandlerAdapter adapter;
+    private ServletWebRequest request;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new OffloadingRequestMappingHandlerAdapter(new SimpleAsyncTaskExecutor(), 1000, 1,
+                handlerMethod -> handlerMethod.getBeanType() == TestController.class);
+        adapter.setApplicationContext(new StaticWebApplicationContext());
+        adapter.afterPropertiesSet();
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/animes/7");
+        servletRequest.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("id", "7"));
+        request = new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestController.thread = null;
+    }
+
+    @Test
+    @DisplayName("invokeForRequest returns a task running the handler off the request thread when handler is offloaded")
+    void invokeForRequest_ReturnsTaskRunningHandlerOffRequestThread_WhenHandlerIsOffloaded() throws Exception {
+        Object result = invocable("findById").invokeForRequest(request, new ModelAndViewContainer());
+
+        Assertions.assertThat(result).isInstanceOf(WebAsyncTask.class);
+        Assertions.assertThat(TestController.thread).isNull();
+        Assertions.assertThat(((WebAsyncTask<?>) result).getCallable().call()).isEqualTo("anime 7");
+        Assertions.assertThat(((WebAsyncTask<?>) result).getTimeout()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("invokeForRequest runs the handler on the request thread when handler returns an async value")
+    void invokeForRequest_RunsHandlerOnRequestThread_WhenHandlerReturnsAsyncValue() throws Exception {
+        Object result = invocable("stream").invokeForRequest(request, new ModelAndViewContainer());
+
+        Assertions.assertThat(result).isInstanceOf(StreamingResponseBody.class);
+        Assertions.assertThat(TestController.thread).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    @DisplayName("invokeForRequest throws RejectedExecutionException when pending requests reach the limit")
+    void invokeForRequest_ThrowsRejectedExecutionException_WhenPendingRequestsReachTheLimit() throws Exception {
+        invocable("findById").invokeForRequest(request, new ModelAndViewContainer());
+
+        Assertions.assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> invocable("findById").invokeForRequest(request, new ModelAndViewContainer()));
+    }
+
+    private ServletInvocableHandlerMethod invocable(String methodName) throws NoSuchMethodException {
+        Class<?>[] parameterTypes = methodName.equals("findById") ? new Class<?>[]{String.class} : new Class<?>[0];
+        HandlerMethod handlerMethod = new HandlerMethod(new TestController(),
+                TestController.class.getMethod(methodName, parameterTypes));
+        ServletInvocableHandlerMethod invocable = adapter.createInvocableHandlerMethod(handlerMethod);
+        invocable.setHandlerMethodArgumentResolvers(
+                new HandlerMethodArgumentResolverComposite().addResolvers(adapter.getArgumentResolvers()));
+        return invocable;
+    }
+
+    static class TestController {
+
+        private static volatile Thread thread;
+
+        public String findById(@PathVariable String id) {
+            thread = Thread.currentThread();
+            return "anime " + id;
+        }
+
+        public StreamingResponseBody stream() {
+            thread = Thread.currentThread();
+            return outputStream -> {
+            };
+        }
+    }
+}
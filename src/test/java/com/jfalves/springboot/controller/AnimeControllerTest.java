@@ -1,12 +1,20 @@
 package com.jfalves.springboot.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jfalves.springboot.config.AnimePageCacheProperties;
+import com.jfalves.springboot.config.StreamProperties;
 import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.PreconditionFailedException;
 import com.jfalves.springboot.requests.AnimePostRequestBody;
 import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.service.AnimeIngestionService;
 import com.jfalves.springboot.service.AnimeService;
 import com.jfalves.springboot.util.AnimeCreator;
 import com.jfalves.springboot.util.AnimePostRequestBodyCreator;
 import com.jfalves.springboot.util.AnimePutRequestBodyCreator;
+import com.jfalves.springboot.wrapper.CacheStats;
+import com.jfalves.springboot.wrapper.CursorResponse;
+import com.jfalves.springboot.wrapper.IngestionStatus;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,18 +24,33 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
 
+    private static final String CATALOG_ETAG = "\"abc-1\"";
+
     //Quando quer testar a classe em si
     @InjectMocks
     private AnimeController animeController;
@@ -36,6 +59,18 @@ class AnimeControllerTest {
     @Mock
     private AnimeService service;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private AnimePageResponseCache pageResponseCache;
+
+    @Mock
+    private AnimeIngestionService ingestion;
+
+    @Spy
+    private StreamProperties streamProperties = new StreamProperties();
+
     @BeforeEach
     void setUp() {
         PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
@@ -43,28 +78,63 @@ class AnimeControllerTest {
         BDDMockito.when(service.listAll(ArgumentMatchers.any()))
                 .thenReturn(animePage);
 
+        BDDMockito.when(service.listAllWithCachedTotal(ArgumentMatchers.any()))
+                .thenReturn(animePage);
+
+        BDDMockito.when(service.listAllByCursor(ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+                .thenReturn(CursorResponse.<Anime>builder()
+                        .content(List.of(AnimeCreator.createValidAnime()))
+                        .size(5)
+                        .build());
+
         BDDMockito.when(service.listAllNoPageable())
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
+        BDDMockito.doAnswer(invocation -> {
+            Consumer<Anime> consumer = invocation.getArgument(0);
+            consumer.accept(AnimeCreator.createValidAnime());
+            consumer.accept(AnimeCreator.createValidUpdatedAnime());
+            return null;
+        }).when(service).streamAll(ArgumentMatchers.any());
+
         BDDMockito.when(service.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong()))
                 .thenReturn(AnimeCreator.createValidAnime());
 
         BDDMockito.when(service.findByName(ArgumentMatchers.anyString()))
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
+        BDDMockito.when(service.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        BDDMockito.when(service.suggest(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime().getName()));
+
         BDDMockito.when(service.save(ArgumentMatchers.any(AnimePostRequestBody.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
 
-        BDDMockito.doNothing().when(service).replace(ArgumentMatchers.any(AnimePutRequestBody.class));
+        BDDMockito.when(service.saveAll(ArgumentMatchers.anyList()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        BDDMockito.doNothing().when(service).replace(ArgumentMatchers.any(AnimePutRequestBody.class), ArgumentMatchers.any());
 
         BDDMockito.doNothing().when(service).delete(ArgumentMatchers.anyLong());
+
+        BDDMockito.doNothing().when(service).replaceAll(ArgumentMatchers.anyList());
+
+        BDDMockito.doNothing().when(service).deleteAll(ArgumentMatchers.anyList());
+
+        BDDMockito.when(service.catalogETag())
+                .thenReturn(CATALOG_ETAG);
+
+        BDDMockito.when(service.entityCacheStats())
+                .thenReturn(CacheStats.builder().enabled(true).hitCount(3).missCount(1).hitRatio(0.75).build());
     }
 
     @Test
     @DisplayName("List returns list of anime inside page object when successful")
     void listReturnsListOfAnimesInsidePageObjectWhenSuccessful() {
         String expectedName = AnimeCreator.createValidAnime().getName();
-        Page<Anime> animePage = animeController.list(null).getBody();
+        Page<Anime> animePage = animeController.list(null, true, getRequest()).getBody();
 
         Assertions.assertThat(animePage).isNotNull();
         Assertions.assertThat(animePage.toList()).isNotEmpty().hasSize(1);
@@ -72,11 +142,56 @@ class AnimeControllerTest {
         Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("List without exact total returns page with cached total and exactness header when successful")
+    void listWithoutExactTotalReturnsPageWithExactnessHeaderWhenSuccessful() {
+        ResponseEntity<Page<Anime>> entity = animeController.list(null, false, getRequest());
+
+        Assertions.assertThat(entity.getBody()).isNotNull();
+        Assertions.assertThat(entity.getBody().toList()).hasSize(1);
+        Assertions.assertThat(entity.getHeaders().getFirst(AnimeController.TOTAL_EXACT_HEADER)).isEqualTo("true");
+
+        BDDMockito.verify(service, BDDMockito.never()).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("List writes cached page to the response and queries once when page is cacheable")
+    void listWritesCachedPageToTheResponseAndQueriesOnceWhenPageIsCacheable() throws Exception {
+        AnimePageResponseCache cache = new AnimePageResponseCache(new AnimePageCacheProperties(),
+                () -> List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+        AnimeController controller = new AnimeController(service, objectMapper, cache, ingestion, streamProperties);
+        String expectedName = AnimeCreator.createValidAnime().getName();
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ResponseEntity<Page<Anime>> entity = controller.list(PageRequest.of(0, 5), true,
+                    new ServletWebRequest(new MockHttpServletRequest("GET", "/animes"), response));
+
+            Assertions.assertThat(entity).isNull();
+            Assertions.assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+            Assertions.assertThat(response.getHeader(AnimeController.TOTAL_EXACT_HEADER)).isEqualTo("true");
+            Assertions.assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains(expectedName);
+        }
+
+        BDDMockito.verify(service, BDDMockito.times(1)).listAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("List by cursor returns list of anime inside cursor response when successful")
+    void listByCursorReturnsListOfAnimesInsideCursorResponseWhenSuccessful() {
+        String expectedName = AnimeCreator.createValidAnime().getName();
+        CursorResponse<Anime> animePage = animeController.listByCursor(null, 5, getRequest()).getBody();
+
+        Assertions.assertThat(animePage).isNotNull();
+        Assertions.assertThat(animePage.getContent()).isNotEmpty().hasSize(1);
+        Assertions.assertThat(animePage.getContent().get(0).getName()).isEqualTo(expectedName);
+    }
+
     @Test
     @DisplayName("List all returns list of anime when successful")
     void listAllReturnsListOfAnimesWhenSuccessful() {
         String expectedName = AnimeCreator.createValidAnime().getName();
-        List<Anime> animes = animeController.listAll().getBody();
+        List<Anime> animes = animeController.listAll(getRequest()).getBody();
 
         Assertions.assertThat(animes)
                 .isNotNull()
@@ -86,6 +201,27 @@ class AnimeControllerTest {
         Assertions.assertThat(animes.get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("Stream all writes one anime per line when successful")
+    void streamAllWritesOneAnimePerLineWhenSuccessful() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncTask<Void> task = animeController.streamAll(
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/animes/all"), response));
+
+        Assertions.assertThat(task).isNotNull();
+        Assertions.assertThat(task.getTimeout()).isEqualTo(streamProperties.getTimeout().toMillis());
+        task.getCallable().call();
+
+        Assertions.assertThat(response.getContentType()).isEqualTo(AnimeController.APPLICATION_NDJSON_VALUE);
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(objectMapper.readValue(lines[0], Anime.class).getName())
+                .isEqualTo(AnimeCreator.createValidAnime().getName());
+        Assertions.assertThat(objectMapper.readValue(lines[1], Anime.class).getName())
+                .isEqualTo(AnimeCreator.createValidUpdatedAnime().getName());
+    }
+
     @Test
     @DisplayName("Find by id returns anime when successful")
     void findByIdReturnsAnimesWhenSuccessful() {
@@ -124,6 +260,23 @@ class AnimeControllerTest {
                 .isEmpty();
     }
 
+    @Test
+    @DisplayName("Search returns a list of anime when successful")
+    void searchReturnsListOfAnimesWhenSuccessful() {
+        List<Anime> animes = animeController.search("ippo", 10).getBody();
+
+        Assertions.assertThat(animes).isNotNull().hasSize(1);
+        Assertions.assertThat(animes.get(0).getName()).isEqualTo(AnimeCreator.createValidAnime().getName());
+    }
+
+    @Test
+    @DisplayName("Suggest returns a list of anime names when successful")
+    void suggestReturnsListOfAnimeNamesWhenSuccessful() {
+        List<String> names = animeController.suggest("haj", 10).getBody();
+
+        Assertions.assertThat(names).isNotNull().containsExactly(AnimeCreator.createValidAnime().getName());
+    }
+
     @Test
     @DisplayName("Save returns anime when successful")
     void saveReturnsAnimesWhenSuccessful() {
@@ -132,14 +285,63 @@ class AnimeControllerTest {
         Assertions.assertThat(anime.getName()).isEqualTo(AnimeCreator.createValidAnime().getName());
     }
 
+    @Test
+    @DisplayName("Save async returns accepted with tracking location when ingestion is enabled")
+    void saveAsyncReturnsAcceptedWithTrackingLocationWhenIngestionIsEnabled() {
+        AnimePostRequestBody animePostRequestBody = AnimePostRequestBodyCreator.createAnimePostRequestBody();
+        BDDMockito.when(ingestion.isEnabled()).thenReturn(true);
+        BDDMockito.when(ingestion.enqueue(animePostRequestBody))
+                .thenReturn(IngestionStatus.builder().trackingId(7L).state(IngestionStatus.State.QUEUED).build());
+
+        ResponseEntity<?> entity = animeController.saveAsync(animePostRequestBody);
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(entity.getHeaders().getLocation()).hasToString("/animes/ingestion/7");
+        Assertions.assertThat(entity.getHeaders().getFirst(AnimeController.PREFERENCE_APPLIED_HEADER))
+                .isEqualTo(AnimeIngestionService.RESPOND_ASYNC);
+        BDDMockito.verify(service, Mockito.never()).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Save async saves synchronously when ingestion is disabled")
+    void saveAsyncSavesSynchronouslyWhenIngestionIsDisabled() {
+        ResponseEntity<?> entity = animeController.saveAsync(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        BDDMockito.verify(ingestion, Mockito.never()).enqueue(ArgumentMatchers.any(AnimePostRequestBody.class));
+    }
+
+    @Test
+    @DisplayName("Replace async replaces synchronously when If-Match is present")
+    void replaceAsyncReplacesSynchronouslyWhenIfMatchIsPresent() {
+        BDDMockito.when(ingestion.isEnabled()).thenReturn(true);
+        AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.createAnimePutRequestBody();
+
+        ResponseEntity<?> entity = animeController.replaceAsync(animePutRequestBody, "\"3\"");
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        BDDMockito.verify(service).replace(animePutRequestBody, 3L);
+        BDDMockito.verify(ingestion, Mockito.never()).enqueue(ArgumentMatchers.any(AnimePutRequestBody.class));
+    }
+
+    @Test
+    @DisplayName("Save all returns list of anime with status created when successful")
+    void saveAllReturnsListOfAnimesWhenSuccessful() {
+        ResponseEntity<List<Anime>> entity = animeController.saveAll(
+                List.of(AnimePostRequestBodyCreator.createAnimePostRequestBody()));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(entity.getBody()).isNotNull().hasSize(1);
+    }
+
     @Test
     @DisplayName("Replace updates anime when successful")
     void replaceUpdatesAnimesWhenSuccessful() {
-        Assertions.assertThatCode(() -> animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody())
+        Assertions.assertThatCode(() -> animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null)
                 .getBody()).doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody());
-        animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody()).getBody();
+        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null);
+        animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null).getBody();
 
         Assertions.assertThat(entity).isNotNull();
 
@@ -152,11 +354,91 @@ class AnimeControllerTest {
         Assertions.assertThatCode(() -> animeController.delete(1))
                 .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody());
-        animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody()).getBody();
+        ResponseEntity<Void> entity = animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null);
+        animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), null).getBody();
 
         Assertions.assertThat(entity).isNotNull();
 
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Replace all renames every anime when successful")
+    void replaceAllRenamesEveryAnimeWhenSuccessful() {
+        ResponseEntity<Void> entity = animeController.replaceAll(
+                List.of(AnimePutRequestBodyCreator.createAnimePutRequestBody()));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    @DisplayName("Delete all removes every anime when successful")
+    void deleteAllRemovesEveryAnimeWhenSuccessful() {
+        ResponseEntity<Void> entity = animeController.deleteAll(List.of(1L, 2L));
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    @DisplayName("Entity cache stats returns hit ratio when successful")
+    void entityCacheStatsReturnsHitRatioWhenSuccessful() {
+        CacheStats stats = animeController.entityCacheStats().getBody();
+
+        Assertions.assertThat(stats).isNotNull();
+        Assertions.assertThat(stats.getHitRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    @DisplayName("List returns not modified without querying when the catalog ETag matches")
+    void listReturnsNotModifiedWhenCatalogETagMatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, CATALOG_ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<List<Anime>> entity = animeController.listAll(new ServletWebRequest(request, response));
+
+        Assertions.assertThat(entity).isNull();
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(CATALOG_ETAG);
+        BDDMockito.verify(service, BDDMockito.never()).listAllNoPageable();
+    }
+
+    @Test
+    @DisplayName("List returns the catalog ETag when successful")
+    void listReturnsCatalogETagWhenSuccessful() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        animeController.list(null, true, new ServletWebRequest(new MockHttpServletRequest("GET", "/animes"), response));
+
+        Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(CATALOG_ETAG);
+    }
+
+    @Test
+    @DisplayName("FindById returns the version of the anime as strong ETag when successful")
+    void findByIdReturnsVersionAsETagWhenSuccessful() {
+        ResponseEntity<Anime> entity = animeController.findById(1);
+
+        Assertions.assertThat(entity.getHeaders().getETag()).isEqualTo("\"0\"");
+    }
+
+    @Test
+    @DisplayName("Replace passes the If-Match version to the service when successful")
+    void replacePassesIfMatchVersionWhenSuccessful() {
+        AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.createAnimePutRequestBody();
+
+        animeController.replace(animePutRequestBody, "\"3\"");
+
+        BDDMockito.verify(service).replace(animePutRequestBody, 3L);
+    }
+
+    @Test
+    @DisplayName("Replace throws precondition failed exception when If-Match is a weak ETag")
+    void replaceThrowsPreconditionFailedExceptionWhenIfMatchIsWeak() {
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> animeController.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), "W/\"3\""));
+    }
+
+    private static ServletWebRequest getRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/animes"), new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,181 @@
+package com.jfalves.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jfalves.springboot.config.AnimePageCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.util.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+class AnimePageResponseCacheTest {
+
+    private AnimePageCacheProperties properties;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnimePageCacheProperties();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("get returns cached page without loading again when catalog ETag is unchanged")
+    void get_ReturnsCachedPageWithoutLoadingAgain_WhenCatalogETagIsUnchanged() {
+        AnimePageResponseCache cache = createCache();
+
+        AnimePageResponseCache.CachedPage first = cache.get(PageRequest.of(0, 5), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        AnimePageResponseCache.CachedPage second = cache.get(PageRequest.of(0, 5), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(loads).hasValue(1);
+        Assertions.assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).contains(AnimeCreator.createValidAnime().getName());
+        Assertions.assertThat(cache.stats().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get loads again when catalog ETag changes")
+    void get_LoadsAgain_WhenCatalogETagChanges() {
+        AnimePageResponseCache cache = createCache();
+        cache.get(PageRequest.of(0, 5), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        cache.get(PageRequest.of(1, 5), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+
+        cache.get(PageRequest.of(0, 5), true, MediaType.APPLICATION_JSON, "\"a-2\"", loader(1));
+
+        Assertions.assertThat(loads).hasValue(3);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get keeps pages apart by size, sort, exactTotal and content type")
+    void get_KeepsPagesApartBySizeSortExactTotalAndContentType() {
+        AnimePageResponseCache cache = createCache();
+
+        cache.get(PageRequest.of(0, 5), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        cache.get(PageRequest.of(0, 10), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        cache.get(PageRequest.of(0, 5, Sort.by("name")), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        cache.get(PageRequest.of(0, 5), false, MediaType.APPLICATION_JSON, "\"a-1\"", loader(1));
+        AnimePageResponseCache.CachedPage smile = cache.get(PageRequest.of(0, 5), true,
+                AnimePageResponseCache.APPLICATION_SMILE, "\"a-1\"", loader(1));
+
+        Assertions.assertThat(loads).hasValue(5);
+        Assertions.assertThat(cache.size()).isEqualTo(5);
+        Assertions.assertThat(smile.getContentType()).isEqualTo(AnimePageResponseCache.APPLICATION_SMILE.toString());
+    }
+
+    @Test
+    @DisplayName("get evicts least recently used page when maximum size is exceeded")
+    void get_EvictsLeastRecentlyUsedPage_WhenMaximumSizeIsExceeded() {
+        properties.setMinGzipSize(DataSize.ofGigabytes(1));
+        AnimePageResponseCache sizing = createCache();
+        sizing.get(PageRequest.of(0, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        long pageBytes = sizing.stats().getSizeInBytes();
+        //Cabem três páginas
+        properties.setMaximumSize(DataSize.ofBytes(pageBytes * 3 + pageBytes / 2));
+        AnimePageResponseCache cache = createCache();
+        loads.set(0);
+
+        for (int page = 0; page < 3; page++) {
+            cache.get(PageRequest.of(page, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        }
+        cache.get(PageRequest.of(0, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        cache.get(PageRequest.of(3, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        cache.get(PageRequest.of(0, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        Assertions.assertThat(loads).hasValue(4);
+
+        cache.get(PageRequest.of(1, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+
+        Assertions.assertThat(loads).hasValue(5);
+        Assertions.assertThat(cache.size()).isEqualTo(3);
+        Assertions.assertThat(cache.stats().getEvictionCount()).isEqualTo(2);
+        Assertions.assertThat(cache.stats().getSizeInBytes()).isLessThanOrEqualTo(properties.getMaximumSize().toBytes());
+    }
+
+    @Test
+    @DisplayName("get does not keep pages larger than maximum entry size")
+    void get_DoesNotKeepPagesLargerThanMaximumEntrySize() {
+        properties.setMaximumEntrySize(DataSize.ofBytes(512));
+        AnimePageResponseCache cache = createCache();
+
+        cache.get(PageRequest.of(0, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+
+        Assertions.assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("writeTo writes gzipped body when client accepts gzip")
+    void writeTo_WritesGzippedBody_WhenClientAcceptsGzip() throws Exception {
+        AnimePageResponseCache.CachedPage page = createCache()
+                .get(PageRequest.of(0, 100), true, MediaType.APPLICATION_JSON, "\"a-1\"", loader(100));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        page.writeTo(response, AnimePageResponseCache.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+
+        Assertions.assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        Assertions.assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        Assertions.assertThat(response.getContentAsByteArray()).hasSizeLessThan(page.getBody().length);
+        Assertions.assertThat(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes())
+                .isEqualTo(page.getBody());
+    }
+
+    @Test
+    @DisplayName("acceptsGzip returns false when gzip is missing or has zero quality")
+    void acceptsGzip_ReturnsFalse_WhenGzipIsMissingOrHasZeroQuality() {
+        Assertions.assertThat(AnimePageResponseCache.acceptsGzip(null)).isFalse();
+        Assertions.assertThat(AnimePageResponseCache.acceptsGzip("br, deflate")).isFalse();
+        Assertions.assertThat(AnimePageResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        Assertions.assertThat(AnimePageResponseCache.acceptsGzip("*")).isTrue();
+    }
+
+    @Test
+    @DisplayName("cacheableType negotiates JSON or Smile and skips deep pages and unknown types")
+    void cacheableType_NegotiatesJsonOrSmileAndSkipsDeepPagesAndUnknownTypes() {
+        AnimePageResponseCache cache = createCache();
+
+        Assertions.assertThat(cache.cacheableType(PageRequest.of(0, 5), null)).isEqualTo(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(cache.cacheableType(PageRequest.of(0, 5), "*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(cache.cacheableType(PageRequest.of(0, 5), "application/json;q=0.5, application/x-jackson-smile"))
+                .isEqualTo(AnimePageResponseCache.APPLICATION_SMILE);
+        Assertions.assertThat(cache.cacheableType(PageRequest.of(0, 5), "application/xml")).isNull();
+        Assertions.assertThat(cache.cacheableType(PageRequest.of(properties.getCachedPages(), 5), null)).isNull();
+    }
+
+    private AnimePageResponseCache createCache() {
+        return new AnimePageResponseCache(properties, () -> List.of(
+                new MappingJackson2HttpMessageConverter(new ObjectMapper()),
+                new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory()))));
+    }
+
+    private Supplier<Page<Anime>> loader(int size) {
+        return () -> {
+            loads.incrementAndGet();
+            List<Anime> animes = IntStream.range(0, size)
+                    .mapToObj(i -> Anime.builder().id((long) i).name("Anime " + i).build())
+                    .collect(Collectors.toList());
+            if (size == 1) {
+                animes = List.of(AnimeCreator.createValidAnime());
+            }
+            return new PageImpl<>(animes);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.jfalves.springboot.controller;
+
+import com.jfalves.springboot.config.TokenProperties;
+import com.jfalves.springboot.service.TokenService;
+import com.jfalves.springboot.wrapper.TokenResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+class AuthControllerTest {
+
+    private final TokenService tokenService = new TokenService(new TokenProperties());
+    private final AuthController authController = new AuthController(tokenService);
+
+    @Test
+    @DisplayName("Token issues a bearer token when the user logged in with username and password")
+    void tokenIssuesBearerTokenWhenUserLoggedInWithUsernameAndPassword() {
+        Authentication basic = new UsernamePasswordAuthenticationToken("jackson", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        TokenResponse response = authController.token(basic).getBody();
+
+        Assertions.assertThat(response).isNotNull();
+        Assertions.assertThat(response.getTokenType()).isEqualTo("Bearer");
+        Assertions.assertThat(tokenService.verify(response.getAccessToken()).getName()).isEqualTo("jackson");
+    }
+
+    @Test
+    @DisplayName("Token throws insufficient authentication exception when the user authenticated with a token")
+    void tokenThrowsInsufficientAuthenticationExceptionWhenUserAuthenticatedWithToken() {
+        Authentication basic = new UsernamePasswordAuthenticationToken("jackson", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        Authentication bearer = tokenService.verify(tokenService.issue(basic));
+
+        Assertions.assertThatExceptionOfType(InsufficientAuthenticationException.class)
+                .isThrownBy(() -> authController.token(bearer));
+    }
+}
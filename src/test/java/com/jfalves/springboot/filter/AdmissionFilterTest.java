@@ -0,0 +1,189 @@
+package com.jfalves.springboot.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jfalves.springboot.admission.AdmissionControl;
+import com.jfalves.springboot.admission.EndpointGroup;
+import com.jfalves.springboot.config.AdmissionProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+class AdmissionFilterTest {
+
+    private AdmissionControl admissionControl;
+    private AdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.getRead().setBurst(2);
+        properties.getWrite().setInitialLimit(1);
+        properties.getWrite().setMinLimit(1);
+        admissionControl = new AdmissionControl(properties);
+        filter = new AdmissionFilter(admissionControl, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Filter returns 429 with Retry-After when the principal runs out of tokens")
+    void filterReturns429WithRetryAfterWhenPrincipalRunsOutOfTokens() throws Exception {
+        authenticate("jackson");
+
+        Assertions.assertThat(filter(get("/animes")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(filter(get("/animes/1")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        MockHttpServletResponse response = filter(get("/animes/find"));
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        Assertions.assertThat(response.getContentAsString()).contains("\"status\":429");
+    }
+
+    @Test
+    @DisplayName("Filter keeps the authenticated user's bucket apart from Basic claims of the same name")
+    void filterKeepsAuthenticatedUserBucketApartFromBasicClaimsOfSameName() throws Exception {
+        authenticate("jackson");
+        filter(get("/animes"));
+        filter(get("/animes"));
+        Assertions.assertThat(filter(get("/animes")).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        SecurityContextHolder.clearContext();
+
+        Assertions.assertThat(filter(basic(get("/animes"), "jackson", "10.0.0.1")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("Filter limits unverified Basic requests by address whatever user name they claim")
+    void filterLimitsUnverifiedBasicRequestsByAddressWhateverUserNameTheyClaim() throws Exception {
+        Assertions.assertThat(filter(basic(get("/animes"), "jackson", "10.0.0.1")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(filter(basic(get("/animes"), "william", "10.0.0.1")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse response = filter(basic(get("/animes"), "suzuki", "10.0.0.1"));
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        Assertions.assertThat(filter(get("/animes")).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("Filter limits a claimed Basic user across addresses with its stricter bucket")
+    void filterLimitsClaimedBasicUserAcrossAddressesWithStricterBucket() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.getRead().setBurst(4);
+        properties.setClaimedUserShare(0.5);
+        admissionControl.reload(properties);
+
+        Assertions.assertThat(filter(basic(get("/animes"), "jackson", "10.0.0.1")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(filter(basic(get("/animes"), "jackson", "10.0.0.2")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+
+        Assertions.assertThat(filter(basic(get("/animes"), "jackson", "10.0.0.3")).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        Assertions.assertThat(filter(basic(get("/animes"), "william", "10.0.0.3")).getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("Filter returns 503 with Retry-After when the group concurrency limit is in flight")
+    void filterReturns503WithRetryAfterWhenGroupConcurrencyLimitIsInFlight() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain chain = (request, response) -> nested[0] = filter(post("/animes"));
+
+        filter.doFilter(post("/animes"), new MockHttpServletResponse(), chain);
+
+        Assertions.assertThat(nested[0].getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        Assertions.assertThat(nested[0].getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        Assertions.assertThat(admissionControl.concurrencyLimit(EndpointGroup.WRITE).getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Filter isolates reads and admin endpoints from writes")
+    void filterIsolatesReadsAndAdminEndpointsFromWrites() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+        FilterChain chain = (request, response) -> {
+            nested[0] = filter(get("/animes/1"));
+            nested[1] = filter(post("/animes/admin/batch"));
+        };
+
+        filter.doFilter(post("/animes"), new MockHttpServletResponse(), chain);
+
+        Assertions.assertThat(nested).extracting(MockHttpServletResponse::getStatus)
+                .containsOnly(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("Filter holds the concurrency slot until an async request completes")
+    void filterHoldsConcurrencySlotUntilAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest request = post("/animes");
+        request.setAsyncSupported(true);
+        FilterChain chain = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Assertions.assertThat(admissionControl.concurrencyLimit(EndpointGroup.WRITE).getInFlight()).isEqualTo(1);
+
+        request.getAsyncContext().complete();
+        Assertions.assertThat(admissionControl.concurrencyLimit(EndpointGroup.WRITE).getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Filter lets every request through when disabled at runtime")
+    void filterLetsEveryRequestThroughWhenDisabledAtRuntime() throws Exception {
+        AdmissionProperties disabled = new AdmissionProperties();
+        disabled.setEnabled(false);
+        admissionControl.reload(disabled);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertThat(filter(get("/animes")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private static MockHttpServletRequest basic(MockHttpServletRequest request, String username, String remoteAddr) {
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":wrong").getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
@@ -0,0 +1,74 @@
+package com.jfalves.springboot.handler;
+
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.exception.BadRequestExceptionDetails;
+import com.jfalves.springboot.exception.ExceptionDetails;
+import com.jfalves.springboot.exception.PreconditionFailedException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class RestExceptionHandlerTest {
+
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+
+    @Test
+    @DisplayName("handleBadRequestException returns body with the exception message when successful")
+    void handleBadRequestException_ReturnsBodyWithExceptionMessage_WhenSuccessful() {
+        ResponseEntity<BadRequestExceptionDetails> response = handler.handleBadRequestException(
+                new BadRequestException("Invalid name"));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(response.getBody()).isNotNull();
+        Assertions.assertThat(response.getBody().getDetails()).isEqualTo("Invalid name");
+        Assertions.assertThat(response.getBody().getDeveloperMessage()).isEqualTo(BadRequestException.class.getName());
+        Assertions.assertThat(response.getBody().getTimestamp()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("handleBadRequestException returns the same body as a new exception when exception is preallocated")
+    void handleBadRequestException_ReturnsSameBodyAsNewException_WhenExceptionIsPreallocated() {
+        BadRequestExceptionDetails preallocated = handler.handleBadRequestException(BadRequestException.ANIME_NOT_FOUND)
+                .getBody();
+        BadRequestExceptionDetails fresh = handler.handleBadRequestException(new BadRequestException("Anime not found"))
+                .getBody();
+
+        Assertions.assertThat(preallocated).isNotNull();
+        Assertions.assertThat(preallocated.getStatus()).isEqualTo(fresh.getStatus());
+        Assertions.assertThat(preallocated.getTittle()).isEqualTo(fresh.getTittle());
+        Assertions.assertThat(preallocated.getDetails()).isEqualTo(fresh.getDetails());
+        Assertions.assertThat(preallocated.getDeveloperMessage()).isEqualTo(fresh.getDeveloperMessage());
+        Assertions.assertThat(preallocated.getTimestamp()).isNotNull();
+        Assertions.assertThat(BadRequestException.ANIME_NOT_FOUND.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("handlePreconditionFailedException returns 412 when exception is preallocated")
+    void handlePreconditionFailedException_Returns412_WhenExceptionIsPreallocated() {
+        ResponseEntity<ExceptionDetails> response = handler.handlePreconditionFailedException(
+                PreconditionFailedException.ANIME_MODIFIED);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        Assertions.assertThat(response.getBody()).isNotNull();
+        Assertions.assertThat(response.getBody().getDetails()).isEqualTo("Anime was modified");
+    }
+
+    @Test
+    @DisplayName("handleExceptionInternal uses the status reason as title when exception has no cause")
+    void handleExceptionInternal_UsesStatusReasonAsTitle_WhenExceptionHasNoCause() {
+        ResponseEntity<Object> response = handler.handleExceptionInternal(
+                new HttpRequestMethodNotSupportedException("PATCH"), null, new HttpHeaders(),
+                HttpStatus.METHOD_NOT_ALLOWED, new ServletWebRequest(new MockHttpServletRequest()));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        Assertions.assertThat(response.getBody()).isInstanceOf(ExceptionDetails.class);
+        Assertions.assertThat(((ExceptionDetails) response.getBody()).getTittle())
+                .isEqualTo(HttpStatus.METHOD_NOT_ALLOWED.getReasonPhrase());
+    }
+}
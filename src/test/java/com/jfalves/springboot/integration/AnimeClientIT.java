@@ -0,0 +1,153 @@
+package com.jfalves.springboot.integration;
+
+import com.jfalves.springboot.client.AnimeClient;
+import com.jfalves.springboot.client.AnimeClientException;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.service.TokenService;
+import com.jfalves.springboot.wrapper.PageSummary;
+import com.jfalves.springboot.wrapper.PageableResponse;
+import lombok.extern.log4j.Log4j2;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+@Log4j2
+@AutoConfigureTestDatabase
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AnimeClientIT {
+
+    private static final int REQUESTS = 2_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private String token;
+    private AnimeClient client;
+
+    @BeforeEach
+    void setUp() {
+        token = tokenService.issue(new UsernamePasswordAuthenticationToken("client-it", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+        client = AnimeClient.builder("http://localhost:" + port)
+                .bearerToken(token)
+                .maxConcurrentRequests(16)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Client saves, reads, replaces and deletes anime when successful")
+    void clientRunsCrudWhenSuccessful() {
+        Anime saved = client.save(AnimePostRequestBody.builder().name("Kingdom").build());
+
+        Assertions.assertThat(client.get(saved.getId()).getName()).isEqualTo("Kingdom");
+
+        client.replace(AnimePutRequestBody.builder().id(saved.getId()).name("Kingdom 2").build());
+        Assertions.assertThat(client.get(saved.getId()).getName()).isEqualTo("Kingdom 2");
+
+        PageableResponse<Anime> page = client.list(0, 10);
+        Assertions.assertThat(page.getContent()).isNotEmpty();
+
+        client.delete(saved.getId());
+        Assertions.assertThatExceptionOfType(AnimeClientException.class)
+                .isThrownBy(() -> client.get(saved.getId()))
+                .satisfies(e -> Assertions.assertThat(e.getStatus()).isEqualTo(400));
+    }
+
+    @Test
+    @DisplayName("Smile client exchanges animes, pages and error bodies as Smile when successful")
+    void smileClientExchangesAnimesPagesAndErrorBodiesAsSmile_WhenSuccessful() {
+        AnimeClient smileClient = AnimeClient.builder("http://localhost:" + port)
+                .bearerToken(token)
+                .smile()
+                .build();
+
+        Anime saved = smileClient.save(AnimePostRequestBody.builder().name("Samurai Champloo").build());
+        Assertions.assertThat(smileClient.get(saved.getId()).getName()).isEqualTo("Samurai Champloo");
+        Assertions.assertThat(smileClient.list(0, 10).getContent()).isNotEmpty();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set(HttpHeaders.ACCEPT, AnimeClient.APPLICATION_SMILE_VALUE);
+        HttpHeaders responseHeaders = new RestTemplate().exchange("http://localhost:" + port + "/animes/" + saved.getId(),
+                HttpMethod.GET, new HttpEntity<>(headers), byte[].class).getHeaders();
+        Assertions.assertThat(responseHeaders.getContentType()).hasToString(AnimeClient.APPLICATION_SMILE_VALUE);
+
+        smileClient.delete(saved.getId());
+        Assertions.assertThatExceptionOfType(AnimeClientException.class)
+                .isThrownBy(() -> smileClient.get(saved.getId()))
+                .satisfies(e -> Assertions.assertThat(e.getBody()).contains("Anime not found"));
+    }
+
+    @Test
+    @DisplayName("forEachOnPage hands every anime of the page to the consumer when successful")
+    void forEachOnPage_HandsEveryAnimeOfThePageToTheConsumer_WhenSuccessful() {
+        client.saveAllAsync(IntStream.range(0, 5)
+                        .mapToObj(i -> AnimePostRequestBody.builder().name("Streamed " + i).build())
+                        .collect(Collectors.toList()))
+                .join();
+        List<Anime> consumed = new ArrayList<>();
+
+        PageSummary summary = client.forEachOnPage(0, 3, consumed::add);
+
+        Assertions.assertThat(consumed).hasSize(3).extracting(Anime::getId).doesNotContainNull();
+        Assertions.assertThat(summary.getNumberOfElements()).isEqualTo(3);
+        Assertions.assertThat(summary.getTotalElements()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Pooled async client serves more requests per second than a RestTemplate per call")
+    void pooledAsyncClientIsFasterThanRestTemplatePerCall() {
+        List<Anime> saved = client.saveAllAsync(IntStream.range(0, 100)
+                        .mapToObj(i -> AnimePostRequestBody.builder().name("Anime " + i).build())
+                        .collect(Collectors.toList()))
+                .join();
+        List<Long> ids = LongStream.range(0, REQUESTS)
+                .mapToObj(i -> saved.get((int) (i % saved.size())).getId())
+                .collect(Collectors.toList());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        //Aquecimento dos dois caminhos antes de medir
+        client.getAllAsync(ids.subList(0, 200)).join();
+        ids.subList(0, 200).forEach(id -> getWithNewRestTemplate(id, headers));
+
+        long start = System.nanoTime();
+        ids.forEach(id -> getWithNewRestTemplate(id, headers));
+        double restTemplatePerSecond = REQUESTS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        List<Anime> animes = client.getAllAsync(ids).join();
+        double clientPerSecond = REQUESTS / ((System.nanoTime() - start) / 1e9);
+
+        log.info("GET /animes/{id}: RestTemplate per call {} req/s, AnimeClient {} req/s",
+                Math.round(restTemplatePerSecond), Math.round(clientPerSecond));
+        Assertions.assertThat(animes).hasSize(REQUESTS).doesNotContainNull();
+    }
+
+    private Anime getWithNewRestTemplate(long id, HttpHeaders headers) {
+        return new RestTemplate().exchange("http://localhost:" + port + "/animes/{id}", HttpMethod.GET,
+                new HttpEntity<>(headers), Anime.class, id).getBody();
+    }
+}
@@ -0,0 +1,123 @@
+package com.jfalves.springboot.integration;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.filter.SqlBudgetFilter;
+import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.service.TokenService;
+import com.jfalves.springboot.util.AnimeCreator;
+import com.jfalves.springboot.util.AnimePostRequestBodyCreator;
+import com.jfalves.springboot.util.SqlBudgetAssert;
+import com.jfalves.springboot.wrapper.PageableResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Pins how many SQL statements and rows each anime endpoint costs, from the X-Sql-* headers. Runs
+ * with the unit tests; authenticates with a token so the user lookup of Basic auth does not count.
+ */
+@AutoConfigureTestDatabase
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AnimeSqlBudgetTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private AnimeRepository repository;
+
+    private TestRestTemplate testRestTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String token = tokenService.issue(new UsernamePasswordAuthenticationToken("sql-budget", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+        testRestTemplate = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + port)
+                .defaultHeader("Authorization", "Bearer " + token));
+    }
+
+    @Test
+    @DisplayName("List reads the page and the count, one row each")
+    void listReadsPageAndCountOneRowEach() {
+        repository.save(AnimeCreator.createAnimeToBeSaved());
+        repository.save(AnimeCreator.createAnimeToBeSaved());
+
+        //Tamanho e ordem só deste teste: a página não está no cache de respostas
+        ResponseEntity<PageableResponse<Anime>> response = testRestTemplate.exchange("/animes?size=1&sort=id,desc",
+                HttpMethod.GET, null, new ParameterizedTypeReference<PageableResponse<Anime>>() {
+                });
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        //Página + count; as linhas vêm de uma projeção, não de entidades
+        SqlBudgetAssert.assertThat(response).issuedAtMostStatements(2).fetchedAtMostRows(2);
+        Assertions.assertThat(response.getHeaders().getFirst(SqlBudgetFilter.ROWS_HEADER)).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Find by id reads one row")
+    void findByIdReadsOneRow() {
+        Anime savedAnime = repository.save(AnimeCreator.createAnimeToBeSaved());
+
+        ResponseEntity<Anime> response = testRestTemplate.getForEntity("/animes/{id}", Anime.class, savedAnime.getId());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        SqlBudgetAssert.assertThat(response).issuedAtMostStatements(1).fetchedAtMostRows(1);
+        Assertions.assertThat(response.getHeaders().getFirst(SqlBudgetFilter.ROWS_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Save issues at most the sequence call and the insert")
+    void saveIssuesAtMostSequenceCallAndInsert() {
+        ResponseEntity<Anime> response = testRestTemplate.postForEntity("/animes",
+                AnimePostRequestBodyCreator.createAnimePostRequestBody(), Anime.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        //Os ids vêm em blocos do pooled-lo, normalmente só o insert
+        SqlBudgetAssert.assertThat(response).issuedAtMostStatements(2);
+    }
+
+    @Test
+    @DisplayName("Replace issues a single update")
+    void replaceIssuesSingleUpdate() {
+        Anime savedAnime = repository.save(AnimeCreator.createAnimeToBeSaved());
+        AnimePutRequestBody body = AnimePutRequestBody.builder().id(savedAnime.getId()).name("new name").build();
+
+        ResponseEntity<Void> response = testRestTemplate.exchange("/animes/{id}", HttpMethod.PUT,
+                new HttpEntity<>(body), Void.class, savedAnime.getId());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        //Sem o find antes
+        SqlBudgetAssert.assertThat(response).issuedAtMostStatements(1).fetchedAtMostRows(0);
+    }
+
+    @Test
+    @DisplayName("Delete issues a single delete")
+    void deleteIssuesSingleDelete() {
+        Anime savedAnime = repository.save(AnimeCreator.createAnimeToBeSaved());
+
+        ResponseEntity<Void> response = testRestTemplate.exchange("/animes/{id}", HttpMethod.DELETE, null,
+                Void.class, savedAnime.getId());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        SqlBudgetAssert.assertThat(response).issuedAtMostStatements(1).fetchedAtMostRows(0);
+    }
+}
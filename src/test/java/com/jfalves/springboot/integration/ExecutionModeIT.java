@@ -0,0 +1,128 @@
+package com.jfalves.springboot.integration;
+
+import com.jfalves.springboot.SpringbootEssentialsApplication;
+import com.jfalves.springboot.config.ExecutionProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.service.AnimeService;
+import com.jfalves.springboot.service.TokenService;
+import lombok.extern.log4j.Log4j2;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Local comparison of the jalves.execution modes: the same burst of concurrent GET /animes/{id},
+ * each spending {@link #LATENCY} blocked in AnimeService (standing in for a slow JDBC round trip),
+ * against the application started once per mode. Prints requests/s and the status codes per mode.
+ * <p>
+ * Run it on JDK 21 for the virtual thread numbers, e.g. {@code mvn test -Dtest=ExecutionModeIT
+ * -Djvm=$JDK21/bin/java}; the burst size can be changed with -DexecutionModeIT.requests. Each
+ * request holds a socket on both ends, so the open files limit has to fit twice the burst.
+ */
+@Log4j2
+class ExecutionModeIT {
+
+    private static final int REQUESTS = Integer.getInteger("executionModeIT.requests", 10_000);
+    private static final Duration LATENCY = Duration.ofMillis(200);
+
+    @Test
+    @DisplayName("Every execution mode answers a burst of slow requests")
+    void everyExecutionModeAnswersBurstOfSlowRequests() {
+        Map<ExecutionProperties.Mode, String> results = new EnumMap<>(ExecutionProperties.Mode.class);
+        for (ExecutionProperties.Mode mode : ExecutionProperties.Mode.values()) {
+            results.put(mode, runBurst(mode));
+        }
+        results.forEach((mode, result) -> log.info("{} concurrent requests, {} ms each, {}: {}",
+                REQUESTS, LATENCY.toMillis(), mode, result));
+    }
+
+    private String runBurst(ExecutionProperties.Mode mode) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SpringbootEssentialsApplication.class, SlowServiceConfig.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:execution-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=info",
+                        "--server.tomcat.max-connections=" + (REQUESTS + 1000),
+                        "--server.tomcat.accept-count=" + REQUESTS,
+                        "--jalves.execution.mode=" + mode,
+                        //Fila do tamanho da rajada: aqui compara vazão, não descarte de carga
+                        "--jalves.execution.queue-capacity=" + REQUESTS,
+                        "--jalves.execution.timeout=5m")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Anime anime = context.getBean(AnimeRepository.class).save(Anime.builder().name("Slow anime").build());
+            String token = context.getBean(TokenService.class).issue(new UsernamePasswordAuthenticationToken(
+                    "execution-it", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMinutes(1)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes/" + anime.getId()))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofMinutes(5))
+                    .build();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Integer>> responses = IntStream.range(0, REQUESTS)
+                    .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                            .thenApply(HttpResponse::statusCode)
+                            .exceptionally(e -> -1))
+                    .collect(Collectors.toList());
+            Map<Integer, Long> statuses = responses.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Assertions.assertThat(statuses).containsOnlyKeys(200);
+            return String.format("%.1f s, %.0f requests/s, statuses %s", seconds, REQUESTS / seconds, statuses);
+        }
+    }
+
+    @Configuration
+    static class SlowServiceConfig {
+
+        @Bean
+        static BeanPostProcessor slowAnimeService() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof AnimeService) {
+                        ((Advised) bean).addAdvice(0, (MethodInterceptor) invocation -> {
+                            Thread.sleep(LATENCY.toMillis());
+                            return invocation.proceed();
+                        });
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
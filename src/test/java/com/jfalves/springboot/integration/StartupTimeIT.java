@@ -0,0 +1,194 @@
+package com.jfalves.springboot.integration;
+
+import com.jfalves.springboot.SpringbootEssentialsApplication;
+import com.jfalves.springboot.config.TokenProperties;
+import com.jfalves.springboot.service.TokenService;
+import lombok.extern.log4j.Log4j2;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request of the default profile against the fast startup setup: prod profile
+ * (Flyway instead of ddl-auto, lazy initialization, DispatcherServlet on startup) with an AppCDS
+ * archive, built here the same way as by the {@code appcds} maven profile. Each run is a new JVM,
+ * timed from its launch until GET /animes answers 200, on the jars a deployment would have
+ * (target/classes as a jar, no test classes, no devtools) and an H2 file database that was
+ * already migrated, as a pod scaling out would find it.
+ * <p>
+ * {@code mvn test -Dtest=StartupTimeIT}; -DstartupTimeIT.runs changes the runs per setup.
+ */
+@Log4j2
+class StartupTimeIT {
+
+    private static final int RUNS = Integer.getInteger("startupTimeIT.runs", 5);
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Prod profile with AppCDS answers the first request sooner than the default profile")
+    void prodProfileWithAppCdsAnswersFirstRequestSoonerThanDefaultProfile() throws Exception {
+        String classpath = deploymentClasspath();
+        Path archive = directory.resolve("app.jsa");
+        Path classList = directory.resolve("app.classlist");
+
+        //Treino: cria/migra os bancos e grava as classes carregadas no startup do prod
+        run(classpath, "default", Collections.emptyList(), true);
+        run(classpath, "prod", Arrays.asList("-Xshare:off", "-XX:DumpLoadedClassList=" + classList), true);
+        Process dump = new ProcessBuilder(java(), "-Xshare:dump", "-XX:SharedClassListFile=" + classList,
+                "-XX:SharedArchiveFile=" + archive, "-cp", classpath)
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("dump.log").toFile())
+                .start();
+        Assertions.assertThat(dump.waitFor()).as("AppCDS dump failed").isZero();
+
+        List<Long> defaultProfile = new ArrayList<>();
+        List<Long> prodProfile = new ArrayList<>();
+        //Alternados, para que ruído da máquina pese igual nos dois
+        for (int run = 0; run < RUNS; run++) {
+            defaultProfile.add(run(classpath, "default", Collections.emptyList(), false));
+            prodProfile.add(run(classpath, "prod", Collections.singletonList("-XX:SharedArchiveFile=" + archive), false));
+        }
+
+        long defaultMedian = median(defaultProfile);
+        long prodMedian = median(prodProfile);
+        log.info("Time to first request, median of {} runs: default {} ms {}, prod with AppCDS {} ms {}",
+                RUNS, defaultMedian, defaultProfile, prodMedian, prodProfile);
+        Assertions.assertThat(prodMedian).isLessThan(defaultMedian);
+    }
+
+    /**
+     * @return milliseconds from the JVM launch to the first 200 of GET /animes, or to its exit
+     * when it is a training run
+     */
+    private long run(String classpath, String profile, List<String> jvmOptions, boolean training) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(jvmOptions);
+        command.addAll(Arrays.asList(
+                "-cp", classpath,
+                SpringbootEssentialsApplication.class.getName(),
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:file:" + directory.resolve(profile),
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--jalves.security.token.active-key=startup",
+                "--jalves.security.token.keys.startup=" + KEY,
+                "--jalves.startup.exit-after-startup=" + training));
+        Path output = directory.resolve(profile + ".log");
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes?size=1"))
+                .header("Authorization", "Bearer " + token())
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output.toFile()).start();
+        try {
+            if (training) {
+                Assertions.assertThat(process.waitFor()).as("training run failed, see %s", output).isZero();
+                return (System.nanoTime() - start) / 1_000_000;
+            }
+            while (true) {
+                Assertions.assertThat(process.isAlive()).as("app exited, see %s", output).isTrue();
+                Assertions.assertThat(System.nanoTime() - start).as("app did not start, see %s", output)
+                        .isLessThan(Duration.ofMinutes(2).toNanos());
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (ConnectException e) {
+                    //Tomcat ainda não está escutando
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * The application classes as a jar (AppCDS on JDK 11 only archives classes from jars) followed
+     * by the dependency jars, without test classes and devtools.
+     */
+    private String deploymentClasspath() throws IOException {
+        Path classes = Path.of(SpringbootEssentialsApplication.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+        Path jar = directory.resolve("app.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            //Entradas de diretório também: sem elas o component scan não acha os pacotes no jar
+            for (Path file : (Iterable<Path>) files.filter(file -> !file.equals(classes))::iterator) {
+                String name = classes.relativize(file).toString().replace(File.separatorChar, '/');
+                boolean isDirectory = Files.isDirectory(file);
+                out.putNextEntry(new JarEntry(isDirectory ? name + "/" : name));
+                if (!isDirectory) {
+                    Files.copy(file, (OutputStream) out);
+                }
+                out.closeEntry();
+            }
+        }
+
+        //Com o surefire o classpath real está nessa propriedade, java.class.path só tem o jar de boot
+        String testClasspath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        return Stream.concat(Stream.of(jar.toString()), Arrays.stream(testClasspath.split(File.pathSeparator))
+                        .filter(entry -> entry.endsWith(".jar"))
+                        .filter(entry -> !entry.contains("spring-boot-devtools")))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static String token() {
+        TokenProperties properties = new TokenProperties();
+        properties.setActiveKey("startup");
+        properties.setKeys(Collections.singletonMap("startup", KEY));
+        return new TokenService(properties).issue(new UsernamePasswordAuthenticationToken(
+                "startup-it", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(List<Long> millis) {
+        List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
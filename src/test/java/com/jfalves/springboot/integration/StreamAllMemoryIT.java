@@ -0,0 +1,152 @@
+package com.jfalves.springboot.integration;
+
+import com.jfalves.springboot.SpringbootEssentialsApplication;
+import com.jfalves.springboot.config.TokenProperties;
+import com.jfalves.springboot.controller.AnimeController;
+import com.jfalves.springboot.service.TokenService;
+import lombok.extern.log4j.Log4j2;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams a catalog of 1M animes through GET /animes/all/stream from an application started in
+ * its own JVM with a heap far below what the catalog takes as entities (about 300 MB with the
+ * persistence context), so it only passes when memory stays flat while the rows go out.
+ * <p>
+ * {@code mvn test -Dtest=StreamAllMemoryIT}; -DstreamAllMemoryIT.rows and
+ * -DstreamAllMemoryIT.heap change the catalog size and the heap cap.
+ */
+@Log4j2
+class StreamAllMemoryIT {
+
+    private static final int ROWS = Integer.getInteger("streamAllMemoryIT.rows", 1_000_000);
+    private static final String HEAP = System.getProperty("streamAllMemoryIT.heap", "128m");
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Stream all sends every anime of a 1M catalog from a JVM with a small fixed heap")
+    void streamAllSendsEveryAnimeOfLargeCatalogWithSmallFixedHeap() throws Exception {
+        String url = "jdbc:h2:file:" + directory.resolve("anime");
+        //Tabela já populada, como o ddl-auto update a deixaria; o banco em arquivo fica fora do heap limitado
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table anime (id bigint not null, name varchar(255), version bigint, primary key (id))");
+            statement.execute("insert into anime (id, name, version) select x, concat('Anime ', x), 0 from system_range(1, " + ROWS + ")");
+        }
+
+        int port = freePort();
+        Path output = directory.resolve("app.log");
+        Process process = new ProcessBuilder(
+                java(), "-Xmx" + HEAP, "-XX:+ExitOnOutOfMemoryError",
+                "-cp", classpath(),
+                SpringbootEssentialsApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.hibernate.SQL=info",
+                //O índice de busca guardaria o catálogo inteiro em memória
+                "--jalves.search.rebuild-on-startup=false",
+                "--jalves.security.token.active-key=stream",
+                "--jalves.security.token.keys.stream=" + KEY)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes/all/stream"))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                    .header(HttpHeaders.ACCEPT, AnimeController.APPLICATION_NDJSON_VALUE)
+                    .build();
+            awaitStartup(process, client, port, output);
+
+            long start = System.nanoTime();
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            long lines;
+            try (Stream<String> body = response.body()) {
+                lines = body.count();
+            }
+            log.info("Streamed {} animes in {} ms with -Xmx{}", lines, (System.nanoTime() - start) / 1_000_000, HEAP);
+
+            Assertions.assertThat(response.statusCode()).isEqualTo(200);
+            Assertions.assertThat(lines).as("animes streamed, see %s", output).isEqualTo(ROWS);
+            Assertions.assertThat(process.isAlive()).as("app ran out of memory, see %s", output).isTrue();
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void awaitStartup(Process process, HttpClient client, int port, Path output) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes/admin/health")).build();
+        long start = System.nanoTime();
+        while (true) {
+            Assertions.assertThat(process.isAlive()).as("app exited, see %s", output).isTrue();
+            Assertions.assertThat(System.nanoTime() - start).as("app did not start, see %s", output)
+                    .isLessThan(Duration.ofMinutes(2).toNanos());
+            try {
+                client.send(health, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (ConnectException e) {
+                //Tomcat ainda não está escutando
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    //Com o surefire o classpath real está nessa propriedade, java.class.path só tem o jar de boot
+    private static String classpath() {
+        String testClasspath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        return Arrays.stream(testClasspath.split(File.pathSeparator))
+                .filter(entry -> !entry.contains("spring-boot-devtools"))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static String token() {
+        TokenProperties properties = new TokenProperties();
+        properties.setActiveKey("stream");
+        properties.setKeys(Collections.singletonMap("stream", KEY));
+        return new TokenService(properties).issue(new UsernamePasswordAuthenticationToken(
+                "stream-it", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.jfalves.springboot.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+class AnimeMetricsTest {
+
+    private AnimeMetrics metrics;
+    private CollectorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CollectorRegistry();
+        metrics = new AnimeMetrics().register(registry);
+    }
+
+    @Test
+    @DisplayName("record counts latency in the first bucket whose bound is not below it")
+    void record_CountsLatencyInFirstBucketNotBelowIt_WhenSuccessful() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.SECONDS.toNanos(30));
+
+        long[] cumulative = histogram.cumulativeCounts();
+        Assertions.assertThat(cumulative[0]).isEqualTo(1);
+        Assertions.assertThat(cumulative[1]).isEqualTo(2);
+        Assertions.assertThat(cumulative[cumulative.length - 2]).isEqualTo(2);
+        Assertions.assertThat(cumulative[cumulative.length - 1]).isEqualTo(3);
+        Assertions.assertThat(histogram.count()).isEqualTo(3);
+        Assertions.assertThat(histogram.sumSeconds()).isCloseTo(30.0013, Assertions.within(1e-9));
+    }
+
+    @Test
+    @DisplayName("collect exposes latency, responses by status and in-flight count of each handler")
+    void collect_ExposesLatencyResponsesAndInFlightOfEachHandler_WhenSuccessful() throws Exception {
+        Method handler = String.class.getMethod("trim");
+        RequestMetrics requestMetrics = metrics.handler(handler);
+        requestMetrics.started();
+        requestMetrics.started();
+        requestMetrics.finished();
+        requestMetrics.record(200, TimeUnit.MILLISECONDS.toNanos(2));
+        requestMetrics.record(200, TimeUnit.MILLISECONDS.toNanos(3));
+        requestMetrics.record(404, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.unmatched().record(401, TimeUnit.MILLISECONDS.toNanos(1));
+
+        String[] handlerLabel = {"handler"};
+        String[] trim = {"String.trim"};
+        Assertions.assertThat(metrics.handler(handler)).isSameAs(requestMetrics);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_requests_seconds_count", handlerLabel, trim))
+                .isEqualTo(3);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_requests_seconds_bucket",
+                new String[]{"handler", "le"}, new String[]{"String.trim", "0.0025"})).isEqualTo(2);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_responses_total",
+                new String[]{"handler", "status"}, new String[]{"String.trim", "200"})).isEqualTo(2);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_responses_total",
+                new String[]{"handler", "status"}, new String[]{"String.trim", "404"})).isEqualTo(1);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_responses_total",
+                new String[]{"handler", "status"}, new String[]{AnimeMetrics.UNMATCHED_HANDLER, "401"})).isEqualTo(1);
+        Assertions.assertThat(registry.getSampleValue("anime_http_server_requests_in_flight", handlerLabel, trim))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("method keeps overloads apart and returns the same meters for the same signature")
+    void method_KeepsOverloadsApart_WhenSuccessful() throws Exception {
+        MethodMetrics substring = metrics.method("AnimeService", String.class.getMethod("substring", int.class));
+        MethodMetrics substringRange = metrics.method("AnimeService",
+                String.class.getMethod("substring", int.class, int.class));
+
+        Assertions.assertThat(substring).isNotSameAs(substringRange);
+        Assertions.assertThat(substring.getMethod()).isEqualTo("substring(int)");
+        Assertions.assertThat(substringRange.getMethod()).isEqualTo("substring(int,int)");
+        Assertions.assertThat(metrics.method("AnimeService", String.class.getMethod("substring", int.class)))
+                .isSameAs(substring);
+    }
+
+    @Test
+    @DisplayName("MethodTimingInterceptor times calls and counts the ones that throw")
+    void methodTimingInterceptor_TimesCallsAndCountsErrors_WhenSuccessful() {
+        ProxyFactory proxyFactory = new ProxyFactory(LongUnaryOperator.class, new MethodTimingInterceptor("AnimeService",
+                metrics));
+        proxyFactory.setTarget((LongUnaryOperator) value -> 10 / value);
+        LongUnaryOperator proxy = (LongUnaryOperator) proxyFactory.getProxy();
+
+        Assertions.assertThat(proxy.applyAsLong(2)).isEqualTo(5);
+        Assertions.assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> proxy.applyAsLong(0));
+
+        String[] labelNames = {"component", "method"};
+        String[] labelValues = {"AnimeService", "applyAsLong(long)"};
+        Assertions.assertThat(registry.getSampleValue("anime_method_seconds_count", labelNames, labelValues))
+                .isEqualTo(2);
+        Assertions.assertThat(registry.getSampleValue("anime_method_errors_total", labelNames, labelValues))
+                .isEqualTo(1);
+    }
+}
@@ -4,14 +4,25 @@ import com.jfalves.springboot.domain.Anime;
 import com.jfalves.springboot.util.AnimeCreator;
 import lombok.extern.log4j.Log4j2;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import javax.validation.ConstraintViolationException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Log4j2
 @DataJpaTest
@@ -21,6 +32,9 @@ class AnimeRepositoryTest {
     @Autowired
     private AnimeRepository animeRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     @Test
     @DisplayName("Save persist anime when successful")
     void savePersistAnimeWhenSuccessful() {
@@ -71,21 +85,76 @@ class AnimeRepositoryTest {
 
         String name = animeSaved.getName();
 
-        List<Anime> animes = this.animeRepository.findByName(name);
+        List<Anime> animes = this.animeRepository.findByNameReadOnly(name);
 
         Assertions.assertThat(animes).isNotEmpty();
-        Assertions.assertThat(animes).contains(animeSaved);
+        Assertions.assertThat(animes).extracting(Anime::getId).contains(animeSaved.getId());
 
     }
 
     @Test
     @DisplayName("Find by name return empty list when not anime is found ")
     void findByNameReturnsEmptyListWhenAnimeIsNotFound() {
-        List<Anime> animes = this.animeRepository.findByName("xpto");
+        List<Anime> animes = this.animeRepository.findByNameReadOnly("xpto");
 
         Assertions.assertThat(animes).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find all after returns the animes following the cursor position when successful")
+    void findAllAfterReturnsAnimesFollowingCursorWhenSuccessful() {
+        Anime first = this.animeRepository.save(Anime.builder().name("Berserk").build());
+        Anime second = this.animeRepository.save(Anime.builder().name("Berserk").build());
+        Anime third = this.animeRepository.save(Anime.builder().name("Claymore").build());
+
+        Slice<Anime> slice = this.animeRepository.findAllAfter(first.getName(), first.getId(),
+                PageRequest.of(0, 1, Sort.by("name", "id")));
+
+        Assertions.assertThat(slice.getContent()).containsExactly(second);
+        Assertions.assertThat(slice.hasNext()).isTrue();
+
+        Slice<Anime> lastSlice = this.animeRepository.findAllAfter(second.getName(), second.getId(),
+                PageRequest.of(0, 1, Sort.by("name", "id")));
+
+        Assertions.assertThat(lastSlice.getContent()).containsExactly(third);
+        Assertions.assertThat(lastSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Find all read only returns sorted page with total without managing the animes when successful")
+    void findAllReadOnlyReturnsSortedPageWithoutManagingAnimesWhenSuccessful() {
+        Anime claymore = this.animeRepository.save(Anime.builder().name("Claymore").build());
+        Anime berserk = this.animeRepository.save(Anime.builder().name("Berserk").build());
+        this.animeRepository.save(Anime.builder().name("Hajime no Ippo").build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Page<Anime> page = this.animeRepository.findAllReadOnly(PageRequest.of(0, 2, Sort.by("name")));
+
+        Assertions.assertThat(page.getContent()).extracting(Anime::getId)
+                .containsExactly(berserk.getId(), claymore.getId());
+        Assertions.assertThat(page.getContent()).extracting(Anime::getVersion).containsOnly(0L);
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(3);
+        Assertions.assertThat(page.getContent()).noneMatch(testEntityManager.getEntityManager()::contains);
+    }
+
+    @Test
+    @DisplayName("Find by name read only returns detached animes and find slice read only pages without count")
+    void findByNameReadOnlyAndFindSliceReadOnlyReturnDetachedAnimesWhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<Anime> animes = this.animeRepository.findByNameReadOnly(animeSaved.getName());
+        Slice<Anime> slice = this.animeRepository.findSliceReadOnly(PageRequest.of(0, 1));
+
+        Assertions.assertThat(animes).extracting(Anime::getId).containsExactly(animeSaved.getId());
+        Assertions.assertThat(slice.getContent()).extracting(Anime::getName).containsExactly(animeSaved.getName());
+        Assertions.assertThat(slice.hasNext()).isFalse();
+        Assertions.assertThat(testEntityManager.getEntityManager().unwrap(Session.class).getStatistics()
+                .getEntityCount()).isZero();
+    }
+
     @Test
     @DisplayName("Save throw constraint violation exception when name is empty")
     void saveThrowsConstraintViolationExceptionWhenNameIsEmpty() {
@@ -93,7 +162,110 @@ class AnimeRepositoryTest {
 //        Assertions.assertThatThrownBy(() -> this.animeRepository.save(anime))
 //                .isInstanceOf(ConstraintViolationException.class);
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> this.animeRepository.save(anime))
+                .isThrownBy(() -> this.animeRepository.saveAndFlush(anime))
                 .withMessageContaining("The anime name cannot be empty");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Update name by id changes one row without loading the anime when successful")
+    void updateNameByIdChangesOneRowWhenSuccessful() {
+        Anime animeSaved = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        int updated = this.animeRepository.updateNameById(animeSaved.getId(), "Overlord");
+        testEntityManager.clear();
+
+        Assertions.assertThat(updated).isEqualTo(1);
+        Assertions.assertThat(this.animeRepository.findById(animeSaved.getId()))
+                .get().extracting(Anime::getName).isEqualTo("Overlord");
+        Assertions.assertThat(this.animeRepository.updateNameById(animeSaved.getId() + 1000, "Overlord")).isZero();
+    }
+
+    @Test
+    @DisplayName("Update name by id and version changes the row only when the version matches")
+    void updateNameByIdAndVersionChangesRowOnlyWhenVersionMatches() {
+        Anime animeSaved = this.animeRepository.saveAndFlush(AnimeCreator.createAnimeToBeSaved());
+        long version = animeSaved.getVersion();
+
+        int updated = this.animeRepository.updateNameByIdAndVersion(animeSaved.getId(), "Overlord", version);
+        int stale = this.animeRepository.updateNameByIdAndVersion(animeSaved.getId(), "Bleach", version);
+        testEntityManager.clear();
+
+        Assertions.assertThat(updated).isEqualTo(1);
+        Assertions.assertThat(stale).isZero();
+        Anime animeUpdated = this.animeRepository.findById(animeSaved.getId()).orElseThrow();
+        Assertions.assertThat(animeUpdated.getName()).isEqualTo("Overlord");
+        Assertions.assertThat(animeUpdated.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @DisplayName("Remove all by id in deletes every anime in a single statement when successful")
+    void removeAllByIdInDeletesEveryAnimeWhenSuccessful() {
+        Anime first = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+
+        int removed = this.animeRepository.removeAllByIdIn(List.of(first.getId(), second.getId(), second.getId() + 1000));
+
+        Assertions.assertThat(removed).isEqualTo(2);
+        Assertions.assertThat(this.animeRepository.removeById(first.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Update names renames every anime in one JDBC batch when successful")
+    void updateNamesRenamesEveryAnimeWhenSuccessful() {
+        Anime first = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Map<Long, String> namesById = new LinkedHashMap<>();
+        namesById.put(first.getId(), "Naruto");
+        namesById.put(second.getId() + 1000, "Missing");
+        namesById.put(second.getId(), "Bleach");
+
+        int[] updated = this.animeRepository.updateNames(namesById);
+        testEntityManager.clear();
+
+        Assertions.assertThat(updated).containsExactly(1, 0, 1);
+        Assertions.assertThat(this.animeRepository.findById(first.getId())).get().extracting(Anime::getName).isEqualTo("Naruto");
+        Assertions.assertThat(this.animeRepository.findById(second.getId())).get().extracting(Anime::getName).isEqualTo("Bleach");
+    }
+
+    @Test
+    @DisplayName("Update names counts its JDBC batch as one statement of the current request")
+    void updateNamesCountsBatchAsOneStatementOfCurrentRequest() {
+        Anime first = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        Anime second = this.animeRepository.save(AnimeCreator.createAnimeToBeSaved());
+        testEntityManager.flush();
+
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            this.animeRepository.updateNames(Map.of(first.getId(), "Naruto", second.getId(), "Bleach"));
+        } finally {
+            SqlStatementStats.stop();
+        }
+
+        Assertions.assertThat(stats.getStatements()).isEqualTo(1);
+        Assertions.assertThat(stats.getSql()).hasSize(1).allMatch(sql -> sql.startsWith("update anime set name"));
+    }
+
+    @Test
+    @DisplayName("Stream all returns every anime without keeping them in the persistence context")
+    void streamAllReturnsEveryAnimeDetachedWhenSuccessful() {
+        int rows = 100_000;
+        testEntityManager.getEntityManager()
+                .createNativeQuery("insert into anime (id, name) select x, concat('Anime ', x) from system_range(1, " + rows + ")")
+                .executeUpdate();
+        testEntityManager.clear();
+
+        Session session = testEntityManager.getEntityManager().unwrap(Session.class);
+        AtomicLong streamed = new AtomicLong();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+
+        try (Stream<Anime> animes = this.animeRepository.streamAll()) {
+            animes.forEach(anime -> {
+                streamed.incrementAndGet();
+                maxManagedEntities.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+            });
+        }
+
+        Assertions.assertThat(streamed.get()).isEqualTo(rows);
+        Assertions.assertThat(maxManagedEntities.get()).isZero();
+    }
+}
@@ -0,0 +1,57 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.util.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataJpaTest
+@Import(AnimeSequenceSeeder.class)
+//O alter sequence do H2 faz commit, então o teste não roda dentro de uma transação revertida
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Test for anime sequence seeder")
+class AnimeSequenceSeederTest {
+
+    @Autowired
+    private AnimeSequenceSeeder animeSequenceSeeder;
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteAnimes() {
+        jdbcTemplate.update("delete from anime");
+    }
+
+    @Test
+    @DisplayName("Seed moves the sequence past rows inserted with explicit ids so saves through the pooled generator do not collide")
+    void seedMovesSequencePastExplicitIdsSoPooledSavesDoNotCollide() {
+        //Linhas com ids da época do IDENTITY, com o anime_seq ainda no início
+        jdbcTemplate.update("insert into anime (id, name, version) select x, concat('Anime ', x), 0 from system_range(1, 120)");
+
+        animeSequenceSeeder.seed();
+
+        //Mais de um bloco de 50 ids
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add(animeRepository.saveAndFlush(AnimeCreator.createAnimeToBeSaved()).getId());
+        }
+
+        Assertions.assertThat(ids).allSatisfy(id -> Assertions.assertThat(id).isGreaterThan(120L)).doesNotHaveDuplicates();
+        Assertions.assertThat(animeRepository.count()).isEqualTo(180);
+    }
+}
@@ -0,0 +1,68 @@
+package com.jfalves.springboot.repository;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LockFreePooledLoOptimizerTest {
+
+    private static final int INCREMENT_SIZE = 50;
+
+    @Test
+    @DisplayName("Generate hands out unique ids across threads fetching one block per increment size")
+    void generateHandsOutUniqueIdsFetchingOneBlockPerIncrementSize() throws Exception {
+        LockFreePooledLoOptimizer optimizer = new LockFreePooledLoOptimizer(Long.class, INCREMENT_SIZE);
+        SequenceCallback sequence = new SequenceCallback();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int idsPerThread = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add((Long) optimizer.generate(sequence));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Assertions.assertThat(ids).hasSize(threads * idsPerThread);
+        Assertions.assertThat(ids).allMatch(id -> id >= 1 && id <= threads * idsPerThread);
+        Assertions.assertThat(sequence.calls.get()).isEqualTo(threads * idsPerThread / INCREMENT_SIZE);
+    }
+
+    private static class SequenceCallback implements AccessCallback {
+        private final AtomicLong nextValue = new AtomicLong(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            calls.incrementAndGet();
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class)
+                    .initialize(nextValue.getAndAdd(INCREMENT_SIZE));
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}
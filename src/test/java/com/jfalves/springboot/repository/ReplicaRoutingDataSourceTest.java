@@ -0,0 +1,199 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.config.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Primary and replicas are separate H2 databases, each with a single row naming itself.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Read only transactions alternate between the replicas when selection is round robin")
+    void readOnlyTransactionsAlternateBetweenReplicasWhenSelectionIsRoundRobin() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                database("replica-a"), database("replica-b"));
+
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(routing.read());
+        }
+
+        Assertions.assertThat(reads).containsExactly("replica-a", "replica-b", "replica-a", "replica-b");
+    }
+
+    @Test
+    @DisplayName("Write transactions and statements outside transactions go to the primary")
+    void writeTransactionsAndStatementsOutsideTransactionsGoToPrimary() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                database("replica-a"));
+
+        Assertions.assertThat(routing.write()).isEqualTo("primary");
+        Assertions.assertThat(routing.jdbcTemplate.queryForObject("SELECT name FROM source", String.class))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Reads of a user go to the primary during the read-your-writes window after a write")
+    void readsOfUserGoToPrimaryDuringReadYourWritesWindowAfterWrite() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                database("replica-a"));
+        authenticate("writer");
+        routing.write();
+
+        Assertions.assertThat(routing.read()).isEqualTo("primary");
+        authenticate("someone else");
+        Assertions.assertThat(routing.read()).isEqualTo("replica-a");
+
+        authenticate("writer");
+        ticker.addAndGet(Duration.ofSeconds(6).toNanos());
+        Assertions.assertThat(routing.read()).isEqualTo("replica-a");
+    }
+
+    @Test
+    @DisplayName("Read only transactions inside readFromPrimary go to the primary")
+    void readOnlyTransactionsInsideReadFromPrimaryGoToPrimary() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                database("replica-a"));
+
+        Assertions.assertThat(ReplicaRoutingDataSource.readFromPrimary(routing::read)).isEqualTo("primary");
+        Assertions.assertThat(ReplicaRoutingDataSource.readFromPrimary(
+                () -> ReplicaRoutingDataSource.readFromPrimary(routing::read) + routing.read())).isEqualTo("primaryprimary");
+        Assertions.assertThat(routing.read()).isEqualTo("replica-a");
+    }
+
+    @Test
+    @DisplayName("Reads skip a replica that is down")
+    void readsSkipReplicaThatIsDown() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                notCreatedYet("replica-down"), database("replica-b"));
+
+        Assertions.assertThat(routing.read()).isEqualTo("replica-b");
+        Assertions.assertThat(routing.read()).isEqualTo("replica-b");
+    }
+
+    @Test
+    @DisplayName("Reads go to the primary when every replica is down and return to a replica after retry-after")
+    void readsGoToPrimaryWhenEveryReplicaIsDownAndReturnToReplicaAfterRetryAfter() {
+        Routing routing = routing(ReplicaRoutingProperties.Selection.ROUND_ROBIN, database("primary"),
+                notCreatedYet("replica-late"));
+        Assertions.assertThat(routing.read()).isEqualTo("primary");
+
+        database("replica-late");
+        Assertions.assertThat(routing.read()).isEqualTo("primary");
+
+        ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+        Assertions.assertThat(routing.read()).isEqualTo("replica-late");
+    }
+
+    @Test
+    @DisplayName("Reads go to the replica with fewer connections in use when selection is least loaded")
+    void readsGoToReplicaWithFewerConnectionsInUseWhenSelectionIsLeastLoaded() throws Exception {
+        try (HikariDataSource busy = pool("replica-a");
+             HikariDataSource idle = pool("replica-b");
+             Connection held = busy.getConnection()) {
+            Routing routing = routing(ReplicaRoutingProperties.Selection.LEAST_LOADED, database("primary"),
+                    busy, idle);
+
+            Assertions.assertThat(routing.read()).isEqualTo("replica-b");
+            Assertions.assertThat(routing.read()).isEqualTo("replica-b");
+        }
+    }
+
+    @Test
+    @DisplayName("Connections with explicit credentials come from the primary")
+    void connectionsWithExplicitCredentialsComeFromPrimary() throws Exception {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(database("primary"),
+                Arrays.asList(database("replica-a")), ReplicaRoutingProperties.Selection.ROUND_ROBIN,
+                Duration.ofSeconds(5), Duration.ofSeconds(10), ticker::get);
+
+        try (Connection connection = routingDataSource.getConnection("", "");
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT name FROM source")) {
+            Assertions.assertThat(resultSet.next()).isTrue();
+            Assertions.assertThat(resultSet.getString(1)).isEqualTo("primary");
+        }
+    }
+
+    private Routing routing(ReplicaRoutingProperties.Selection selection, DataSource primary, DataSource... replicas) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(replicas),
+                selection, Duration.ofSeconds(5), Duration.ofSeconds(10), ticker::get);
+        return new Routing(new LazyConnectionDataSourceProxy(routingDataSource));
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS source (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM source");
+        jdbcTemplate.update("INSERT INTO source VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(database(name).getUrl());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static DataSource notCreatedYet(String name) {
+        //IFEXISTS: falha ao conectar enquanto o banco não existir
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";IFEXISTS=TRUE");
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null));
+    }
+
+    private static class Routing {
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readTransaction;
+        private final TransactionTemplate writeTransaction;
+
+        private Routing(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readTransaction = new TransactionTemplate(transactionManager);
+            this.readTransaction.setReadOnly(true);
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+        }
+
+        private String read() {
+            return readTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM source", String.class));
+        }
+
+        private String write() {
+            return writeTransaction.execute(status -> {
+                jdbcTemplate.update("UPDATE source SET name = name");
+                return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+            });
+        }
+    }
+}
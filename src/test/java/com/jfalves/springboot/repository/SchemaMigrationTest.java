@@ -0,0 +1,86 @@
+package com.jfalves.springboot.repository;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.util.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Runs the Flyway migrations (profile prod) over a database left by the ddl-auto update of the
+ * first version of the app, with IDENTITY ids, no version column and no anime_seq.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + SchemaMigrationTest.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Test for the schema migrations")
+class SchemaMigrationTest {
+
+    static final String URL = "jdbc:h2:mem:schema-migration;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeAll
+    static void createBaselineDatabase() throws SQLException {
+        //DDL que o Hibernate gerava para as entidades do primeiro commit
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table anime (id bigint generated by default as identity, name varchar(255), primary key (id))");
+            statement.execute("create table dev_dojo_user (id bigint generated by default as identity, authorities varchar(255), name varchar(255), password varchar(255), username varchar(255), primary key (id))");
+            statement.execute("insert into anime (name) values ('Hellsing'), ('Berserk'), ('Overlord')");
+        }
+    }
+
+    @Test
+    @DisplayName("Migrate baselines an existing database and applies the versions after it")
+    void migrateBaselinesExistingDatabaseAndAppliesVersionsAfterIt() {
+        @SuppressWarnings("unchecked")
+        List<Object> versions = testEntityManager.getEntityManager()
+                .createNativeQuery("select concat(\"type\", ' ', \"version\") from \"flyway_schema_history\""
+                        + " where \"version\" is not null order by \"installed_rank\"")
+                .getResultList();
+
+        Assertions.assertThat(versions).containsExactly("BASELINE 1", "SQL 2", "SQL 3");
+    }
+
+    @Test
+    @DisplayName("Migrate keeps the existing animes and starts them at version 0")
+    void migrateKeepsExistingAnimesAndStartsThemAtVersionZero() {
+        List<Anime> animes = animeRepository.findAll();
+
+        Assertions.assertThat(animes).extracting(Anime::getName).containsExactlyInAnyOrder("Hellsing", "Berserk", "Overlord");
+        Assertions.assertThat(animes).extracting(Anime::getVersion).containsOnly(0L);
+    }
+
+    @Test
+    @DisplayName("Save after migrate takes ids after the ones the database already had")
+    void saveAfterMigrateTakesIdsAfterExistingOnes() {
+        Long maxExistingId = animeRepository.findAll().stream().map(Anime::getId).max(Long::compare).orElseThrow();
+
+        Anime first = animeRepository.saveAndFlush(AnimeCreator.createAnimeToBeSaved());
+        Anime second = animeRepository.saveAndFlush(AnimeCreator.createAnimeToBeSaved());
+
+        Assertions.assertThat(first.getId()).isGreaterThan(maxExistingId);
+        Assertions.assertThat(second.getId()).isGreaterThan(first.getId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.jfalves.springboot.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.Statement;
+import java.util.Map;
+
+class SqlRowCountingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new SqlRowCountingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:row-counting;DB_CLOSE_DELAY=-1")));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS anime (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM anime");
+        jdbcTemplate.update("INSERT INTO anime (name) VALUES ('Hellsing'), ('Berserk'), ('Overlord')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementStats.stop();
+    }
+
+    @Test
+    @DisplayName("Rows read from statements and prepared statements count towards the current request")
+    void rowsReadFromStatementsAndPreparedStatementsCountTowardsCurrentRequest() {
+        SqlStatementStats stats = SqlStatementStats.start();
+
+        jdbcTemplate.queryForList("SELECT id, name FROM anime");
+        jdbcTemplate.queryForList("SELECT name FROM anime WHERE name = ?", String.class, "Berserk");
+        jdbcTemplate.queryForObject("SELECT count(*) FROM anime", Long.class);
+
+        Assertions.assertThat(stats.getRows()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Rows read outside a request and generated keys are not counted")
+    void rowsReadOutsideRequestAndGeneratedKeysAreNotCounted() {
+        jdbcTemplate.queryForList("SELECT id, name FROM anime");
+        SqlStatementStats stats = SqlStatementStats.start();
+
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> connection.prepareStatement("INSERT INTO anime (name) VALUES ('Naruto')",
+                Statement.RETURN_GENERATED_KEYS), keyHolder);
+
+        Assertions.assertThat(keyHolder.getKeyList()).extracting(Map::size).containsExactly(1);
+        Assertions.assertThat(stats.getRows()).isZero();
+    }
+}
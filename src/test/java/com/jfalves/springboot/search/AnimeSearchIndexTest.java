@@ -0,0 +1,117 @@
+package com.jfalves.springboot.search;
+
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.repository.AnimeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class AnimeSearchIndexTest {
+
+    private AnimeSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new AnimeSearchIndex(null);
+        searchIndex.put(1L, "Hajime no Ippo");
+        searchIndex.put(2L, "Hajime no Ippo: New Challenger");
+        searchIndex.put(3L, "Shingeki no Kyojin");
+        searchIndex.put(4L, "Kimetsu no Yaiba");
+    }
+
+    @Test
+    @DisplayName("Search returns exact matches ranked before longer names when successful")
+    void searchReturnsExactMatchesRankedFirstWhenSuccessful() {
+        List<Anime> animes = searchIndex.search("ippo", 10);
+
+        Assertions.assertThat(animes).extracting(Anime::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Search tolerates typos when successful")
+    void searchToleratesTyposWhenSuccessful() {
+        List<Anime> animes = searchIndex.search("shinjeki", 10);
+
+        Assertions.assertThat(animes).extracting(Anime::getName).containsExactly("Shingeki no Kyojin");
+    }
+
+    @Test
+    @DisplayName("Search ranks names matching more query tokens first")
+    void searchRanksNamesMatchingMoreTokensFirst() {
+        List<Anime> animes = searchIndex.search("no challenger", 2);
+
+        Assertions.assertThat(animes).hasSize(2);
+        Assertions.assertThat(animes.get(0).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Suggest completes the last word and keeps the typed words when successful")
+    void suggestCompletesLastWordWhenSuccessful() {
+        Assertions.assertThat(searchIndex.suggest("haj", 10))
+                .containsExactly("Hajime no Ippo", "Hajime no Ippo: New Challenger");
+
+        Assertions.assertThat(searchIndex.suggest("ippo ch", 10))
+                .containsExactly("Hajime no Ippo: New Challenger");
+    }
+
+    @Test
+    @DisplayName("Put and remove keep the index up to date")
+    void putAndRemoveKeepIndexUpToDate() {
+        searchIndex.put(3L, "Attack on Titan");
+        searchIndex.remove(4L);
+
+        Assertions.assertThat(searchIndex.search("shingeki", 10)).isEmpty();
+        Assertions.assertThat(searchIndex.search("kimetsu", 10)).isEmpty();
+        Assertions.assertThat(searchIndex.suggest("att", 10)).containsExactly("Attack on Titan");
+        Assertions.assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Rebuild keeps the writes made while it streams the table")
+    void rebuildKeepsWritesMadeWhileItStreamsTable() {
+        AnimeRepository repository = BDDMockito.mock(AnimeRepository.class);
+        AnimeSearchIndex rebuiltIndex = new AnimeSearchIndex(repository);
+        //Linhas lidas antes das escritas: o stream ainda traz o nome antigo do 1 e o 2 removido
+        BDDMockito.when(repository.streamAll()).thenAnswer(invocation -> Stream.of(
+                        Anime.builder().id(1L).name("Hajime no Ippo").build(),
+                        Anime.builder().id(2L).name("Kimetsu no Yaiba").build())
+                .peek(anime -> {
+                    if (anime.getId() == 1L) {
+                        rebuiltIndex.put(1L, "Attack on Titan");
+                        rebuiltIndex.remove(2L);
+                        rebuiltIndex.put(3L, "Shingeki no Kyojin");
+                    }
+                }));
+
+        rebuiltIndex.rebuild();
+
+        Assertions.assertThat(rebuiltIndex.search("ippo", 10)).isEmpty();
+        Assertions.assertThat(rebuiltIndex.search("kimetsu", 10)).isEmpty();
+        Assertions.assertThat(rebuiltIndex.search("titan", 10)).extracting(Anime::getId).containsExactly(1L);
+        Assertions.assertThat(rebuiltIndex.search("shingeki", 10)).extracting(Anime::getId).containsExactly(3L);
+        Assertions.assertThat(rebuiltIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Search returns an empty list when the query has no words")
+    void searchReturnsEmptyListWhenQueryHasNoWords() {
+        Assertions.assertThat(searchIndex.search(" !? ", 10)).isEmpty();
+        Assertions.assertThat(searchIndex.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Search ignores case and accents")
+    void searchIgnoresCaseAndAccents() {
+        searchIndex.put(5L, "Pokémon");
+
+        List<Long> ids = searchIndex.search("POKEMON", 10).stream().map(Anime::getId).collect(Collectors.toList());
+
+        Assertions.assertThat(ids).containsExactly(5L);
+    }
+}
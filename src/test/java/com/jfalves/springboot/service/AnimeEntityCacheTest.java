@@ -0,0 +1,143 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.AnimeCacheProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.wrapper.CacheStats;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+class AnimeEntityCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final LongFunction<Optional<Anime>> loader = id -> {
+        loads.incrementAndGet();
+        return id < 0 ? Optional.empty() : Optional.of(Anime.builder().id(id).name("Anime " + id).build());
+    };
+
+    @Test
+    @DisplayName("Get loads once and then returns the cached anime when successful")
+    void getLoadsOnceAndReturnsCachedAnimeWhenSuccessful() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.TINY_LFU, 10, Duration.ZERO);
+
+        Anime first = cache.get(1, loader).orElseThrow();
+        Anime second = cache.get(1, loader).orElseThrow();
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(loads).hasValue(1);
+        CacheStats stats = cache.stats();
+        Assertions.assertThat(stats.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(stats.getMissCount()).isEqualTo(1);
+        Assertions.assertThat(stats.getHitRatio()).isEqualTo(0.5);
+        Assertions.assertThat(stats.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Get does not cache missing animes")
+    void getDoesNotCacheMissingAnimes() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.LRU, 10, Duration.ZERO);
+
+        Assertions.assertThat(cache.get(-1, loader)).isEmpty();
+        Assertions.assertThat(cache.get(-1, loader)).isEmpty();
+
+        Assertions.assertThat(loads).hasValue(2);
+        Assertions.assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Invalidate makes the next get load the anime again")
+    void invalidateMakesNextGetLoadAgain() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.TINY_LFU, 10, Duration.ZERO);
+        cache.get(1, loader);
+
+        cache.invalidate(1);
+        cache.get(1, loader);
+
+        Assertions.assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Get reloads the anime after the ttl has passed")
+    void getReloadsAnimeAfterTtl() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.LRU, 10, Duration.ofSeconds(5));
+        cache.get(1, loader);
+
+        ticker.addAndGet(Duration.ofSeconds(4).toNanos());
+        cache.get(1, loader);
+        ticker.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(1, loader);
+
+        Assertions.assertThat(loads).hasValue(2);
+        Assertions.assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lru policy evicts the least recently used anime")
+    void lruPolicyEvictsLeastRecentlyUsedAnime() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.LRU, 2, Duration.ZERO);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+
+        cache.get(3, loader);
+        loads.set(0);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        Assertions.assertThat(loads).hasValue(1);
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.stats().getEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Tiny lfu policy keeps hot animes during a scan of one-off ids")
+    void tinyLfuPolicyKeepsHotAnimesDuringScan() {
+        AnimeEntityCache cache = cache(AnimeCacheProperties.Policy.TINY_LFU, 100, Duration.ZERO);
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 50; id++) {
+                cache.get(id, loader);
+            }
+        }
+
+        for (long id = 1_000; id < 11_000; id++) {
+            cache.get(id, loader);
+        }
+        loads.set(0);
+        for (long id = 0; id < 50; id++) {
+            cache.get(id, loader);
+        }
+
+        Assertions.assertThat(loads.get()).isLessThan(5);
+        Assertions.assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Get always calls the loader when the cache is disabled")
+    void getAlwaysLoadsWhenDisabled() {
+        AnimeCacheProperties properties = new AnimeCacheProperties();
+        properties.setEnabled(false);
+        AnimeEntityCache cache = new AnimeEntityCache(properties, ticker::get);
+
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        Assertions.assertThat(loads).hasValue(2);
+        Assertions.assertThat(cache.stats().isEnabled()).isFalse();
+    }
+
+    private AnimeEntityCache cache(AnimeCacheProperties.Policy policy, int maximumSize, Duration ttl) {
+        AnimeCacheProperties properties = new AnimeCacheProperties();
+        properties.setPolicy(policy);
+        properties.setMaximumSize(maximumSize);
+        properties.setTtl(ttl);
+        properties.setStripes(1);
+        return new AnimeEntityCache(properties, ticker::get);
+    }
+}
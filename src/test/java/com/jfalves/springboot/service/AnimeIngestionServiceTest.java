@@ -0,0 +1,225 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.IngestionProperties;
+import com.jfalves.springboot.domain.Anime;
+import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.util.AnimePostRequestBodyCreator;
+import com.jfalves.springboot.wrapper.IngestionStatus;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+class AnimeIngestionServiceTest {
+
+    private AnimeService animeService;
+    private IngestionProperties properties;
+    private AnimeIngestionService ingestion;
+
+    @BeforeEach
+    void setUp() {
+        animeService = Mockito.mock(AnimeService.class);
+        //O que não existe (id 404) fica com update count 0
+        BDDMockito.when(animeService.ingest(ArgumentMatchers.anyList(), ArgumentMatchers.anyMap()))
+                .thenAnswer(invocation -> {
+                    List<AnimePostRequestBody> bodies = invocation.getArgument(0);
+                    Map<Long, String> namesById = invocation.getArgument(1);
+                    List<Anime> saved = bodies.stream()
+                            .map(body -> Anime.builder().id(100L + bodies.indexOf(body)).name(body.getName()).build())
+                            .collect(Collectors.toList());
+                    int[] counts = namesById.keySet().stream().mapToInt(id -> id == 404L ? 0 : 1).toArray();
+                    return new AnimeService.IngestedBatch(saved, counts);
+                });
+
+        properties = new IngestionProperties();
+        properties.setEnabled(true);
+        //Só o stop() dispara o flush, para os testes não dependerem de tempo
+        properties.setFlushInterval(Duration.ofMinutes(1));
+        ingestion = new AnimeIngestionService(animeService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestion.stop();
+    }
+
+    @Test
+    @DisplayName("Enqueue returns queued status and stop writes it when successful")
+    void enqueueReturnsQueuedStatusAndStopWritesItWhenSuccessful() {
+        ingestion.start();
+
+        IngestionStatus queued = ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        Assertions.assertThat(queued.getState()).isEqualTo(IngestionStatus.State.QUEUED);
+
+        ingestion.stop();
+
+        IngestionStatus status = ingestion.status(queued.getTrackingId());
+        Assertions.assertThat(status.getState()).isEqualTo(IngestionStatus.State.COMPLETED);
+        Assertions.assertThat(status.getOperation()).isEqualTo(IngestionStatus.Operation.CREATE);
+        Assertions.assertThat(status.getAnimeId()).isEqualTo(100L);
+        Assertions.assertThat(ingestion.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Enqueue coalesces updates to the same id into one write when successful")
+    void enqueueCoalescesUpdatesToSameIdIntoOneWriteWhenSuccessful() {
+        ingestion.start();
+
+        IngestionStatus first = ingestion.enqueue(AnimePutRequestBody.builder().id(1L).name("first").build());
+        IngestionStatus other = ingestion.enqueue(AnimePutRequestBody.builder().id(2L).name("other").build());
+        IngestionStatus last = ingestion.enqueue(AnimePutRequestBody.builder().id(1L).name("last").build());
+        ingestion.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, String>> namesById = ArgumentCaptor.forClass(Map.class);
+        BDDMockito.verify(animeService).ingest(ArgumentMatchers.anyList(), namesById.capture());
+        Assertions.assertThat(namesById.getValue()).containsExactly(Map.entry(2L, "other"), Map.entry(1L, "last"));
+
+        Assertions.assertThat(ingestion.status(first.getTrackingId()).isCoalesced()).isTrue();
+        Assertions.assertThat(ingestion.status(first.getTrackingId()).getState()).isEqualTo(IngestionStatus.State.COMPLETED);
+        Assertions.assertThat(ingestion.status(other.getTrackingId()).isCoalesced()).isFalse();
+        Assertions.assertThat(ingestion.status(last.getTrackingId()).isCoalesced()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Enqueue writes in batches of batch size when successful")
+    void enqueueWritesInBatchesOfBatchSizeWhenSuccessful() {
+        properties.setBatchSize(2);
+        ingestion.start();
+
+        for (int i = 0; i < 5; i++) {
+            ingestion.enqueue(AnimePostRequestBody.builder().name("anime " + i).build());
+        }
+        ingestion.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AnimePostRequestBody>> bodies = ArgumentCaptor.forClass(List.class);
+        BDDMockito.verify(animeService, Mockito.atLeast(3)).ingest(bodies.capture(), ArgumentMatchers.anyMap());
+        Assertions.assertThat(bodies.getAllValues()).allSatisfy(batch -> Assertions.assertThat(batch).hasSizeBetween(1, 2));
+        Assertions.assertThat(bodies.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Status is failed when the anime to update does not exist")
+    void statusIsFailedWhenAnimeToUpdateDoesNotExist() {
+        ingestion.start();
+
+        IngestionStatus missing = ingestion.enqueue(AnimePutRequestBody.builder().id(404L).name("missing").build());
+        ingestion.stop();
+
+        IngestionStatus status = ingestion.status(missing.getTrackingId());
+        Assertions.assertThat(status.getState()).isEqualTo(IngestionStatus.State.FAILED);
+        Assertions.assertThat(status.getError()).isEqualTo("Anime not found");
+    }
+
+    @Test
+    @DisplayName("Status is failed for the whole batch when the transaction fails")
+    void statusIsFailedForWholeBatchWhenTransactionFails() {
+        BDDMockito.when(animeService.ingest(ArgumentMatchers.anyList(), ArgumentMatchers.anyMap()))
+                .thenThrow(new IllegalStateException("Connection refused"));
+        ingestion.start();
+
+        IngestionStatus create = ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        IngestionStatus update = ingestion.enqueue(AnimePutRequestBody.builder().id(1L).name("name").build());
+        ingestion.stop();
+
+        Assertions.assertThat(Arrays.asList(ingestion.status(create.getTrackingId()), ingestion.status(update.getTrackingId())))
+                .extracting(IngestionStatus::getState, IngestionStatus::getError)
+                .containsOnly(Assertions.tuple(IngestionStatus.State.FAILED, "Connection refused"));
+    }
+
+    @Test
+    @DisplayName("Writer keeps running when a batch fails after the transaction")
+    void writerKeepsRunningWhenBatchFailsAfterTransaction() {
+        //Nenhum anime salvo para o create: o flush estoura depois do ingest
+        BDDMockito.when(animeService.ingest(ArgumentMatchers.anyList(), ArgumentMatchers.anyMap()))
+                .thenReturn(new AnimeService.IngestedBatch(List.of(), new int[0]))
+                .thenThrow(new AssertionError("Broken batch"))
+                .thenReturn(new AnimeService.IngestedBatch(List.of(Anime.builder().id(100L).build()), new int[0]));
+        properties.setBatchSize(1);
+        ingestion.start();
+
+        IngestionStatus shortBatch = ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        IngestionStatus error = ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        IngestionStatus next = ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        ingestion.stop();
+
+        Assertions.assertThat(ingestion.status(shortBatch.getTrackingId()).getState()).isEqualTo(IngestionStatus.State.FAILED);
+        Assertions.assertThat(ingestion.status(error.getTrackingId()))
+                .extracting(IngestionStatus::getState, IngestionStatus::getError)
+                .containsExactly(IngestionStatus.State.FAILED, "Broken batch");
+        Assertions.assertThat(ingestion.status(next.getTrackingId()).getState()).isEqualTo(IngestionStatus.State.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Enqueue throws RejectedExecutionException when the queue is full")
+    void enqueueThrowsRejectedExecutionExceptionWhenQueueIsFull() {
+        properties.setQueueCapacity(2);
+        ingestion.start();
+
+        ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+        ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody());
+
+        Assertions.assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody()))
+                .withMessage("Ingestion queue is full")
+                .satisfies(e -> Assertions.assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Enqueue throws RejectedExecutionException when not running")
+    void enqueueThrowsRejectedExecutionExceptionWhenNotRunning() {
+        Assertions.assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody()))
+                .withMessage("Ingestion is not running")
+                .satisfies(e -> Assertions.assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Enqueue throws RejectedExecutionException when stop runs between its running check and the offer")
+    void enqueueThrowsRejectedExecutionExceptionWhenStopRunsBetweenRunningCheckAndOffer() {
+        //A capacidade é lida depois da checagem de accepting e antes do offer: o stop() entra ali
+        AtomicBoolean stopOnCapacityCheck = new AtomicBoolean(true);
+        IngestionProperties stoppingProperties = new IngestionProperties() {
+            @Override
+            public int getQueueCapacity() {
+                if (stopOnCapacityCheck.getAndSet(false)) {
+                    ingestion.stop();
+                }
+                return super.getQueueCapacity();
+            }
+        };
+        stoppingProperties.setEnabled(true);
+        stoppingProperties.setFlushInterval(Duration.ofMinutes(1));
+        ingestion = new AnimeIngestionService(animeService, stoppingProperties);
+        ingestion.start();
+
+        Assertions.assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> ingestion.enqueue(AnimePostRequestBodyCreator.createAnimePostRequestBody()))
+                .withMessage("Ingestion is not running");
+        Assertions.assertThat(ingestion.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Status throws BadRequestException when the tracking id is unknown")
+    void statusThrowsBadRequestExceptionWhenTrackingIdIsUnknown() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> ingestion.status(42L))
+                .withMessage("Ingestion not found");
+    }
+}
@@ -2,10 +2,15 @@ package com.jfalves.springboot.service;
 
 import com.jfalves.springboot.domain.Anime;
 import com.jfalves.springboot.exception.BadRequestException;
+import com.jfalves.springboot.exception.PreconditionFailedException;
 import com.jfalves.springboot.repository.AnimeRepository;
+import com.jfalves.springboot.requests.AnimePostRequestBody;
+import com.jfalves.springboot.requests.AnimePutRequestBody;
+import com.jfalves.springboot.search.AnimeSearchIndex;
 import com.jfalves.springboot.util.AnimeCreator;
 import com.jfalves.springboot.util.AnimePostRequestBodyCreator;
 import com.jfalves.springboot.util.AnimePutRequestBodyCreator;
+import com.jfalves.springboot.wrapper.CursorResponse;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,14 +20,25 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 class AnimeServiceTest {
@@ -35,26 +51,88 @@ class AnimeServiceTest {
     @Mock
     private AnimeRepository repository;
 
+    @Mock
+    private AnimeCountCache countCache;
+
+    @Mock
+    private AnimeSearchIndex searchIndex;
+
+    @Mock
+    private AnimeEntityCache entityCache;
+
+    @Mock
+    private AnimeCatalogVersion catalogVersion;
+
     @BeforeEach
     void setUp() {
         PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
 
-        BDDMockito.when(repository.findAll(ArgumentMatchers.any(PageRequest.class)))
+        BDDMockito.when(repository.findAllReadOnly(ArgumentMatchers.any(PageRequest.class)))
                 .thenReturn(animePage);
 
-        BDDMockito.when(repository.findAll())
+        BDDMockito.when(repository.findSliceReadOnly(ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnime()), PageRequest.of(0, 1), true));
+
+        BDDMockito.when(repository.findAllBy(ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnime()), PageRequest.of(0, 1), true));
+
+        BDDMockito.when(repository.findAllAfter(ArgumentMatchers.anyString(), ArgumentMatchers.anyLong(),
+                        ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidUpdatedAnime()), PageRequest.of(0, 1), false));
+
+        BDDMockito.when(countCache.get()).thenReturn(10L);
+
+        BDDMockito.when(entityCache.get(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<LongFunction<Optional<Anime>>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
+
+        BDDMockito.when(searchIndex.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        BDDMockito.when(repository.findAllReadOnly())
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
         BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(AnimeCreator.createValidAnime()));
 
-        BDDMockito.when(repository.findByName(ArgumentMatchers.anyString()))
+        BDDMockito.when(repository.streamAll())
+                .thenAnswer(invocation -> Stream.of(AnimeCreator.createValidAnime()));
+
+        BDDMockito.when(repository.findByNameReadOnly(ArgumentMatchers.anyString()))
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
         BDDMockito.when(repository.save(ArgumentMatchers.any(Anime.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
 
-        BDDMockito.doNothing().when(repository).delete(ArgumentMatchers.any(Anime.class));
+        BDDMockito.when(repository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> {
+                    List<Anime> animes = invocation.getArgument(0);
+                    animes.forEach(anime -> anime.setId(AnimeCreator.createValidAnime().getId()));
+                    return animes;
+                });
+
+        BDDMockito.when(repository.updateNameById(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(1);
+
+        BDDMockito.when(repository.updateNameByIdAndVersion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+                        ArgumentMatchers.eq(0L)))
+                .thenReturn(1);
+
+        BDDMockito.when(repository.existsById(ArgumentMatchers.anyLong()))
+                .thenReturn(true);
+
+        BDDMockito.when(repository.updateNames(ArgumentMatchers.anyMap()))
+                .thenAnswer(invocation -> {
+                    int[] counts = new int[invocation.<Map<Long, String>>getArgument(0).size()];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                });
+
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(1);
+
+        BDDMockito.when(repository.removeAllByIdIn(ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
     }
 
     @Test
@@ -69,6 +147,93 @@ class AnimeServiceTest {
         Assertions.assertThat(animePage.toList().get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("List all with cached total returns page without running count query when successful")
+    void listAllWithCachedTotalReturnsPageWithoutCountQueryWhenSuccessful() {
+        Page<Anime> animePage = service.listAllWithCachedTotal(PageRequest.of(0, 1));
+
+        Assertions.assertThat(animePage.toList()).hasSize(1);
+        Assertions.assertThat(animePage.getTotalElements()).isEqualTo(10L);
+        Assertions.assertThat(animePage.isLast()).isFalse();
+
+        BDDMockito.verify(repository, BDDMockito.never()).findAllReadOnly(ArgumentMatchers.any(Pageable.class));
+        BDDMockito.verify(repository, BDDMockito.never()).count();
+    }
+
+    @Test
+    @DisplayName("List all with cached total returns exact total on the last page")
+    void listAllWithCachedTotalReturnsExactTotalOnLastPage() {
+        BDDMockito.when(repository.findSliceReadOnly(ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnime()), PageRequest.of(2, 1), false));
+
+        Page<Anime> animePage = service.listAllWithCachedTotal(PageRequest.of(2, 1));
+
+        Assertions.assertThat(animePage.getTotalElements()).isEqualTo(3L);
+        Assertions.assertThat(animePage.isLast()).isTrue();
+        Assertions.assertThat(AnimeService.isTotalExact(animePage)).isTrue();
+    }
+
+    @Test
+    @DisplayName("List all with cached total returns cached, inexact total on an empty page past the end")
+    void listAllWithCachedTotalReturnsCachedInexactTotalOnEmptyPagePastTheEnd() {
+        BDDMockito.when(repository.findSliceReadOnly(ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(5, 10), false));
+
+        Page<Anime> animePage = service.listAllWithCachedTotal(PageRequest.of(5, 10));
+
+        Assertions.assertThat(animePage.toList()).isEmpty();
+        Assertions.assertThat(animePage.getTotalElements()).isEqualTo(10L);
+        Assertions.assertThat(AnimeService.isTotalExact(animePage)).isFalse();
+    }
+
+    @Test
+    @DisplayName("List all with cached total returns exact zero total when there are no animes")
+    void listAllWithCachedTotalReturnsExactZeroTotalWhenThereAreNoAnimes() {
+        BDDMockito.when(repository.findSliceReadOnly(ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        Page<Anime> animePage = service.listAllWithCachedTotal(PageRequest.of(0, 10));
+
+        Assertions.assertThat(animePage.getTotalElements()).isZero();
+        Assertions.assertThat(AnimeService.isTotalExact(animePage)).isTrue();
+        BDDMockito.verify(countCache, BDDMockito.never()).get();
+    }
+
+    @Test
+    @DisplayName("List all by cursor returns first page with next cursor when successful")
+    void listAllByCursorReturnsFirstPageWithNextCursorWhenSuccessful() {
+        CursorResponse<Anime> page = service.listAllByCursor(null, 1);
+
+        Assertions.assertThat(page).isNotNull();
+        Assertions.assertThat(page.getContent()).hasSize(1);
+        Assertions.assertThat(page.isHasNext()).isTrue();
+        Assertions.assertThat(page.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("List all by cursor follows the cursor until the last page when successful")
+    void listAllByCursorFollowsCursorUntilLastPageWhenSuccessful() {
+        String nextCursor = service.listAllByCursor(null, 1).getNextCursor();
+
+        CursorResponse<Anime> page = service.listAllByCursor(nextCursor, 1);
+
+        Assertions.assertThat(page.getContent()).hasSize(1);
+        Assertions.assertThat(page.getContent().get(0).getName())
+                .isEqualTo(AnimeCreator.createValidUpdatedAnime().getName());
+        Assertions.assertThat(page.isHasNext()).isFalse();
+        Assertions.assertThat(page.getNextCursor()).isNull();
+
+        BDDMockito.verify(repository).findAllAfter(ArgumentMatchers.eq(AnimeCreator.createValidAnime().getName()),
+                ArgumentMatchers.eq(AnimeCreator.createValidAnime().getId()), ArgumentMatchers.any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("List all by cursor throws bad request exception when cursor is invalid")
+    void listAllByCursorThrowsBadRequestExceptionWhenCursorIsInvalid() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.listAllByCursor("not a cursor", 1));
+    }
+
     @Test
     @DisplayName("List all noPageable returns list of anime when successful")
     void listAllNoPageableReturnsListOfAnimesWhenSuccessful() {
@@ -83,6 +248,21 @@ class AnimeServiceTest {
         Assertions.assertThat(animes.get(0).getName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("Stream all hands every anime to the consumer when successful")
+    void streamAllHandsEveryAnimeToConsumerWhenSuccessful() {
+        String expectedName = AnimeCreator.createValidAnime().getName();
+        List<Anime> animes = new ArrayList<>();
+
+        service.streamAll(animes::add);
+
+        Assertions.assertThat(animes)
+                .isNotEmpty()
+                .hasSize(1);
+
+        Assertions.assertThat(animes.get(0).getName()).isEqualTo(expectedName);
+    }
+
     @Test
     @DisplayName("Find by id or throw bad request exception anime when successful")
     void findByIdOrThrowBadRequestExceptionAnimesWhenSuccessful() {
@@ -121,7 +301,7 @@ class AnimeServiceTest {
     @Test
     @DisplayName("Find by name returns an empty list of anime when anime is not found")
     void findByNameReturnsEmptyListOfAnimesWhenAnimeIsNotFound() {
-        BDDMockito.when(repository.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList());
+        BDDMockito.when(repository.findByNameReadOnly(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList());
 
         List<Anime> animes = service.findByName("anime");
 
@@ -130,12 +310,45 @@ class AnimeServiceTest {
                 .isEmpty();
     }
 
+    @Test
+    @DisplayName("Search returns ranked list of anime from the search index when successful")
+    void searchReturnsListOfAnimesFromSearchIndexWhenSuccessful() {
+        List<Anime> animes = service.search("ippo", 10);
+
+        Assertions.assertThat(animes).hasSize(1);
+        BDDMockito.verify(repository, BDDMockito.never()).findByNameReadOnly(ArgumentMatchers.anyString());
+    }
+
     @Test
     @DisplayName("Save returns anime when successful")
     void saveReturnsAnimesWhenSuccessful() {
         Anime anime = service.save(AnimePostRequestBodyCreator.createAnimePostRequestBody());
         Assertions.assertThat(anime).isNotNull();
         Assertions.assertThat(anime.getName()).isEqualTo(AnimeCreator.createValidAnime().getName());
+
+        BDDMockito.verify(countCache).increment();
+        BDDMockito.verify(searchIndex).put(anime.getId(), anime.getName());
+    }
+
+    @Test
+    @DisplayName("Save all returns every anime saved in a single call when successful")
+    void saveAllReturnsEveryAnimeWhenSuccessful() {
+        List<Anime> animes = service.saveAll(List.of(AnimePostRequestBodyCreator.createAnimePostRequestBody(),
+                AnimePostRequestBodyCreator.createAnimePostRequestBody()));
+
+        Assertions.assertThat(animes).hasSize(2);
+        BDDMockito.verify(repository).saveAll(ArgumentMatchers.anyList());
+        BDDMockito.verify(countCache).add(2);
+    }
+
+    @Test
+    @DisplayName("Save all throws bad request exception when batch is too large")
+    void saveAllThrowsBadRequestExceptionWhenBatchIsTooLarge() {
+        List<AnimePostRequestBody> bodies = Collections.nCopies(AnimeService.MAX_BATCH_SIZE + 1,
+                AnimePostRequestBodyCreator.createAnimePostRequestBody());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.saveAll(bodies));
     }
 
     @Test
@@ -143,6 +356,105 @@ class AnimeServiceTest {
     void replaceUpdatesAnimesWhenSuccessful() {
         Assertions.assertThatCode(() -> service.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody()))
                 .doesNotThrowAnyException();
+
+        BDDMockito.verify(entityCache).invalidate(AnimePutRequestBodyCreator.createAnimePutRequestBody().getId());
+        BDDMockito.verify(repository, BDDMockito.never()).findById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Replace throws bad request exception when anime is not found")
+    void replaceThrowsBadRequestExceptionWhenAnimeIsNotFound() {
+        BDDMockito.when(repository.updateNameById(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(0);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody()))
+                .withMessage("Anime not found");
+    }
+
+    @Test
+    @DisplayName("Replace with expected version updates anime when version matches")
+    void replaceWithExpectedVersionUpdatesAnimeWhenVersionMatches() {
+        Assertions.assertThatCode(() -> service.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), 0L))
+                .doesNotThrowAnyException();
+
+        BDDMockito.verify(catalogVersion).increment();
+    }
+
+    @Test
+    @DisplayName("Replace with expected version throws precondition failed exception when version changed")
+    void replaceWithExpectedVersionThrowsPreconditionFailedExceptionWhenVersionChanged() {
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> service.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), 7L));
+
+        BDDMockito.verifyNoInteractions(searchIndex, entityCache, catalogVersion);
+    }
+
+    @Test
+    @DisplayName("Replace with expected version throws bad request exception when anime is not found")
+    void replaceWithExpectedVersionThrowsBadRequestExceptionWhenAnimeIsNotFound() {
+        BDDMockito.when(repository.existsById(ArgumentMatchers.anyLong()))
+                .thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.replace(AnimePutRequestBodyCreator.createAnimePutRequestBody(), 7L))
+                .withMessage("Anime not found");
+    }
+
+    @Test
+    @DisplayName("Replace all renames every anime in a single batch when successful")
+    void replaceAllRenamesEveryAnimeWhenSuccessful() {
+        AnimePutRequestBody first = new AnimePutRequestBody(1L, "Naruto");
+        AnimePutRequestBody second = new AnimePutRequestBody(2L, "Bleach");
+
+        Assertions.assertThatCode(() -> service.replaceAll(List.of(first, second)))
+                .doesNotThrowAnyException();
+
+        BDDMockito.verify(repository).updateNames(Map.of(1L, "Naruto", 2L, "Bleach"));
+        BDDMockito.verify(searchIndex).put(1L, "Naruto");
+        BDDMockito.verify(searchIndex).put(2L, "Bleach");
+    }
+
+    @Test
+    @DisplayName("Ingest saves and renames in one call and skips missing ids when successful")
+    void ingestSavesAndRenamesAndSkipsMissingIdsWhenSuccessful() {
+        BDDMockito.when(repository.updateNames(ArgumentMatchers.anyMap()))
+                .thenReturn(new int[]{1, 0});
+        Map<Long, String> namesById = new LinkedHashMap<>();
+        namesById.put(1L, "Naruto");
+        namesById.put(2L, "Bleach");
+
+        AnimeService.IngestedBatch ingested = service.ingest(
+                List.of(AnimePostRequestBodyCreator.createAnimePostRequestBody()), namesById);
+
+        Assertions.assertThat(ingested.getSavedAnimes()).hasSize(1);
+        Assertions.assertThat(ingested.getUpdateCounts()).containsExactly(1, 0);
+        BDDMockito.verify(countCache).add(1);
+        BDDMockito.verify(searchIndex).put(1L, "Naruto");
+        BDDMockito.verify(searchIndex, Mockito.never()).put(2L, "Bleach");
+        BDDMockito.verify(entityCache, Mockito.never()).invalidate(2L);
+    }
+
+    @Test
+    @DisplayName("Replace all throws bad request exception when any anime is not found")
+    void replaceAllThrowsBadRequestExceptionWhenAnyAnimeIsNotFound() {
+        BDDMockito.when(repository.updateNameByIdAndVersion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+                        ArgumentMatchers.eq(0L)))
+                .thenReturn(1);
+
+        BDDMockito.when(repository.existsById(ArgumentMatchers.anyLong()))
+                .thenReturn(true);
+
+        BDDMockito.when(repository.updateNames(ArgumentMatchers.anyMap()))
+                .thenReturn(new int[]{1, 0});
+        List<AnimePutRequestBody> bodies = List.of(new AnimePutRequestBody(1L, "Naruto"),
+                new AnimePutRequestBody(2L, "Bleach"));
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.replaceAll(bodies))
+                .withMessage("Anime not found");
+
+        BDDMockito.verifyNoInteractions(searchIndex);
     }
 
     @Test
@@ -150,6 +462,50 @@ class AnimeServiceTest {
     void deleteAnimesWhenSuccessful() {
         Assertions.assertThatCode(() -> service.delete(1))
                 .doesNotThrowAnyException();
+
+        BDDMockito.verify(countCache).decrement();
+        BDDMockito.verify(searchIndex).remove(1L);
+        BDDMockito.verify(entityCache).invalidate(1L);
+        BDDMockito.verify(catalogVersion).increment();
+        BDDMockito.verify(repository, BDDMockito.never()).findById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Delete throws bad request exception when anime is not found")
+    void deleteThrowsBadRequestExceptionWhenAnimeIsNotFound() {
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(0);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.delete(1))
+                .withMessage("Anime not found");
+
+        BDDMockito.verifyNoInteractions(countCache);
+    }
+
+    @Test
+    @DisplayName("Delete all removes every distinct id in a single statement when successful")
+    void deleteAllRemovesEveryDistinctIdWhenSuccessful() {
+        Assertions.assertThatCode(() -> service.deleteAll(List.of(1L, 2L, 2L)))
+                .doesNotThrowAnyException();
+
+        BDDMockito.verify(repository).removeAllByIdIn(Set.of(1L, 2L));
+        BDDMockito.verify(countCache).add(-2);
+        BDDMockito.verify(searchIndex).remove(1L);
+        BDDMockito.verify(searchIndex).remove(2L);
+    }
+
+    @Test
+    @DisplayName("Delete all throws bad request exception when any anime is not found")
+    void deleteAllThrowsBadRequestExceptionWhenAnyAnimeIsNotFound() {
+        BDDMockito.when(repository.removeAllByIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(1);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.deleteAll(List.of(1L, 2L)))
+                .withMessage("Anime not found");
+
+        BDDMockito.verifyNoInteractions(countCache);
     }
 
 }
\ No newline at end of file
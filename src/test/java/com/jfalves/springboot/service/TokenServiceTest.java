@@ -0,0 +1,91 @@
+package com.jfalves.springboot.service;
+
+import com.jfalves.springboot.config.TokenProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+
+class TokenServiceTest {
+
+    private static final String OLD_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String NEW_KEY = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final Authentication jackson = new UsernamePasswordAuthenticationToken("jackson", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+    @Test
+    @DisplayName("Verify returns username and authorities carried by an issued token")
+    void verifyReturnsUsernameAndAuthoritiesWhenSuccessful() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), Clock.systemUTC());
+
+        Authentication authentication = tokenService.verify(tokenService.issue(jackson));
+
+        Assertions.assertThat(authentication.getName()).isEqualTo("jackson");
+        Assertions.assertThat(authentication.isAuthenticated()).isTrue();
+        Assertions.assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Verify throws bad credentials exception when token was tampered with")
+    void verifyThrowsBadCredentialsExceptionWhenTokenWasTampered() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), Clock.systemUTC());
+        String token = tokenService.issue(jackson);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("9999999999\nROLE_ADMIN\nuser".getBytes());
+        String[] parts = token.split("\\.");
+
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> tokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2]));
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> tokenService.verify("garbage"));
+    }
+
+    @Test
+    @DisplayName("Verify throws bad credentials exception when token is expired")
+    void verifyThrowsBadCredentialsExceptionWhenTokenIsExpired() {
+        Instant now = Instant.parse("2020-01-01T00:00:00Z");
+        String token = tokenService("old", Map.of("old", OLD_KEY), Clock.fixed(now, ZoneOffset.UTC)).issue(jackson);
+
+        TokenService later = tokenService("old", Map.of("old", OLD_KEY),
+                Clock.fixed(now.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> later.verify(token))
+                .withMessage("Expired token");
+    }
+
+    @Test
+    @DisplayName("Verify accepts tokens of every configured key while only the active key signs")
+    void verifyAcceptsTokensOfRotatedKeys() {
+        String oldToken = tokenService("old", Map.of("old", OLD_KEY), Clock.systemUTC()).issue(jackson);
+
+        TokenService rotated = tokenService("new", Map.of("old", OLD_KEY, "new", NEW_KEY), Clock.systemUTC());
+        TokenService oldKeyRemoved = tokenService("new", Map.of("new", NEW_KEY), Clock.systemUTC());
+
+        Assertions.assertThat(rotated.verify(oldToken).getName()).isEqualTo("jackson");
+        Assertions.assertThat(rotated.issue(jackson)).startsWith("new.");
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> oldKeyRemoved.verify(oldToken));
+    }
+
+    private static TokenService tokenService(String activeKey, Map<String, String> keys, Clock clock) {
+        TokenProperties properties = new TokenProperties();
+        properties.setActiveKey(activeKey);
+        properties.setKeys(keys);
+        return new TokenService(properties, clock);
+    }
+}
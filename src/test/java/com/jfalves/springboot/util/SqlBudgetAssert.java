@@ -0,0 +1,49 @@
+package com.jfalves.springboot.util;
+
+import com.jfalves.springboot.filter.SqlBudgetFilter;
+import org.assertj.core.api.AbstractAssert;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Asserts on the X-Sql-* headers the SqlBudgetFilter adds to every response, so an integration
+ * test can pin how many round trips an endpoint makes:
+ * <pre>
+ * SqlBudgetAssert.assertThat(responseEntity).issuedAtMostStatements(1);
+ * </pre>
+ */
+public class SqlBudgetAssert extends AbstractAssert<SqlBudgetAssert, ResponseEntity<?>> {
+
+    private SqlBudgetAssert(ResponseEntity<?> actual) {
+        super(actual, SqlBudgetAssert.class);
+    }
+
+    public static SqlBudgetAssert assertThat(ResponseEntity<?> actual) {
+        return new SqlBudgetAssert(actual);
+    }
+
+    public SqlBudgetAssert issuedAtMostStatements(int maxStatements) {
+        long statements = header(SqlBudgetFilter.STATEMENTS_HEADER);
+        if (statements > maxStatements) {
+            failWithMessage("Expected at most <%d> SQL statements but the request issued <%d>",
+                    maxStatements, statements);
+        }
+        return this;
+    }
+
+    public SqlBudgetAssert fetchedAtMostRows(int maxRows) {
+        long rows = header(SqlBudgetFilter.ROWS_HEADER);
+        if (rows > maxRows) {
+            failWithMessage("Expected at most <%d> rows fetched but the request fetched <%d>", maxRows, rows);
+        }
+        return this;
+    }
+
+    private long header(String name) {
+        isNotNull();
+        String value = actual.getHeaders().getFirst(name);
+        if (value == null) {
+            failWithMessage("Expected response to have the <%s> header; is jalves.sql-budget.expose-headers on?", name);
+        }
+        return Long.parseLong(value);
+    }
+}
@@ -0,0 +1,92 @@
+package com.jfalves.springboot.wrapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.jfalves.springboot.domain.Anime;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+class PageableResponseDeserializerTest {
+
+    private static final TypeReference<PageableResponse<Anime>> ANIME_PAGE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] json;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Anime> animes = LongStream.rangeClosed(21, 30)
+                .mapToObj(id -> Anime.builder().id(id).name("Anime " + id).build())
+                .collect(Collectors.toList());
+        json = objectMapper.writeValueAsBytes(new PageImpl<>(animes, PageRequest.of(2, 10, Sort.by("name")), 35));
+    }
+
+    @Test
+    @DisplayName("readValue returns pageable response with content and page fields when successful")
+    void readValue_ReturnsPageableResponseWithContentAndPageFields_WhenSuccessful() throws Exception {
+        PageableResponse<Anime> page = objectMapper.readValue(json, ANIME_PAGE);
+
+        Assertions.assertThat(page.getContent())
+                .hasSize(10)
+                .allSatisfy(anime -> Assertions.assertThat(anime).isInstanceOf(Anime.class));
+        Assertions.assertThat(page.getContent().get(0).getName()).isEqualTo("Anime 21");
+        Assertions.assertThat(page.getNumber()).isEqualTo(2);
+        Assertions.assertThat(page.getSize()).isEqualTo(10);
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(35);
+        Assertions.assertThat(page.getTotalPages()).isEqualTo(4);
+        Assertions.assertThat(page.getNumberOfElements()).isEqualTo(10);
+        Assertions.assertThat(page.isFirst()).isFalse();
+        Assertions.assertThat(page.isLast()).isFalse();
+    }
+
+    @Test
+    @DisplayName("readValue returns empty pageable response when content is null and fields are unknown")
+    void readValue_ReturnsEmptyPageableResponse_WhenContentIsNullAndFieldsAreUnknown() throws Exception {
+        String page = "{\"content\":null,\"pageable\":\"INSTANCE\",\"extra\":{\"a\":[1,{\"b\":2}]}," +
+                "\"number\":0,\"size\":20,\"totalElements\":0,\"first\":true,\"last\":true}";
+
+        PageableResponse<Anime> pageableResponse = objectMapper.readValue(page, ANIME_PAGE);
+
+        Assertions.assertThat(pageableResponse.getContent()).isEmpty();
+        Assertions.assertThat(pageableResponse.getSize()).isEqualTo(20);
+        Assertions.assertThat(pageableResponse.isLast()).isTrue();
+    }
+
+    @Test
+    @DisplayName("read hands each anime to the consumer and returns the page summary when successful")
+    void read_HandsEachAnimeToTheConsumerAndReturnsThePageSummary_WhenSuccessful() throws Exception {
+        List<String> names = new ArrayList<>();
+
+        PageSummary summary = new PageableResponseReader<>(objectMapper, Anime.class)
+                .read(json, anime -> names.add(anime.getName()));
+
+        Assertions.assertThat(names).hasSize(10).startsWith("Anime 21").endsWith("Anime 30");
+        Assertions.assertThat(summary).isEqualTo(PageSummary.builder()
+                .number(2).size(10).totalElements(35).totalPages(4).numberOfElements(10)
+                .first(false).last(false)
+                .build());
+    }
+
+    @Test
+    @DisplayName("read throws MismatchedInputException when content is not an array")
+    void read_ThrowsMismatchedInputException_WhenContentIsNotAnArray() {
+        byte[] page = "{\"content\":{\"id\":1}}".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertThatExceptionOfType(MismatchedInputException.class)
+                .isThrownBy(() -> new PageableResponseReader<>(objectMapper, Anime.class).read(page, anime -> {
+                }));
+    }
+}